@@ -34,14 +34,19 @@ import org.spongepowered.despector.decompiler.Decompiler;
 import org.spongepowered.despector.decompiler.Decompilers;
 import org.spongepowered.despector.decompiler.DirectoryWalker;
 import org.spongepowered.despector.decompiler.JarWalker;
+import org.spongepowered.despector.decompiler.StreamingDecompiler;
+import org.spongepowered.despector.decompiler.method.special.ConditionProcessor;
+import org.spongepowered.despector.decompiler.method.special.DecisionDiagramConditionProcessor;
 import org.spongepowered.despector.emitter.Emitter;
 import org.spongepowered.despector.emitter.Emitters;
 import org.spongepowered.despector.emitter.format.EmitterFormat;
 import org.spongepowered.despector.emitter.format.FormatLoader;
 import org.spongepowered.despector.emitter.java.JavaEmitterContext;
+import org.spongepowered.despector.parallel.Scheduler;
 import org.spongepowered.despector.parallel.Timing;
 import org.spongepowered.despector.transform.TypeTransformer;
 import org.spongepowered.despector.transform.cleanup.CleanupOperations;
+import org.spongepowered.despector.util.SymbolTable;
 
 import java.io.FileWriter;
 import java.io.IOException;
@@ -51,6 +56,7 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -73,6 +79,18 @@ public final class Despector {
             Path config_path = Paths.get(".").resolve(config);
             ConfigManager.load(config_path);
         });
+        flags.put("--stream", (arg) -> {
+            LibraryConfiguration.streaming = true;
+            if (arg.startsWith("--stream=")) {
+                LibraryConfiguration.stream_batch_size = Integer.parseInt(arg.substring(9));
+            }
+        });
+        flags.put("--compact-ir", (arg) -> {
+            LibraryConfiguration.compact_ir = true;
+        });
+        flags.put("--bdd-conditions", (arg) -> {
+            Decompilers.JAVA_METHOD.setSpecialProcessor(ConditionProcessor.class, new DecisionDiagramConditionProcessor());
+        });
         flags.put("--lang=", (arg) -> {
             String lang = arg.substring(7);
             if ("kotlin".equalsIgnoreCase(lang)) {
@@ -193,37 +211,6 @@ public final class Despector {
             System.out.println("Running parallel decompile with " + Runtime.getRuntime().availableProcessors() + " workers");
         }
 
-        SourceSet source = new SourceSet();
-        for (String s : sources) {
-            Path path = Paths.get(s);
-            if (!Files.exists(path)) {
-                System.err.println("Unknown source: " + path.toAbsolutePath().toString());
-            } else if (s.endsWith(".jar")) {
-                JarWalker walker = new JarWalker(path);
-                walker.walk(source, decompiler);
-            } else if (Files.isDirectory(path)) {
-                DirectoryWalker walker = new DirectoryWalker(path);
-                try {
-                    walker.walk(source, decompiler);
-                } catch (IOException e) {
-                    System.err.println("Error while walking directory: " + path.toAbsolutePath().toString());
-                    e.printStackTrace();
-                }
-            } else if (s.endsWith(".class")) {
-                decompiler.decompile(path, source);
-            } else {
-                System.err.println("Unknown source type: " + path.toAbsolutePath().toString() + " must be jar or directory");
-            }
-        }
-        if (LibraryConfiguration.parallel && decompiler instanceof BaseDecompiler) {
-            ((BaseDecompiler) decompiler).flushTasks();
-        }
-
-        if (source.getAllClasses().isEmpty()) {
-            System.err.println("No sources found.");
-            return;
-        }
-
         List<TypeTransformer> transformers = new ArrayList<>();
         for (String operation : ConfigManager.getConfig().cleanup.operations) {
             TypeTransformer transformer = CleanupOperations.getOperation(operation);
@@ -253,34 +240,57 @@ public final class Despector {
                 target_trans.addAll(trans);
             }
         }
-        if (!transformers.isEmpty() || !targeted_transformers.isEmpty()) {
-            for (TypeEntry type : source.getAllClasses()) {
-                for (TypeTransformer transformer : transformers) {
-                    transformer.transform(type);
-                }
-                Set<TypeTransformer> targetted = targeted_transformers.get(type.getName());
-                if (targetted != null) {
-                    for (TypeTransformer transformer : targetted) {
-                        transformer.transform(type);
-                    }
-                }
-            }
-        }
 
         Emitter<JavaEmitterContext> emitter = Emitters.get(LANGUAGE);
 
-        for (TypeEntry type : source.getAllClasses()) {
-            if (type.isInnerClass() || type.isAnonType()) {
-                continue;
+        SourceSet source = new SourceSet();
+        if (LibraryConfiguration.streaming) {
+            List<Path> paths = new ArrayList<>();
+            for (String s : sources) {
+                paths.add(Paths.get(s));
+            }
+            StreamingDecompiler streaming = new StreamingDecompiler(decompiler, LibraryConfiguration.stream_batch_size);
+            int count = streaming.run(paths, source, (batch) -> {
+                transform(batch, transformers, targeted_transformers);
+                emit(batch, emitter, formatter, output);
+            });
+            if (count == 0) {
+                System.err.println("No sources found.");
+                return;
+            }
+        } else {
+            for (String s : sources) {
+                Path path = Paths.get(s);
+                if (!Files.exists(path)) {
+                    System.err.println("Unknown source: " + path.toAbsolutePath().toString());
+                } else if (s.endsWith(".jar")) {
+                    JarWalker walker = new JarWalker(path);
+                    walker.walk(source, decompiler);
+                } else if (Files.isDirectory(path)) {
+                    DirectoryWalker walker = new DirectoryWalker(path);
+                    try {
+                        walker.walk(source, decompiler);
+                    } catch (IOException e) {
+                        System.err.println("Error while walking directory: " + path.toAbsolutePath().toString());
+                        e.printStackTrace();
+                    }
+                } else if (s.endsWith(".class")) {
+                    decompiler.decompile(path, source);
+                } else {
+                    System.err.println("Unknown source type: " + path.toAbsolutePath().toString() + " must be jar or directory");
+                }
             }
-            Path out = output.resolve(type.getName() + LANGUAGE.getExtension(type));
-            if (!Files.exists(out.getParent())) {
-                Files.createDirectories(out.getParent());
+            if (LibraryConfiguration.parallel && decompiler instanceof BaseDecompiler) {
+                ((BaseDecompiler) decompiler).flushTasks();
             }
-            try (FileWriter writer = new FileWriter(out.toFile())) {
-                JavaEmitterContext ctx = new JavaEmitterContext(writer, formatter);
-                emitter.emit(ctx, type);
+
+            if (source.getAllClasses().isEmpty()) {
+                System.err.println("No sources found.");
+                return;
             }
+
+            transform(source.getAllClasses(), transformers, targeted_transformers);
+            emit(source.getAllClasses(), emitter, formatter, output);
         }
 
         if (LibraryConfiguration.print_times) {
@@ -288,10 +298,80 @@ public final class Despector {
             System.out.println("Time spend decompiling methods: " + (Timing.time_decompiling_methods / 1000000) + "ms");
             System.out.println("Time spend loading classes: " + (Timing.time_loading_classes / 1000000) + "ms");
             System.out.println("Time spend emitting: " + (Timing.time_emitting / 1000000) + "ms");
+            if (Timing.time_parallel_available > 0) {
+                long utilization = (Timing.time_parallel_busy * 100) / Timing.time_parallel_available;
+                System.out.println("Parallel worker utilization: " + utilization + "% (" + Timing.parallel_tasks_stolen + " tasks stolen)");
+            }
+            long methods = Decompilers.JAVA_METHOD.getDecompiledMethodCount() + Decompilers.KOTLIN_METHOD.getDecompiledMethodCount();
+            long straight_line = Decompilers.JAVA_METHOD.getStraightLineMethodCount() + Decompilers.KOTLIN_METHOD.getStraightLineMethodCount();
+            System.out.println("Straight-line methods: " + straight_line + " of " + methods + " decompiled without a control flow graph");
+            SymbolTable symbols = source.getSymbolTable();
+            System.out.println("Symbol table: " + symbols.size() + " unique symbols, " + symbols.getDeduplicatedCount() + " of "
+                    + symbols.getLookupCount() + " lookups deduplicated (" + symbols.getDeduplicatedChars() + " chars)");
         }
 
     }
 
+    private static void transform(Collection<TypeEntry> types, List<TypeTransformer> transformers,
+            Map<String, Set<TypeTransformer>> targeted_transformers) {
+        if (transformers.isEmpty() && targeted_transformers.isEmpty()) {
+            return;
+        }
+        for (TypeEntry type : types) {
+            for (TypeTransformer transformer : transformers) {
+                transformer.transform(type);
+            }
+            Set<TypeTransformer> targetted = targeted_transformers.get(type.getName());
+            if (targetted != null) {
+                for (TypeTransformer transformer : targetted) {
+                    transformer.transform(type);
+                }
+            }
+        }
+    }
+
+    private static void emit(Collection<TypeEntry> types, Emitter<JavaEmitterContext> emitter, EmitterFormat formatter, Path output)
+            throws IOException {
+        if (LibraryConfiguration.parallel) {
+            // every outer type is written to its own file through its own
+            // emitter context so the output does not depend on which worker
+            // emits which type
+            Scheduler<Runnable> scheduler = new Scheduler<>(Runtime.getRuntime().availableProcessors());
+            for (TypeEntry type : types) {
+                if (type.isInnerClass() || type.isAnonType()) {
+                    continue;
+                }
+                scheduler.add(() -> {
+                    try {
+                        emit(type, emitter, formatter, output);
+                    } catch (Exception e) {
+                        System.err.println("Error emitting type " + type.getName());
+                        e.printStackTrace();
+                    }
+                });
+            }
+            scheduler.execute();
+            return;
+        }
+        for (TypeEntry type : types) {
+            if (type.isInnerClass() || type.isAnonType()) {
+                continue;
+            }
+            emit(type, emitter, formatter, output);
+        }
+    }
+
+    private static void emit(TypeEntry type, Emitter<JavaEmitterContext> emitter, EmitterFormat formatter, Path output) throws IOException {
+        Path out = output.resolve(type.getName() + LANGUAGE.getExtension(type));
+        if (!Files.exists(out.getParent())) {
+            Files.createDirectories(out.getParent());
+        }
+        try (FileWriter writer = new FileWriter(out.toFile())) {
+            JavaEmitterContext ctx = new JavaEmitterContext(writer, formatter);
+            emitter.emit(ctx, type);
+        }
+    }
+
     private Despector() {
     }
 
@@ -29,13 +29,19 @@ import org.spongepowered.despector.ast.generic.ClassTypeSignature;
 import org.spongepowered.despector.ast.generic.MethodSignature;
 import org.spongepowered.despector.ast.generic.TypeSignature;
 import org.spongepowered.despector.ast.type.MethodEntry;
+import org.spongepowered.despector.decompiler.ir.InsnBlock;
 import org.spongepowered.despector.util.SignatureParser;
 import org.spongepowered.despector.util.serialization.MessagePacker;
 
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 
 /**
  * A tracker of local variables.
@@ -44,6 +50,7 @@ public class Locals {
 
     private MethodEntry method;
     private Local[] locals;
+    private long type_version;
 
     public Locals(MethodEntry method) {
         this.locals = new Local[0];
@@ -66,6 +73,16 @@ public class Locals {
         return this.locals.length;
     }
 
+    /**
+     * Gets a version which is incremented whenever the type of an instance of
+     * one of the locals created by this object is changed. Types inferred
+     * from the type of such a local are only valid while the version is
+     * unchanged.
+     */
+    public long getTypeVersion() {
+        return this.type_version;
+    }
+
     /**
      * Gets the local variable at the given index.
      */
@@ -81,13 +98,14 @@ public class Locals {
     }
 
     /**
-     * Bakes the local instances using the given label indices.
+     * Bakes the local instances using the instruction indices of the given
+     * block.
      * 
      * @param methodSignature
      */
-    public void bakeInstances(MethodSignature methodSignature, List<Integer> label_indices) {
+    public void bakeInstances(MethodSignature methodSignature, InsnBlock block) {
         for (Local local : this.locals) {
-            local.bakeInstances(label_indices);
+            local.bakeInstances(block);
         }
     }
 
@@ -95,19 +113,15 @@ public class Locals {
      * Gets a name for the variable that does not conflict with any other names.
      */
     public String getNonConflictingName(String name, int index) {
-        int i = 1;
-        while (true) {
-            boolean conflict = false;
-            for (Local local : this.locals) {
-                LocalInstance insn = local.getInstance(index);
-                if (insn != null && insn.getName().equals(name)) {
-                    conflict = true;
-                    break;
-                }
-            }
-            if (!conflict) {
-                break;
+        Set<String> names = new HashSet<>();
+        for (Local local : this.locals) {
+            LocalInstance insn = local.getInstance(index);
+            if (insn != null) {
+                names.add(insn.getName());
             }
+        }
+        int i = 1;
+        while (names.contains(name)) {
             name = name + (i++);
         }
         return name;
@@ -174,12 +188,27 @@ public class Locals {
         private final List<LVT> lvt = Lists.newArrayList();
         private final List<LocalInstance> instances = Lists.newArrayList();
 
+        // An index of the instances, instances which do not overlap an
+        // earlier instance are keyed by the first label index they cover and
+        // the remainder are checked in order
+        private final TreeMap<Integer, Integer> instance_ranges = new TreeMap<>();
+        private final List<Integer> overlapping_instances = new ArrayList<>();
+        private final Map<Integer, List<LocalInstance>> instance_starts = new HashMap<>();
+        private int indexed_instances = 0;
+
         public Local(Locals locals, int i, boolean is_static) {
             this.locals = locals;
             this.index = i;
             this.is_static = is_static;
         }
 
+        /**
+         * Gets the {@link Locals} which created this local.
+         */
+        public Locals getLocals() {
+            return this.locals;
+        }
+
         public int getIndex() {
             return this.index;
         }
@@ -212,15 +241,16 @@ public class Locals {
         /**
          * Bakes the instances of this local.
          */
-        public void bakeInstances(List<Integer> label_indices) {
+        public void bakeInstances(InsnBlock block) {
+            int[] label_indices = block.getOpcodeIndices();
             for (LVT l : this.lvt) {
-                int start = label_indices.indexOf(l.start_pc);
+                int start = block.getInstructionIndex(l.start_pc);
                 if (start == -1) {
                     start = 0;
                 }
-                int end = label_indices.indexOf(l.start_pc + l.length);
-                if (end == -1 && !label_indices.isEmpty()) {
-                    end = label_indices.get(label_indices.size() - 1);
+                int end = block.getInstructionIndex(l.start_pc + l.length);
+                if (end == -1 && label_indices != null && label_indices.length > 0) {
+                    end = label_indices[label_indices.length - 1];
                 }
                 TypeSignature sig = null;
                 if (l.signature == null) {
@@ -246,11 +276,25 @@ public class Locals {
          * Gets the local instance for the given index.
          */
         public LocalInstance getInstance(int index) {
-            for (LocalInstance insn : this.instances) {
+            updateIndex();
+            int found = Integer.MAX_VALUE;
+            Map.Entry<Integer, Integer> range = this.instance_ranges.floorEntry(index);
+            if (range != null && index <= this.instances.get(range.getValue()).getEnd()) {
+                found = range.getValue();
+            }
+            for (int i : this.overlapping_instances) {
+                if (i >= found) {
+                    break;
+                }
+                LocalInstance insn = this.instances.get(i);
                 if (index >= insn.getStart() - 1 && index <= insn.getEnd()) {
-                    return insn;
+                    found = i;
+                    break;
                 }
             }
+            if (found != Integer.MAX_VALUE) {
+                return this.instances.get(found);
+            }
             if (this.parameter_instance != null) {
                 return this.parameter_instance;
             }
@@ -268,6 +312,34 @@ public class Locals {
             return insn;
         }
 
+        private void updateIndex() {
+            if (this.indexed_instances > this.instances.size()) {
+                // instances were removed, start over
+                this.instance_ranges.clear();
+                this.overlapping_instances.clear();
+                this.instance_starts.clear();
+                this.indexed_instances = 0;
+            }
+            for (int i = this.indexed_instances; i < this.instances.size(); i++) {
+                LocalInstance insn = this.instances.get(i);
+                this.instance_starts.computeIfAbsent(insn.getStart(), (k) -> new ArrayList<>()).add(insn);
+                int start = insn.getStart() - 1;
+                int end = insn.getEnd();
+                if (end < start) {
+                    continue;
+                }
+                Map.Entry<Integer, Integer> before = this.instance_ranges.floorEntry(start);
+                Map.Entry<Integer, Integer> after = this.instance_ranges.ceilingEntry(start);
+                if ((before != null && this.instances.get(before.getValue()).getEnd() >= start)
+                        || (after != null && after.getKey() <= end)) {
+                    this.overlapping_instances.add(i);
+                } else {
+                    this.instance_ranges.put(start, i);
+                }
+            }
+            this.indexed_instances = this.instances.size();
+        }
+
         /**
          * Adds the given instance to this local.
          */
@@ -294,11 +366,14 @@ public class Locals {
             if (start == -1 && this.parameter_instance != null) {
                 return this.parameter_instance;
             }
-            for (LocalInstance local : this.instances) {
-                if (local.getStart() == start) {
-                    if (local.getType() == null || (local.getType().getDescriptor().equals(type))) {
-                        return local;
-                    }
+            updateIndex();
+            List<LocalInstance> candidates = this.instance_starts.get(start);
+            if (candidates == null) {
+                return null;
+            }
+            for (LocalInstance local : candidates) {
+                if (local.getType() == null || (local.getType().getDescriptor().equals(type))) {
+                    return local;
                 }
             }
             return null;
@@ -365,7 +440,12 @@ public class Locals {
         }
 
         public void setType(TypeSignature type) {
-            this.type = type;
+            if (type != this.type) {
+                this.type = type;
+                if (this.local != null && this.local.locals != null) {
+                    this.local.locals.type_version++;
+                }
+            }
         }
 
         public int getStart() {
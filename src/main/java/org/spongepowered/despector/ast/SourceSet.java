@@ -26,35 +26,50 @@ package org.spongepowered.despector.ast;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
-import org.spongepowered.despector.Language;
 import org.spongepowered.despector.ast.type.EnumEntry;
 import org.spongepowered.despector.ast.type.InterfaceEntry;
 import org.spongepowered.despector.ast.type.TypeEntry;
+import org.spongepowered.despector.config.LibraryConfiguration;
 import org.spongepowered.despector.decompiler.Decompilers;
+import org.spongepowered.despector.util.SymbolTable;
 import org.spongepowered.despector.util.serialization.AstSerializer;
 import org.spongepowered.despector.util.serialization.MessagePacker;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Collection;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
 
 /**
  * A source set for types which are part of the obfuscated source being mapped.
+ *
+ * <p>A source set is safe to use from several decompiler or emitter workers at
+ * once. Types missing from the set are loaded through the {@link Loader} at
+ * most once per name, any other callers requesting a type which is currently
+ * being loaded wait for that load to complete.</p>
+ *
+ * <p>Unless disabled in the {@link LibraryConfiguration} types loaded through
+ * the loader only have their header loaded, callers which need the method
+ * bodies of a type should use {@link #getFull(String)}.</p>
  */
 public class SourceSet {
 
-    private Loader loader;
-    private final Set<String> load_failed_cache = new HashSet<>();
+    private volatile Loader loader;
+    private final Set<String> load_failed_cache = ConcurrentHashMap.newKeySet();
+    private final Map<String, PendingLoad> pending_loads = new ConcurrentHashMap<>();
+    private final Map<String, PendingLoad> pending_full_loads = new ConcurrentHashMap<>();
 
-    private final Map<String, TypeEntry> classes = new HashMap<>();
-    private final Map<String, EnumEntry> enums = new HashMap<>();
-    private final Map<String, InterfaceEntry> interfaces = new HashMap<>();
+    private final Map<String, TypeEntry> classes = new ConcurrentHashMap<>();
+    private final Map<String, EnumEntry> enums = new ConcurrentHashMap<>();
+    private final Map<String, InterfaceEntry> interfaces = new ConcurrentHashMap<>();
 
-    private final Map<String, AnnotationType> annotations = new HashMap<>();
+    private final Map<String, AnnotationType> annotations = new ConcurrentHashMap<>();
+
+    private final SymbolTable symbols = new SymbolTable();
 
     public SourceSet() {
     }
@@ -68,46 +83,146 @@ public class SourceSet {
     }
 
     /**
-     * Inserts the given type into this source set.
+     * Gets the symbol table used to intern type names, descriptors and member
+     * names of the types loaded into this source set.
+     */
+    public SymbolTable getSymbolTable() {
+        return this.symbols;
+    }
+
+    /**
+     * Inserts the given type into this source set. A type which is only a
+     * header never replaces a type already loaded in full.
      */
     public void add(TypeEntry e) {
         checkNotNull(e);
+        TypeEntry added = this.classes.compute(e.getName(), (name, existing) -> {
+            if (existing != null && e.isHeaderOnly() && !existing.isHeaderOnly()) {
+                return existing;
+            }
+            return e;
+        });
+        if (added != e) {
+            return;
+        }
         if (e instanceof EnumEntry) {
             this.enums.put(e.getName(), (EnumEntry) e);
         } else if (e instanceof InterfaceEntry) {
             this.interfaces.put(e.getName(), (InterfaceEntry) e);
         }
-        this.classes.put(e.getName(), e);
+    }
+
+    /**
+     * Removes the given type from this source set.
+     */
+    public void remove(TypeEntry e) {
+        checkNotNull(e);
+        this.classes.remove(e.getName());
+        this.enums.remove(e.getName());
+        this.interfaces.remove(e.getName());
     }
 
     /**
      * Gets the type with the given internal name.
      */
     public TypeEntry get(String name) {
+        name = checkTypeName(name);
+        TypeEntry entry = this.classes.get(name);
+        if (entry == null && this.loader != null && !this.load_failed_cache.contains(name)) {
+            entry = awaitLoad(name, LibraryConfiguration.header_only_loading ? this.pending_loads : this.pending_full_loads);
+        }
+        return entry;
+    }
+
+    /**
+     * Gets the type with the given internal name with all of its method bodies
+     * decompiled. A type missing from this source set is loaded in full
+     * through the loader, if it was only loaded as a header then it is loaded
+     * again and replaces the header in this source set.
+     */
+    public TypeEntry getFull(String name) {
+        name = checkTypeName(name);
+        TypeEntry entry = this.classes.get(name);
+        if (entry != null && !entry.isHeaderOnly()) {
+            return entry;
+        }
+        if (this.loader != null && (entry != null || !this.load_failed_cache.contains(name))) {
+            TypeEntry full = awaitLoad(name, this.pending_full_loads);
+            if (full != null) {
+                return full;
+            }
+        }
+        return entry;
+    }
+
+    private static String checkTypeName(String name) {
         checkNotNull(name);
         if (name.endsWith(";") || name.startsWith("[") || (name.length() == 1 && "BSIJFDCZ".indexOf(name.charAt(0)) != -1)) {
             throw new IllegalStateException(name + " is a descriptor not a type name");
         }
-        if (name.endsWith("[]")) {
-            return get(name.substring(0, name.length() - 2));
+        while (name.endsWith("[]")) {
+            name = name.substring(0, name.length() - 2);
         }
-        TypeEntry entry = this.classes.get(name);
-        if (entry == null && this.loader != null && !this.load_failed_cache.contains(name)) {
-            InputStream data = this.loader.find(name);
-            if (data == null) {
-                this.load_failed_cache.add(name);
-                return null;
-            }
+        return name;
+    }
+
+    private TypeEntry awaitLoad(String name, Map<String, PendingLoad> pending) {
+        PendingLoad load = new PendingLoad(name, pending == this.pending_full_loads);
+        PendingLoad existing = pending.putIfAbsent(name, load);
+        if (existing == null) {
             try {
-                entry = Decompilers.get(Language.ANY).decompile(data, this);
-            } catch (IOException e) {
-                e.printStackTrace();
-                this.load_failed_cache.add(name);
-                return null;
+                load.run();
+            } finally {
+                pending.remove(name);
             }
-            add(entry);
+        } else if (existing.thread == Thread.currentThread()) {
+            // the type is requested while it is being loaded on this thread,
+            // waiting for it would never complete
+            return null;
+        } else {
+            load = existing;
         }
-        return entry;
+        try {
+            return load.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            e.getCause().printStackTrace();
+            return null;
+        }
+    }
+
+    private TypeEntry load(String name, boolean full) {
+        // another caller may have finished loading the type between our
+        // lookup and registering this load
+        TypeEntry entry = this.classes.get(name);
+        if (entry != null && (!full || !entry.isHeaderOnly())) {
+            return entry;
+        }
+        if (entry == null && this.load_failed_cache.contains(name)) {
+            return null;
+        }
+        InputStream data = this.loader.find(name);
+        if (data == null) {
+            this.load_failed_cache.add(name);
+            return null;
+        }
+        try {
+            if (full) {
+                entry = Decompilers.WILD.decompileImmediately(data, this);
+            } else {
+                entry = Decompilers.WILD.decompileHeader(data, this);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            this.load_failed_cache.add(name);
+            return null;
+        }
+        add(entry);
+        // a header finishing after a full load of the same type does not
+        // replace it
+        return this.classes.getOrDefault(name, entry);
     }
 
     public EnumEntry getEnum(String name) {
@@ -152,8 +267,7 @@ public class SourceSet {
     public AnnotationType getAnnotationType(String name) {
         AnnotationType anno = this.annotations.get(name);
         if (anno == null) {
-            anno = new AnnotationType(name);
-            this.annotations.put(name, anno);
+            anno = this.annotations.computeIfAbsent(name, AnnotationType::new);
         }
         return anno;
     }
@@ -183,6 +297,19 @@ public class SourceSet {
         pack.endMap();
     }
 
+    /**
+     * A load of a type through the loader which other callers may wait on.
+     */
+    private class PendingLoad extends FutureTask<TypeEntry> {
+
+        final Thread thread = Thread.currentThread();
+
+        PendingLoad(String name, boolean full) {
+            super(() -> load(name, full));
+        }
+
+    }
+
     /**
      * A loader which from which new types can be requested on demand.
      */
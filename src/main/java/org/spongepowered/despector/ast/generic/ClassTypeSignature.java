@@ -26,6 +26,11 @@ package org.spongepowered.despector.ast.generic;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import com.google.common.base.Throwables;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import org.spongepowered.despector.util.TypeHelper;
 import org.spongepowered.despector.util.serialization.AstSerializer;
 import org.spongepowered.despector.util.serialization.MessagePacker;
@@ -36,28 +41,35 @@ import java.util.Map;
 
 /**
  * A type signature of a class or primative type (but not void).
+ *
+ * <p>Signatures returned from {@link #of(String)} are flyweights shared between
+ * every user of the same descriptor and may not be modified. A signature which
+ * needs to be modified should be created with {@link #of(String, boolean)} or
+ * replaced with the signature for the new descriptor.</p>
  */
 public class ClassTypeSignature extends TypeSignature {
 
-    public static final ClassTypeSignature BOOLEAN = new ClassTypeSignature("Z");
-    public static final ClassTypeSignature BYTE = new ClassTypeSignature("B");
-    public static final ClassTypeSignature SHORT = new ClassTypeSignature("S");
-    public static final ClassTypeSignature INT = new ClassTypeSignature("I");
-    public static final ClassTypeSignature LONG = new ClassTypeSignature("J");
-    public static final ClassTypeSignature FLOAT = new ClassTypeSignature("F");
-    public static final ClassTypeSignature DOUBLE = new ClassTypeSignature("D");
-    public static final ClassTypeSignature CHAR = new ClassTypeSignature("C");
-    public static final ClassTypeSignature OBJECT = new ClassTypeSignature("Ljava/lang/Object;");
-    public static final ClassTypeSignature STRING = new ClassTypeSignature("Ljava/lang/String;");
-
-    public static final ClassTypeSignature BOOLEAN_OBJECT = new ClassTypeSignature("Ljava/lang/Boolean;");
-    public static final ClassTypeSignature BYTE_OBJECT = new ClassTypeSignature("Ljava/lang/Byte;");
-    public static final ClassTypeSignature SHORT_OBJECT = new ClassTypeSignature("Ljava/lang/Short;");
-    public static final ClassTypeSignature INTEGER_OBJECT = new ClassTypeSignature("Ljava/lang/Integer;");
-    public static final ClassTypeSignature LONG_OBJECT = new ClassTypeSignature("Ljava/lang/Long;");
-    public static final ClassTypeSignature FLOAT_OBJECT = new ClassTypeSignature("Ljava/lang/Float;");
-    public static final ClassTypeSignature DOUBLE_OBJECT = new ClassTypeSignature("Ljava/lang/Double;");
-    public static final ClassTypeSignature CHARACTER_OBJECT = new ClassTypeSignature("Ljava/lang/Character;");
+    private static final int CACHE_SIZE = Integer.getInteger("despector.signature_cache_size", 16384);
+
+    public static final ClassTypeSignature BOOLEAN = new ClassTypeSignature("Z", true);
+    public static final ClassTypeSignature BYTE = new ClassTypeSignature("B", true);
+    public static final ClassTypeSignature SHORT = new ClassTypeSignature("S", true);
+    public static final ClassTypeSignature INT = new ClassTypeSignature("I", true);
+    public static final ClassTypeSignature LONG = new ClassTypeSignature("J", true);
+    public static final ClassTypeSignature FLOAT = new ClassTypeSignature("F", true);
+    public static final ClassTypeSignature DOUBLE = new ClassTypeSignature("D", true);
+    public static final ClassTypeSignature CHAR = new ClassTypeSignature("C", true);
+    public static final ClassTypeSignature OBJECT = new ClassTypeSignature("Ljava/lang/Object;", true);
+    public static final ClassTypeSignature STRING = new ClassTypeSignature("Ljava/lang/String;", true);
+
+    public static final ClassTypeSignature BOOLEAN_OBJECT = new ClassTypeSignature("Ljava/lang/Boolean;", true);
+    public static final ClassTypeSignature BYTE_OBJECT = new ClassTypeSignature("Ljava/lang/Byte;", true);
+    public static final ClassTypeSignature SHORT_OBJECT = new ClassTypeSignature("Ljava/lang/Short;", true);
+    public static final ClassTypeSignature INTEGER_OBJECT = new ClassTypeSignature("Ljava/lang/Integer;", true);
+    public static final ClassTypeSignature LONG_OBJECT = new ClassTypeSignature("Ljava/lang/Long;", true);
+    public static final ClassTypeSignature FLOAT_OBJECT = new ClassTypeSignature("Ljava/lang/Float;", true);
+    public static final ClassTypeSignature DOUBLE_OBJECT = new ClassTypeSignature("Ljava/lang/Double;", true);
+    public static final ClassTypeSignature CHARACTER_OBJECT = new ClassTypeSignature("Ljava/lang/Character;", true);
 
     private static final Map<String, ClassTypeSignature> SPECIAL = new HashMap<>();
 
@@ -84,37 +96,59 @@ public class ClassTypeSignature extends TypeSignature {
         SPECIAL.put(CHARACTER_OBJECT.getType(), CHARACTER_OBJECT);
     }
 
+    private static final LoadingCache<String, ClassTypeSignature> CACHE = CacheBuilder.newBuilder()
+            .maximumSize(CACHE_SIZE)
+            .concurrencyLevel(Runtime.getRuntime().availableProcessors())
+            .build(new CacheLoader<String, ClassTypeSignature>() {
+
+                @Override
+                public ClassTypeSignature load(String type) {
+                    if (!TypeHelper.isDescriptor(type)) {
+                        throw new IllegalStateException("'" + type + "' is not a type descriptor");
+                    }
+                    return new ClassTypeSignature(type, true);
+                }
+
+            });
+
     /**
-     * Gets the {@link ClassTypeSignature} for the given type descriptor. A new
-     * instance is created unless the type is a special type (primatives,
-     * primative wrappers, object, and string).
+     * Gets the shared {@link ClassTypeSignature} for the given type
+     * descriptor. The returned signature may not be modified.
      */
     public static ClassTypeSignature of(String type) {
-        return of(type, false);
+        ClassTypeSignature sig = SPECIAL.get(type);
+        if (sig != null) {
+            return sig;
+        }
+        try {
+            return CACHE.getUnchecked(type);
+        } catch (UncheckedExecutionException e) {
+            Throwables.propagateIfPossible(e.getCause());
+            throw e;
+        }
     }
 
     /**
-     * Gets the {@link ClassTypeSignature} for the given type descriptor. A new
-     * instance is created unless the type is a special type (primatives,
-     * primative wrappers, object, and string) and the no_special flag is unset.
+     * Gets the {@link ClassTypeSignature} for the given type descriptor. If the
+     * no_special flag is set a new instance is created which may be modified,
+     * otherwise this is equivalent to {@link #of(String)}.
      */
     public static ClassTypeSignature of(String type, boolean no_special) {
-        if(!TypeHelper.isDescriptor(type)) {
-            throw new IllegalStateException("'" + type + "' is not a type descriptor");
-        }
         if (!no_special) {
-            ClassTypeSignature sig = SPECIAL.get(type);
-            if (sig != null) {
-                return sig;
-            }
+            return of(type);
+        }
+        if (!TypeHelper.isDescriptor(type)) {
+            throw new IllegalStateException("'" + type + "' is not a type descriptor");
         }
-        return new ClassTypeSignature(type);
+        return new ClassTypeSignature(type, false);
     }
 
     protected String type_name;
+    private final boolean shared;
 
-    ClassTypeSignature(String type) {
+    ClassTypeSignature(String type, boolean shared) {
         this.type_name = checkNotNull(type, "type");
+        this.shared = shared;
     }
 
     /**
@@ -125,9 +159,21 @@ public class ClassTypeSignature extends TypeSignature {
     }
 
     /**
-     * Sets the type descriptor.
+     * Gets whether this signature is a shared flyweight which may not be
+     * modified.
+     */
+    public boolean isShared() {
+        return this.shared;
+    }
+
+    /**
+     * Sets the type descriptor. Only signatures which are not
+     * {@link #isShared() shared} may be modified.
      */
     public void setType(String type) {
+        if (this.shared) {
+            throw new IllegalStateException("Cannot modify shared signature " + this.type_name);
+        }
         this.type_name = checkNotNull(type, "type");
     }
 
@@ -0,0 +1,98 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Despector <https://despector.voxelgenesis.com>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.despector.ast.generic;
+
+/**
+ * The primitive types which may be the result of a numeric operation, in the
+ * order in which they are widened.
+ */
+public enum PrimitiveKind {
+
+    BOOLEAN('Z', ClassTypeSignature.BOOLEAN),
+    BYTE('B', ClassTypeSignature.BYTE),
+    CHAR('C', ClassTypeSignature.CHAR),
+    SHORT('S', ClassTypeSignature.SHORT),
+    INT('I', ClassTypeSignature.INT),
+    LONG('J', ClassTypeSignature.LONG),
+    FLOAT('F', ClassTypeSignature.FLOAT),
+    DOUBLE('D', ClassTypeSignature.DOUBLE);
+
+    private static final PrimitiveKind[] BY_CHAR = new PrimitiveKind[128];
+
+    static {
+        for (PrimitiveKind kind : values()) {
+            BY_CHAR[kind.descriptor] = kind;
+        }
+    }
+
+    private final char descriptor;
+    private final ClassTypeSignature type;
+
+    PrimitiveKind(char descriptor, ClassTypeSignature type) {
+        this.descriptor = descriptor;
+        this.type = type;
+    }
+
+    /**
+     * Gets the descriptor character of this primitive.
+     */
+    public char getDescriptor() {
+        return this.descriptor;
+    }
+
+    /**
+     * Gets the type signature of this primitive.
+     */
+    public ClassTypeSignature getType() {
+        return this.type;
+    }
+
+    /**
+     * Gets the wider of this and the given primitive kind, either of which may
+     * be null.
+     */
+    public static PrimitiveKind widest(PrimitiveKind a, PrimitiveKind b) {
+        if (a == null) {
+            return b;
+        }
+        if (b == null || a.ordinal() >= b.ordinal()) {
+            return a;
+        }
+        return b;
+    }
+
+    /**
+     * Gets the primitive kind of the given type signature by the first
+     * character of its descriptor, or null if it is not a primitive.
+     */
+    public static PrimitiveKind of(TypeSignature sig) {
+        char c = sig.getDescriptor().charAt(0);
+        if (c >= BY_CHAR.length) {
+            return null;
+        }
+        return BY_CHAR[c];
+    }
+
+}
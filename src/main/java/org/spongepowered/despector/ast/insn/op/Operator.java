@@ -27,10 +27,14 @@ package org.spongepowered.despector.ast.insn.op;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import org.spongepowered.despector.ast.AstVisitor;
-import org.spongepowered.despector.ast.generic.ClassTypeSignature;
+import org.spongepowered.despector.ast.Locals;
+import org.spongepowered.despector.ast.Locals.LocalInstance;
+import org.spongepowered.despector.ast.generic.PrimitiveKind;
 import org.spongepowered.despector.ast.generic.TypeSignature;
 import org.spongepowered.despector.ast.insn.Instruction;
 import org.spongepowered.despector.ast.insn.InstructionVisitor;
+import org.spongepowered.despector.ast.insn.cst.Constant;
+import org.spongepowered.despector.ast.insn.var.LocalAccess;
 import org.spongepowered.despector.util.serialization.AstSerializer;
 import org.spongepowered.despector.util.serialization.MessagePacker;
 
@@ -41,12 +45,16 @@ import java.io.IOException;
  */
 public class Operator implements Instruction {
 
-    private static final String PRIMATIVE_ORDERING = "ZBCSIJFD";
-
     protected OperatorType operator;
     protected Instruction left;
     protected Instruction right;
 
+    private TypeSignature inferred;
+    // the locals whose types the cached type depends on, or null if it
+    // depends on constants only
+    private Locals inferred_locals;
+    private long inferred_version;
+
     public Operator(OperatorType type, Instruction left, Instruction right) {
         this.operator = checkNotNull(type, "operator");
         this.left = checkNotNull(left, "left");
@@ -59,6 +67,7 @@ public class Operator implements Instruction {
 
     public void setOperator(OperatorType type) {
         this.operator = checkNotNull(type, "operator");
+        this.inferred = null;
     }
 
     /**
@@ -73,6 +82,7 @@ public class Operator implements Instruction {
      */
     public void setLeftOperand(Instruction left) {
         this.left = checkNotNull(left, "left");
+        this.inferred = null;
     }
 
     /**
@@ -87,6 +97,7 @@ public class Operator implements Instruction {
      */
     public void setRightOperand(Instruction right) {
         this.right = checkNotNull(right, "right");
+        this.inferred = null;
     }
 
     @Override
@@ -98,11 +109,67 @@ public class Operator implements Instruction {
         }
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The inferred type is cached and reset when an operand of this operator
+     * is replaced. The type is only cached if the operands are constants,
+     * locals or operators over them. If it depends on locals then the cached
+     * type is discarded once the type of a local of the same method changes.
+     * Operators over any other operand, such as field accesses, invokes, casts
+     * or array accesses, are not cached as the types of those operands can be
+     * changed without notice.</p>
+     */
     @Override
     public TypeSignature inferType() {
-        int left_index = PRIMATIVE_ORDERING.indexOf(this.left.inferType().toString().charAt(0));
-        int right_index = PRIMATIVE_ORDERING.indexOf(this.right.inferType().toString().charAt(0));
-        return ClassTypeSignature.of(String.valueOf(PRIMATIVE_ORDERING.charAt(Math.max(left_index, right_index))));
+        if (this.inferred != null && (this.inferred_locals == null || this.inferred_locals.getTypeVersion() == this.inferred_version)) {
+            return this.inferred;
+        }
+        PrimitiveKind kind = PrimitiveKind.widest(PrimitiveKind.of(this.left.inferType()), PrimitiveKind.of(this.right.inferType()));
+        if (kind == null) {
+            throw new IllegalStateException("Operator has no primitive operand: " + this);
+        }
+        this.inferred = null;
+        if (isCacheable(this.left) && isCacheable(this.right)) {
+            Locals left_locals = getTypeLocals(this.left);
+            Locals right_locals = getTypeLocals(this.right);
+            if (left_locals != null && right_locals != null && left_locals != right_locals) {
+                return kind.getType();
+            }
+            this.inferred_locals = left_locals != null ? left_locals : right_locals;
+            this.inferred_version = this.inferred_locals == null ? 0 : this.inferred_locals.getTypeVersion();
+            this.inferred = kind.getType();
+        }
+        return kind.getType();
+    }
+
+    private static boolean isCacheable(Instruction insn) {
+        if (insn instanceof Constant) {
+            return true;
+        } else if (insn instanceof LocalAccess) {
+            LocalInstance local = ((LocalAccess) insn).getLocal();
+            return local.getLocal() != null && local.getLocal().getLocals() != null;
+        } else if (insn instanceof Operator) {
+            return ((Operator) insn).inferred != null;
+        } else if (insn instanceof NegativeOperator) {
+            return isCacheable(((NegativeOperator) insn).getOperand());
+        }
+        return false;
+    }
+
+    /**
+     * Gets the locals the type of the given cacheable operand depends on, or
+     * null if it depends on constants only.
+     */
+    private static Locals getTypeLocals(Instruction insn) {
+        if (insn instanceof LocalAccess) {
+            return ((LocalAccess) insn).getLocal().getLocal().getLocals();
+        } else if (insn instanceof Operator) {
+            return ((Operator) insn).inferred_locals;
+        } else if (insn instanceof NegativeOperator) {
+            return getTypeLocals(((NegativeOperator) insn).getOperand());
+        }
+        return null;
     }
 
     @Override
@@ -44,6 +44,8 @@ public abstract class MethodInvoke implements Instruction {
     protected String method_owner;
     protected Instruction[] params;
 
+    private TypeSignature inferred;
+
     public MethodInvoke(String name, String desc, String owner, Instruction[] args) {
         this.method_name = checkNotNull(name, "name");
         this.method_desc = checkNotNull(desc, "desc");
@@ -86,6 +88,7 @@ public abstract class MethodInvoke implements Instruction {
      */
     public void setMethodDescription(String desc) {
         this.method_desc = checkNotNull(desc, "desc");
+        this.inferred = null;
     }
 
     /**
@@ -127,7 +130,10 @@ public abstract class MethodInvoke implements Instruction {
 
     @Override
     public TypeSignature inferType() {
-        return ClassTypeSignature.of(getReturnType());
+        if (this.inferred == null) {
+            this.inferred = ClassTypeSignature.of(getReturnType());
+        }
+        return this.inferred;
     }
 
     @Override
@@ -44,6 +44,7 @@ import org.spongepowered.despector.util.serialization.MessagePacker;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -62,6 +63,7 @@ public abstract class TypeEntry extends AstEntry {
     protected boolean is_abstract;
     protected boolean is_deprecated;
     protected boolean is_inner_class;
+    protected boolean is_header_only;
 
     protected final String name;
 
@@ -73,6 +75,12 @@ public abstract class TypeEntry extends AstEntry {
     protected final Map<String, FieldEntry> fields = new LinkedHashMap<>();
     protected final Multimap<String, MethodEntry> methods = LinkedHashMultimap.create();
 
+    // methods indexed by name and then by descriptor, types with many
+    // overloads of the same name (common in obfuscated code) would otherwise
+    // have to scan all overloads for every lookup
+    private final Map<String, Map<String, MethodEntry>> static_method_index = new HashMap<>();
+    private final Map<String, Map<String, MethodEntry>> method_index = new HashMap<>();
+
     protected final Map<AnnotationType, Annotation> annotations = new LinkedHashMap<>();
     protected final Map<String, InnerClassInfo> inner_classes = new LinkedHashMap<>();
 
@@ -140,6 +148,21 @@ public abstract class TypeEntry extends AstEntry {
         this.is_deprecated = state;
     }
 
+    /**
+     * Gets if only the header of this type was loaded. Header only types have
+     * their hierarchy, fields and method signatures but no method bodies.
+     */
+    public boolean isHeaderOnly() {
+        return this.is_header_only;
+    }
+
+    /**
+     * Sets if only the header of this type was loaded.
+     */
+    public void setHeaderOnly(boolean state) {
+        this.is_header_only = state;
+    }
+
     /**
      * Gets if this type is an inner class of another type.
      */
@@ -192,25 +215,22 @@ public abstract class TypeEntry extends AstEntry {
     }
 
     protected MethodEntry findMethod(String name, Multimap<String, MethodEntry> map) {
-        MethodEntry ret = null;
-        for (MethodEntry m : map.values()) {
-            if (m.getName().equals(name)) {
-                if (ret != null) {
-                    throw new IllegalStateException("Tried to get ambiguous method " + name);
-                }
-                ret = m;
-            }
+        Collection<MethodEntry> named = map.get(name);
+        if (named.isEmpty()) {
+            return null;
+        }
+        if (named.size() > 1) {
+            throw new IllegalStateException("Tried to get ambiguous method " + name);
         }
-        return ret;
+        return named.iterator().next();
     }
 
-    protected MethodEntry findMethod(String name, String sig, Multimap<String, MethodEntry> map) {
-        for (MethodEntry m : map.values()) {
-            if (m.getName().equals(name) && m.getDescription().equals(sig)) {
-                return m;
-            }
+    protected MethodEntry findMethod(String name, String sig, Map<String, Map<String, MethodEntry>> index) {
+        Map<String, MethodEntry> named = index.get(name);
+        if (named == null) {
+            return null;
         }
-        return null;
+        return named.get(sig);
     }
 
     /**
@@ -228,7 +248,7 @@ public abstract class TypeEntry extends AstEntry {
      */
     public MethodEntry getStaticMethod(String name, String sig) {
         checkNotNull(name);
-        return findMethod(name, sig, this.static_methods);
+        return findMethod(name, sig, this.static_method_index);
     }
 
     /**
@@ -247,7 +267,7 @@ public abstract class TypeEntry extends AstEntry {
     public MethodEntry getMethod(String name, String sig) {
         checkNotNull(name);
         checkNotNull(sig);
-        return findMethod(name, sig, this.methods);
+        return findMethod(name, sig, this.method_index);
     }
 
     /**
@@ -261,12 +281,14 @@ public abstract class TypeEntry extends AstEntry {
                 throw new IllegalArgumentException("Duplicate method " + existing);
             }
             this.static_methods.put(m.getName(), m);
+            this.static_method_index.computeIfAbsent(m.getName(), (k) -> new HashMap<>()).put(m.getDescription(), m);
         } else {
             MethodEntry existing = getMethod(m.getName(), m.getDescription());
             if (existing != null) {
                 throw new IllegalArgumentException("Duplicate method " + existing);
             }
             this.methods.put(m.getName(), m);
+            this.method_index.computeIfAbsent(m.getName(), (k) -> new HashMap<>()).put(m.getDescription(), m);
         }
     }
 
@@ -31,8 +31,16 @@ public class LibraryConfiguration {
 
     public static boolean quiet = false;
     public static boolean parallel = true;
+    public static boolean work_stealing = true;
     public static boolean print_times = false;
     public static boolean force_lang = false;
+    public static boolean streaming = false;
+    public static int stream_batch_size = 512;
+    public static boolean header_only_loading = true;
+    public static boolean compact_ir = false;
+    public static int condition_max_terms = 64;
+    public static int condition_step_budget = 1000000;
+    public static boolean straight_line_fast_path = true;
     
     // Viewer control fields
     public static boolean emit_block_debug = false;
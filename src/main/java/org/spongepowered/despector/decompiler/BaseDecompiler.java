@@ -24,6 +24,7 @@
  */
 package org.spongepowered.despector.decompiler;
 
+import com.google.common.io.ByteStreams;
 import org.spongepowered.despector.Language;
 import org.spongepowered.despector.ast.AccessModifier;
 import org.spongepowered.despector.ast.Annotation;
@@ -54,12 +55,15 @@ import org.spongepowered.despector.decompiler.method.PartialMethod.TryCatchRegio
 import org.spongepowered.despector.parallel.MethodDecompileTask;
 import org.spongepowered.despector.parallel.Scheduler;
 import org.spongepowered.despector.parallel.Timing;
+import org.spongepowered.despector.parallel.TypeDecompileTask;
 import org.spongepowered.despector.util.SignatureParser;
+import org.spongepowered.despector.util.SymbolTable;
 import org.spongepowered.despector.util.TypeHelper;
 
-import java.io.DataInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -110,34 +114,70 @@ public class BaseDecompiler implements Decompiler {
 
     @Override
     public TypeEntry decompile(InputStream input, SourceSet set) throws IOException {
-        DataInputStream data = (input instanceof DataInputStream) ? (DataInputStream) input : new DataInputStream(input);
+        return decompile(ByteBuffer.wrap(ByteStreams.toByteArray(input)), set, false, !LibraryConfiguration.parallel);
+    }
+
+    @Override
+    public TypeEntry decompile(ByteBuffer data, SourceSet set) throws IOException {
+        return decompile(data, set, false, !LibraryConfiguration.parallel);
+    }
+
+    /**
+     * Decompiles the given class file data into the given source set.
+     */
+    public TypeEntry decompile(byte[] data, SourceSet set) throws IOException {
+        return decompile(ByteBuffer.wrap(data), set, false, !LibraryConfiguration.parallel);
+    }
+
+    /**
+     * Loads only the header of the class file in the given input stream into
+     * the given source set. Code attributes are skipped and no method bodies
+     * are decompiled, the returned type is marked as
+     * {@link TypeEntry#isHeaderOnly() header only}.
+     */
+    public TypeEntry decompileHeader(InputStream input, SourceSet set) throws IOException {
+        return decompile(ByteBuffer.wrap(ByteStreams.toByteArray(input)), set, true, true);
+    }
+
+    /**
+     * Decompiles the class file in the given input stream into the given
+     * source set. The method bodies are decompiled on the calling thread even
+     * if parallel decompilation is enabled.
+     */
+    public TypeEntry decompileImmediately(InputStream input, SourceSet set) throws IOException {
+        return decompile(ByteBuffer.wrap(ByteStreams.toByteArray(input)), set, false, true);
+    }
+
+    private TypeEntry decompile(ByteBuffer input, SourceSet set, boolean header_only, boolean immediate) throws IOException {
+        ByteBuffer data = input.duplicate().order(ByteOrder.BIG_ENDIAN);
         long decompile_start = System.nanoTime();
-        int magic = data.readInt();
+        int magic = data.getInt();
         if (magic != 0xCAFEBABE) {
             throw new SourceFormatException("Not a java class file");
         }
 
-        /* short minor = */ data.readShort();
-        /* short major = */ data.readShort();
+        /* short minor = */ data.getShort();
+        /* short major = */ data.getShort();
 
         // TODO check versions and adapt loading to support a range of versions
 
-        ClassConstantPool pool = new ClassConstantPool();
+        SymbolTable symbols = set.getSymbolTable();
+        ClassConstantPool pool = new ClassConstantPool(symbols);
         pool.load(data);
 
-        int access_flags = data.readUnsignedShort();
+        int access_flags = readUnsignedShort(data);
 
-        String name = pool.getClass(data.readUnsignedShort()).name;
+        String name = pool.getClass(readUnsignedShort(data)).name;
         if (!LibraryConfiguration.quiet) {
             System.out.println("Decompiling class " + name);
         }
-        int super_index = data.readUnsignedShort();
-        String supername = super_index != 0 ? "L" + pool.getClass(super_index).name + ";" : "Ljava/lang/Object;";
+        int super_index = readUnsignedShort(data);
+        String supername = super_index != 0 ? symbols.intern("L" + pool.getClass(super_index).name + ";") : "Ljava/lang/Object;";
 
-        int interfaces_count = data.readUnsignedShort();
+        int interfaces_count = readUnsignedShort(data);
         List<String> interfaces = new ArrayList<>(interfaces_count);
         for (int i = 0; i < interfaces_count; i++) {
-            interfaces.add(pool.getClass(data.readUnsignedShort()).name);
+            interfaces.add(pool.getClass(readUnsignedShort(data)).name);
         }
 
         Language actual_lang = Language.JAVA;
@@ -161,14 +201,14 @@ public class BaseDecompiler implements Decompiler {
         entry.setAbstract((access_flags & ACC_ABSTRACT) != 0);
         entry.getInterfaces().addAll(interfaces);
 
-        int field_count = data.readUnsignedShort();
+        int field_count = readUnsignedShort(data);
         for (int i = 0; i < field_count; i++) {
-            int field_access = data.readUnsignedShort();
-            String field_name = pool.getUtf8(data.readUnsignedShort());
+            int field_access = readUnsignedShort(data);
+            String field_name = pool.getSymbol(readUnsignedShort(data));
             if ((field_access & ACC_ENUM) != 0) {
                 ((EnumEntry) entry).addEnumConstant(field_name);
             }
-            String field_desc = pool.getUtf8(data.readUnsignedShort());
+            String field_desc = pool.getSymbol(readUnsignedShort(data));
 
             FieldEntry field = new FieldEntry(set);
             field.setAccessModifier(AccessModifier.fromModifiers(field_access));
@@ -183,44 +223,57 @@ public class BaseDecompiler implements Decompiler {
             field.setType(ClassTypeSignature.of(field_desc));
             entry.addField(field);
 
-            int attribute_count = data.readUnsignedShort();
+            int attribute_count = readUnsignedShort(data);
             for (int a = 0; a < attribute_count; a++) {
-                String attribute_name = pool.getUtf8(data.readUnsignedShort());
-                int length = data.readInt();
-                if ("ConstantValue".equals(attribute_name)) {
-                    /* int constant_value_index = */ data.readUnsignedShort();
-                } else if ("Synthetic".equals(attribute_name)) {
+                int attribute_index = readUnsignedShort(data);
+                int length = data.getInt();
+                switch (pool.getAttributeType(attribute_index)) {
+                case CONSTANT_VALUE: {
+                    /* int constant_value_index = */ readUnsignedShort(data);
+                    break;
+                }
+                case SYNTHETIC: {
                     field.setSynthetic(true);
-                } else if ("Signature".equals(attribute_name)) {
-                    field.setType(SignatureParser.parseFieldTypeSignature(pool.getUtf8(data.readUnsignedShort())));
-                } else if ("Deprecated".equals(attribute_name)) {
+                    break;
+                }
+                case SIGNATURE: {
+                    field.setType(SignatureParser.parseFieldTypeSignature(pool.getUtf8(readUnsignedShort(data)), symbols));
+                    break;
+                }
+                case DEPRECATED: {
                     field.setDeprecated(true);
-                } else if ("RuntimeVisibleAnnotations".equals(attribute_name)) {
-                    int annotation_count = data.readUnsignedShort();
+                    break;
+                }
+                case RUNTIME_VISIBLE_ANNOTATIONS: {
+                    int annotation_count = readUnsignedShort(data);
                     for (int j = 0; j < annotation_count; j++) {
                         Annotation anno = readAnnotation(data, pool, set);
                         field.addAnnotation(anno);
                         anno.getType().setRuntimeVisible(true);
                     }
-                } else if ("RuntimeInvisibleAnnotations".equals(attribute_name)) {
-                    int annotation_count = data.readUnsignedShort();
+                    break;
+                }
+                case RUNTIME_INVISIBLE_ANNOTATIONS: {
+                    int annotation_count = readUnsignedShort(data);
                     for (int j = 0; j < annotation_count; j++) {
                         Annotation anno = readAnnotation(data, pool, set);
                         field.addAnnotation(anno);
                         anno.getType().setRuntimeVisible(false);
                     }
-                } else {
-                    System.err.println("Skipping unknown field attribute: " + attribute_name);
-                    data.skipBytes(length);
+                    break;
+                }
+                default:
+                    System.err.println("Skipping unknown field attribute: " + pool.getUtf8(attribute_index));
+                    data.position(data.position() + length);
                 }
             }
         }
         List<UnfinishedMethod> unfinished_methods = new ArrayList<>();
-        int method_count = data.readUnsignedShort();
+        int method_count = readUnsignedShort(data);
         for (int i = 0; i < method_count; i++) {
-            int method_access = data.readUnsignedShort();
-            String method_name = pool.getUtf8(data.readUnsignedShort());
-            String method_desc = pool.getUtf8(data.readUnsignedShort());
+            int method_access = readUnsignedShort(data);
+            String method_name = pool.getSymbol(readUnsignedShort(data));
+            String method_desc = pool.getSymbol(readUnsignedShort(data));
 
             List<TypeSignature> param_types = new ArrayList<>();
             for (String t : TypeHelper.splitSig(method_desc)) {
@@ -249,99 +302,126 @@ public class BaseDecompiler implements Decompiler {
             unfinished_methods.add(unfinished);
             unfinished.mth = method;
             String method_sig = null;
-            int attribute_count = data.readUnsignedShort();
+            int attribute_count = readUnsignedShort(data);
             for (int a = 0; a < attribute_count; a++) {
-                String attribute_name = pool.getUtf8(data.readUnsignedShort());
-                int length = data.readInt();
-                if ("Code".equals(attribute_name)) {
-                    /* int max_stack = */ data.readUnsignedShort();
-                    /* int max_locals = */ data.readUnsignedShort();
-                    int code_length = data.readInt();
-                    byte[] code = new byte[code_length];
-                    int offs = 0;
-                    while (code_length > 0) {
-                        int len = data.read(code, offs, code_length);
-                        code_length -= len;
-                        offs += len;
+                int attribute_index = readUnsignedShort(data);
+                int length = data.getInt();
+                switch (pool.getAttributeType(attribute_index)) {
+                case CODE: {
+                    if (header_only) {
+                        data.position(data.position() + length);
+                        break;
                     }
+                    /* int max_stack = */ readUnsignedShort(data);
+                    /* int max_locals = */ readUnsignedShort(data);
+                    int code_length = data.getInt();
+                    // the code is kept as a view over the class data rather
+                    // than copied out, it is only read once the method body
+                    // is decompiled
+                    ByteBuffer code = data.slice();
+                    code.limit(code_length);
+                    data.position(data.position() + code_length);
                     List<TryCatchRegion> catch_regions = new ArrayList<>();
-                    int exception_table_length = data.readUnsignedShort();
+                    int exception_table_length = readUnsignedShort(data);
                     for (int j = 0; j < exception_table_length; j++) {
-                        int start_pc = data.readUnsignedShort();
-                        int end_pc = data.readUnsignedShort();
-                        int catch_pc = data.readUnsignedShort();
-                        int ex_index = data.readUnsignedShort();
+                        int start_pc = readUnsignedShort(data);
+                        int end_pc = readUnsignedShort(data);
+                        int catch_pc = readUnsignedShort(data);
+                        int ex_index = readUnsignedShort(data);
                         String ex = ex_index != 0 ? pool.getClass(ex_index).name : "";
                         catch_regions.add(new TryCatchRegion(start_pc, end_pc, catch_pc, ex));
                     }
                     unfinished.code = code;
                     unfinished.catch_regions = catch_regions;
-                    int code_attribute_count = data.readUnsignedShort();
+                    int code_attribute_count = readUnsignedShort(data);
                     for (int ca = 0; ca < code_attribute_count; ca++) {
-                        String code_attribute_name = pool.getUtf8(data.readUnsignedShort());
-                        int clength = data.readInt();
-                        if ("LocalVariableTable".equals(code_attribute_name)) {
-                            int lvt_length = data.readUnsignedShort();
+                        int code_attribute_index = readUnsignedShort(data);
+                        int clength = data.getInt();
+                        switch (pool.getAttributeType(code_attribute_index)) {
+                        case LOCAL_VARIABLE_TABLE: {
+                            int lvt_length = readUnsignedShort(data);
                             for (int j = 0; j < lvt_length; j++) {
-                                int start_pc = data.readUnsignedShort();
-                                int local_length = data.readUnsignedShort();
-                                String local_name = pool.getUtf8(data.readUnsignedShort());
-                                String local_desc = pool.getUtf8(data.readUnsignedShort());
-                                int index = data.readUnsignedShort();
+                                int start_pc = readUnsignedShort(data);
+                                int local_length = readUnsignedShort(data);
+                                String local_name = pool.getSymbol(readUnsignedShort(data));
+                                String local_desc = pool.getSymbol(readUnsignedShort(data));
+                                int index = readUnsignedShort(data);
                                 Local loc = locals.getLocal(index);
                                 loc.addLVT(start_pc, local_length, local_name, local_desc);
                             }
-                        } else if ("LineNumberTable".equals(code_attribute_name)) {
-                            data.skipBytes(clength);
-                        } else if ("LocalVariableTypeTable".equals(code_attribute_name)) {
-                            int lvt_length = data.readUnsignedShort();
+                            break;
+                        }
+                        case LINE_NUMBER_TABLE: {
+                            data.position(data.position() + clength);
+                            break;
+                        }
+                        case LOCAL_VARIABLE_TYPE_TABLE: {
+                            int lvt_length = readUnsignedShort(data);
                             for (int j = 0; j < lvt_length; j++) {
-                                int start_pc = data.readUnsignedShort();
-                                /* int local_length = */ data.readUnsignedShort();
-                                /* String local_name = */ pool.getUtf8(data.readUnsignedShort());
-                                String local_signature = pool.getUtf8(data.readUnsignedShort());
-                                int index = data.readUnsignedShort();
+                                int start_pc = readUnsignedShort(data);
+                                /* int local_length = */ readUnsignedShort(data);
+                                /* String local_name = */ pool.getUtf8(readUnsignedShort(data));
+                                String local_signature = pool.getUtf8(readUnsignedShort(data));
+                                int index = readUnsignedShort(data);
                                 Local loc = locals.getLocal(index);
                                 loc.getLVT(start_pc).setSignature(local_signature);
                             }
-                        } else if ("StackMapTable".equals(code_attribute_name)) {
-                            data.skipBytes(clength);
-                        } else {
-                            System.err.println("Skipping unknown code attribute: " + code_attribute_name);
-                            data.skipBytes(clength);
+                            break;
+                        }
+                        case STACK_MAP_TABLE: {
+                            data.position(data.position() + clength);
+                            break;
+                        }
+                        default:
+                            System.err.println("Skipping unknown code attribute: " + pool.getUtf8(code_attribute_index));
+                            data.position(data.position() + clength);
                         }
                     }
-                } else if ("Exceptions".equals(attribute_name)) {
+                    break;
+                }
+                case EXCEPTIONS: {
                     checked_exceptions = new ArrayList<>();
-                    int exception_count = data.readUnsignedShort();
+                    int exception_count = readUnsignedShort(data);
                     for (int j = 0; j < exception_count; j++) {
-                        checked_exceptions.add(pool.getClass(data.readUnsignedShort()).name);
+                        checked_exceptions.add(pool.getClass(readUnsignedShort(data)).name);
                     }
-                } else if ("Synthetic".equals(attribute_name)) {
+                    break;
+                }
+                case SYNTHETIC: {
                     method.setSynthetic(true);
-                } else if ("Signature".equals(attribute_name)) {
-                    method_sig = pool.getUtf8(data.readUnsignedShort());
-                } else if ("Deprecated".equals(attribute_name)) {
+                    break;
+                }
+                case SIGNATURE: {
+                    method_sig = pool.getUtf8(readUnsignedShort(data));
+                    break;
+                }
+                case DEPRECATED: {
                     method.setDeprecated(true);
-                } else if ("RuntimeVisibleAnnotations".equals(attribute_name)) {
-                    int annotation_count = data.readUnsignedShort();
+                    break;
+                }
+                case RUNTIME_VISIBLE_ANNOTATIONS: {
+                    int annotation_count = readUnsignedShort(data);
                     for (int j = 0; j < annotation_count; j++) {
                         Annotation anno = readAnnotation(data, pool, set);
                         method.addAnnotation(anno);
                         anno.getType().setRuntimeVisible(true);
                     }
-                } else if ("RuntimeInvisibleAnnotations".equals(attribute_name)) {
-                    int annotation_count = data.readUnsignedShort();
+                    break;
+                }
+                case RUNTIME_INVISIBLE_ANNOTATIONS: {
+                    int annotation_count = readUnsignedShort(data);
                     for (int j = 0; j < annotation_count; j++) {
                         Annotation anno = readAnnotation(data, pool, set);
                         method.addAnnotation(anno);
                         anno.getType().setRuntimeVisible(false);
                     }
-                } else if ("RuntimeVisibleParameterAnnotations".equals(attribute_name)) {
+                    break;
+                }
+                case RUNTIME_VISIBLE_PARAMETER_ANNOTATIONS: {
                     if (unfinished.parameter_annotations == null) {
                         unfinished.parameter_annotations = new HashMap<>();
                     }
-                    int num_params = data.readUnsignedByte();
+                    int num_params = Byte.toUnsignedInt(data.get());
                     int offs = method.isStatic() ? 0 : 1;
                     for (int k = offs; k < num_params + offs; k++) {
                         List<Annotation> annos = unfinished.parameter_annotations.get(k);
@@ -349,18 +429,20 @@ public class BaseDecompiler implements Decompiler {
                             annos = new ArrayList<>();
                             unfinished.parameter_annotations.put(k, annos);
                         }
-                        int annotation_count = data.readUnsignedShort();
+                        int annotation_count = readUnsignedShort(data);
                         for (int j = 0; j < annotation_count; j++) {
                             Annotation anno = readAnnotation(data, pool, set);
                             annos.add(anno);
                             anno.getType().setRuntimeVisible(true);
                         }
                     }
-                } else if ("RuntimeInvisibleParameterAnnotations".equals(attribute_name)) {
+                    break;
+                }
+                case RUNTIME_INVISIBLE_PARAMETER_ANNOTATIONS: {
                     if (unfinished.parameter_annotations == null) {
                         unfinished.parameter_annotations = new HashMap<>();
                     }
-                    int num_params = data.readUnsignedByte();
+                    int num_params = Byte.toUnsignedInt(data.get());
                     int offs = method.isStatic() ? 0 : 1;
                     for (int k = offs; k < num_params + offs; k++) {
                         List<Annotation> annos = unfinished.parameter_annotations.get(k);
@@ -368,63 +450,82 @@ public class BaseDecompiler implements Decompiler {
                             annos = new ArrayList<>();
                             unfinished.parameter_annotations.put(k, annos);
                         }
-                        int annotation_count = data.readUnsignedShort();
+                        int annotation_count = readUnsignedShort(data);
                         for (int j = 0; j < annotation_count; j++) {
                             Annotation anno = readAnnotation(data, pool, set);
                             annos.add(anno);
                             anno.getType().setRuntimeVisible(false);
                         }
                     }
-                } else if ("AnnotationDefault".equals(attribute_name)) {
+                    break;
+                }
+                case ANNOTATION_DEFAULT: {
                     Object val = readElementValue(data, pool, set);
                     method.setAnnotationValue(val);
-                } else {
-                    System.err.println("Skipping unknown method attribute: " + attribute_name);
-                    data.skipBytes(length);
+                    break;
+                }
+                default:
+                    System.err.println("Skipping unknown method attribute: " + pool.getUtf8(attribute_index));
+                    data.position(data.position() + length);
                 }
             }
             if (method_sig != null) {
-                method.setMethodSignature(SignatureParser.parseMethod(method_sig));
+                method.setMethodSignature(SignatureParser.parseMethod(method_sig, symbols));
             } else {
-                MethodSignature sig = SignatureParser.parseMethod(method_desc);
+                MethodSignature sig = SignatureParser.parseMethod(method_desc, symbols);
                 method.setMethodSignature(sig);
                 if (checked_exceptions != null && !checked_exceptions.isEmpty()) {
                     for (String ex : checked_exceptions) {
-                        sig.getThrowsSignature().add(ClassTypeSignature.of("L" + ex + ";"));
+                        sig.getThrowsSignature().add(ClassTypeSignature.of(symbols.intern("L" + ex + ";")));
                     }
                 }
             }
         }
         List<BootstrapMethod> bootstrap_methods = new ArrayList<>();
-        int class_attribute_count = data.readUnsignedShort();
+        int class_attribute_count = readUnsignedShort(data);
         for (int i = 0; i < class_attribute_count; i++) {
-            String attribute_name = pool.getUtf8(data.readUnsignedShort());
-            int length = data.readInt();
-            if ("InnerClasses".equals(attribute_name)) {
-                int number_of_classes = data.readUnsignedShort();
+            int attribute_index = readUnsignedShort(data);
+            int length = data.getInt();
+            switch (pool.getAttributeType(attribute_index)) {
+            case INNER_CLASSES: {
+                int number_of_classes = readUnsignedShort(data);
                 for (int j = 0; j < number_of_classes; j++) {
-                    String inner_cls = pool.getClass(data.readUnsignedShort()).name;
-                    int outer_index = data.readUnsignedShort();
+                    String inner_cls = pool.getClass(readUnsignedShort(data)).name;
+                    int outer_index = readUnsignedShort(data);
                     String outer_cls = outer_index == 0 ? null : pool.getClass(outer_index).name;
-                    int name_index = data.readUnsignedShort();
-                    String inner_name = name_index == 0 ? null : pool.getUtf8(name_index);
-                    int acc = data.readUnsignedShort();
+                    int name_index = readUnsignedShort(data);
+                    String inner_name = name_index == 0 ? null : pool.getSymbol(name_index);
+                    int acc = readUnsignedShort(data);
                     entry.addInnerClass(inner_cls, inner_name, outer_cls, acc);
                 }
-            } else if ("EnclosingMethod".equals(attribute_name)) {
-                data.skipBytes(length);
-            } else if ("Synthetic".equals(attribute_name)) {
+                break;
+            }
+            case ENCLOSING_METHOD: {
+                data.position(data.position() + length);
+                break;
+            }
+            case SYNTHETIC: {
                 entry.setSynthetic(true);
-            } else if ("Signature".equals(attribute_name)) {
-                entry.setSignature(SignatureParser.parse(pool.getUtf8(data.readUnsignedShort())));
-            } else if ("SourceFile".equals(attribute_name)) {
-                data.skipBytes(length);
-            } else if ("SourceDebugExtension".equals(attribute_name)) {
-                data.skipBytes(length);
-            } else if ("Deprecated".equals(attribute_name)) {
+                break;
+            }
+            case SIGNATURE: {
+                entry.setSignature(SignatureParser.parse(pool.getUtf8(readUnsignedShort(data)), symbols));
+                break;
+            }
+            case SOURCE_FILE: {
+                data.position(data.position() + length);
+                break;
+            }
+            case SOURCE_DEBUG_EXTENSION: {
+                data.position(data.position() + length);
+                break;
+            }
+            case DEPRECATED: {
                 entry.setDeprecated(true);
-            } else if ("RuntimeVisibleAnnotations".equals(attribute_name)) {
-                int annotation_count = data.readUnsignedShort();
+                break;
+            }
+            case RUNTIME_VISIBLE_ANNOTATIONS: {
+                int annotation_count = readUnsignedShort(data);
                 for (int j = 0; j < annotation_count; j++) {
                     Annotation anno = readAnnotation(data, pool, set);
                     if (this.lang == Language.ANY && anno.getType().getName().startsWith("kotlin")) {
@@ -433,28 +534,34 @@ public class BaseDecompiler implements Decompiler {
                     entry.addAnnotation(anno);
                     anno.getType().setRuntimeVisible(true);
                 }
-            } else if ("RuntimeInvisibleAnnotations".equals(attribute_name)) {
-                int annotation_count = data.readUnsignedShort();
+                break;
+            }
+            case RUNTIME_INVISIBLE_ANNOTATIONS: {
+                int annotation_count = readUnsignedShort(data);
                 for (int j = 0; j < annotation_count; j++) {
                     Annotation anno = readAnnotation(data, pool, set);
                     entry.addAnnotation(anno);
                     anno.getType().setRuntimeVisible(false);
                 }
-            } else if ("BootstrapMethods".equals(attribute_name)) {
-                int bsm_count = data.readUnsignedShort();
+                break;
+            }
+            case BOOTSTRAP_METHODS: {
+                int bsm_count = readUnsignedShort(data);
                 for (int j = 0; j < bsm_count; j++) {
                     BootstrapMethod bsm = new BootstrapMethod();
                     bootstrap_methods.add(bsm);
-                    bsm.handle = pool.getMethodHandle(data.readUnsignedShort());
-                    int arg_count = data.readUnsignedShort();
+                    bsm.handle = pool.getMethodHandle(readUnsignedShort(data));
+                    int arg_count = readUnsignedShort(data);
                     bsm.arguments = new Entry[arg_count];
                     for (int k = 0; k < arg_count; k++) {
-                        bsm.arguments[k] = pool.getEntry(data.readUnsignedShort());
+                        bsm.arguments[k] = pool.getEntry(readUnsignedShort(data));
                     }
                 }
-            } else {
-                System.err.println("Skipping unknown class attribute: " + attribute_name);
-                data.skipBytes(length);
+                break;
+            }
+            default:
+                System.err.println("Skipping unknown class attribute: " + pool.getUtf8(attribute_index));
+                data.position(data.position() + length);
             }
         }
 
@@ -462,7 +569,7 @@ public class BaseDecompiler implements Decompiler {
             ClassSignature sig = new ClassSignature();
             sig.setSuperclassSignature(new GenericClassTypeSignature(supername));
             for (String intr : entry.getInterfaces()) {
-                sig.getInterfaceSignatures().add(new GenericClassTypeSignature("L" + intr + ";"));
+                sig.getInterfaceSignatures().add(new GenericClassTypeSignature(symbols.intern("L" + intr + ";")));
             }
             entry.setSignature(sig);
         }
@@ -474,13 +581,24 @@ public class BaseDecompiler implements Decompiler {
             entry.setLanguage(actual_lang);
         }
 
-        MethodDecompileTask task = new MethodDecompileTask(entry, pool, unfinished_methods, this.bytecode, bootstrap_methods);
-        if (LibraryConfiguration.parallel) {
-            this.scheduler.add(task);
+        if (header_only) {
+            entry.setHeaderOnly(true);
+            set.add(entry);
+            Timing.time_decompiling += System.nanoTime() - decompile_start;
+            return entry;
+        }
+
+        TypeDecompileTask task = new TypeDecompileTask(entry, pool, unfinished_methods, this.bytecode, bootstrap_methods);
+        if (!immediate) {
+            // each method body is scheduled separately so that a single large
+            // type is spread across all workers, the last method of the type
+            // to finish adds the type to the source set
+            for (MethodDecompileTask method_task : task.split()) {
+                this.scheduler.add(method_task);
+            }
         } else {
             long method_decompile_start = System.nanoTime();
             task.run();
-            set.add(entry);
             long method_decompile_time = System.nanoTime() - method_decompile_start;
             Timing.time_decompiling_methods += method_decompile_time;
         }
@@ -493,70 +611,71 @@ public class BaseDecompiler implements Decompiler {
         if (LibraryConfiguration.parallel) {
             long start = System.nanoTime();
             this.scheduler.execute();
-            for (MethodDecompileTask task : this.scheduler.getTasks()) {
-                task.getEntry().getSource().add(task.getEntry());
-            }
             long method_decompile_time = System.nanoTime() - start;
             Timing.time_decompiling_methods += method_decompile_time;
             this.scheduler.reset();
         }
     }
 
-    private Annotation readAnnotation(DataInputStream data, ClassConstantPool pool, SourceSet set) throws IOException {
-        String anno_type_name = pool.getUtf8(data.readUnsignedShort());
+    private static int readUnsignedShort(ByteBuffer data) {
+        return Short.toUnsignedInt(data.getShort());
+    }
+
+    private Annotation readAnnotation(ByteBuffer data, ClassConstantPool pool, SourceSet set) throws IOException {
+        String anno_type_name = pool.getSymbol(readUnsignedShort(data));
         AnnotationType anno_type = set.getAnnotationType(TypeHelper.descToType(anno_type_name));
         Annotation anno = new Annotation(anno_type);
-        int value_paris = data.readUnsignedShort();
+        int value_paris = readUnsignedShort(data);
         for (int k = 0; k < value_paris; k++) {
-            String element_name = pool.getUtf8(data.readUnsignedShort());
+            String element_name = pool.getSymbol(readUnsignedShort(data));
             anno.setValue(element_name, readElementValue(data, pool, set));
         }
         return anno;
     }
 
-    private Object readElementValue(DataInputStream data, ClassConstantPool pool, SourceSet set) throws IOException {
-        char element_type_tag = (char) data.readUnsignedByte();
+    private Object readElementValue(ByteBuffer data, ClassConstantPool pool, SourceSet set) throws IOException {
+        char element_type_tag = (char) Byte.toUnsignedInt(data.get());
         if (element_type_tag == 's') {
-            String value = pool.getUtf8(data.readUnsignedShort());
+            String value = pool.getUtf8(readUnsignedShort(data));
             return value;
         } else if (element_type_tag == 'B') {
-            int value = pool.getInt(data.readUnsignedShort());
+            int value = pool.getInt(readUnsignedShort(data));
             return Byte.valueOf((byte) value);
         } else if (element_type_tag == 'S') {
-            int value = pool.getInt(data.readUnsignedShort());
+            int value = pool.getInt(readUnsignedShort(data));
             return Short.valueOf((short) value);
         } else if (element_type_tag == 'C') {
-            int value = pool.getInt(data.readUnsignedShort());
+            int value = pool.getInt(readUnsignedShort(data));
             return Character.valueOf((char) value);
         } else if (element_type_tag == 'I') {
-            int value = pool.getInt(data.readUnsignedShort());
+            int value = pool.getInt(readUnsignedShort(data));
             return Integer.valueOf(value);
         } else if (element_type_tag == 'F') {
-            float value = pool.getFloat(data.readUnsignedShort());
+            float value = pool.getFloat(readUnsignedShort(data));
             return Float.valueOf(value);
         } else if (element_type_tag == 'J') {
-            long value = pool.getLong(data.readUnsignedShort());
+            long value = pool.getLong(readUnsignedShort(data));
             return Long.valueOf(value);
         } else if (element_type_tag == 'D') {
-            double value = pool.getDouble(data.readUnsignedShort());
+            double value = pool.getDouble(readUnsignedShort(data));
             return Double.valueOf(value);
         } else if (element_type_tag == 'Z') {
-            int value = pool.getInt(data.readUnsignedShort());
+            int value = pool.getInt(readUnsignedShort(data));
             return Boolean.valueOf(value != 0);
         } else if (element_type_tag == 'c') {
-            String value = pool.getUtf8(data.readUnsignedShort());
+            String value = pool.getSymbol(readUnsignedShort(data));
             return ClassTypeSignature.of(value);
         } else if (element_type_tag == '@') {
             Annotation value = readAnnotation(data, pool, set);
             return value;
         } else if (element_type_tag == 'e') {
-            String enum_type = pool.getUtf8(data.readUnsignedShort());
-            String enum_cst = pool.getUtf8(data.readUnsignedShort());
+            String enum_type = pool.getSymbol(readUnsignedShort(data));
+            String enum_cst = pool.getSymbol(readUnsignedShort(data));
             EnumConstant value = new EnumConstant(enum_type, enum_cst);
             return value;
         } else if (element_type_tag == '[') {
             List<Object> value = new ArrayList<>();
-            int num_values = data.readUnsignedShort();
+            int num_values = readUnsignedShort(data);
             for (int i = 0; i < num_values; i++) {
                 value.add(readElementValue(data, pool, set));
             }
@@ -574,7 +693,7 @@ public class BaseDecompiler implements Decompiler {
     public static class UnfinishedMethod {
 
         public MethodEntry mth;
-        public byte[] code;
+        public ByteBuffer code;
         public List<TryCatchRegion> catch_regions;
         public Map<Integer, List<Annotation>> parameter_annotations;
 
@@ -27,10 +27,12 @@ package org.spongepowered.despector.decompiler;
 import org.spongepowered.despector.ast.SourceSet;
 import org.spongepowered.despector.ast.type.TypeEntry;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.nio.file.Path;
 
 /**
@@ -62,4 +64,14 @@ public interface Decompiler {
      */
     TypeEntry decompile(InputStream cls_path, SourceSet source) throws IOException;
 
+    /**
+     * Decompiles the class file in the given buffer, from its position to its
+     * limit.
+     */
+    default TypeEntry decompile(ByteBuffer data, SourceSet source) throws IOException {
+        byte[] bytes = new byte[data.remaining()];
+        data.duplicate().get(bytes);
+        return decompile(new ByteArrayInputStream(bytes), source);
+    }
+
 }
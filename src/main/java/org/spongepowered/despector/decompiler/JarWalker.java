@@ -26,12 +26,8 @@ package org.spongepowered.despector.decompiler;
 
 import org.spongepowered.despector.ast.SourceSet;
 
-import java.io.BufferedInputStream;
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.jar.JarInputStream;
-import java.util.zip.ZipEntry;
 
 /**
  * Walks a jar file to produce an ast. Steps such as associating overriding
@@ -56,29 +52,17 @@ public class JarWalker {
     }
 
     private void scanJar(Path path, SourceSet src, Decompiler decomp) {
-        try (JarInputStream jar = new JarInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
-            ZipEntry entry = jar.getNextEntry();
-            if (entry == null) {
-                return;
-            }
-            do {
-                if (entry.isDirectory()) {
-                    continue;
-                }
-                final String name = entry.getName();
-                if (!name.endsWith(".class")) {
+        try (MappedJarFile jar = new MappedJarFile(path)) {
+            for (MappedJarFile.Entry entry : jar.getEntries()) {
+                if (entry.isDirectory() || !decomp.isValid(entry.getName())) {
                     continue;
                 }
-                scanClassFile(jar, src, decomp);
-            } while ((entry = jar.getNextEntry()) != null);
+                decomp.decompile(jar.read(entry), src);
+            }
         } catch (IOException e) {
             e.printStackTrace();
             return;
         }
     }
 
-    private void scanClassFile(JarInputStream input, SourceSet src, Decompiler decomp) throws IOException {
-        decomp.decompile(input, src);
-    }
-
 }
@@ -0,0 +1,276 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Despector <https://despector.voxelgenesis.com>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.despector.decompiler;
+
+import org.spongepowered.despector.decompiler.error.SourceFormatException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * A read only view of a jar file which is memory mapped and accessed randomly
+ * through its central directory rather than read sequentially as a stream.
+ *
+ * <p>Stored entries are returned as slices of the mapped file without copying,
+ * deflated entries are inflated into a new buffer.</p>
+ */
+public class MappedJarFile implements Closeable {
+
+    private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+    private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+    private static final int END_SIGNATURE = 0x06054b50;
+    private static final int ZIP64_END_SIGNATURE = 0x06064b50;
+    private static final int ZIP64_LOCATOR_SIGNATURE = 0x07064b50;
+
+    private static final int END_LENGTH = 22;
+    private static final int ZIP64_LOCATOR_LENGTH = 20;
+
+    private static final int METHOD_STORED = 0;
+    private static final int METHOD_DEFLATED = 8;
+
+    private final FileChannel channel;
+    private final ByteBuffer data;
+    private final List<Entry> entries;
+
+    /**
+     * Opens and maps the jar file at the given path.
+     */
+    public MappedJarFile(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            long size = this.channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Jar file too large to map: " + path);
+            }
+            this.data = this.channel.map(FileChannel.MapMode.READ_ONLY, 0, size).order(ByteOrder.LITTLE_ENDIAN);
+            this.entries = Collections.unmodifiableList(readCentralDirectory());
+        } catch (IOException | RuntimeException e) {
+            this.channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Gets all entries of this jar in central directory order.
+     */
+    public List<Entry> getEntries() {
+        return this.entries;
+    }
+
+    /**
+     * Reads the contents of the given entry. The returned buffer is big endian
+     * and positioned at the start of the entry.
+     */
+    public ByteBuffer read(Entry entry) throws IOException {
+        int header = entry.header_offset;
+        if (this.data.getInt(header) != LOCAL_HEADER_SIGNATURE) {
+            throw new SourceFormatException("Bad local header for jar entry " + entry.name);
+        }
+        // the local header may have a different extra field than the central
+        // directory so the offset to the data must be read from it
+        int start = header + 30 + Short.toUnsignedInt(this.data.getShort(header + 26)) + Short.toUnsignedInt(this.data.getShort(header + 28));
+        ByteBuffer compressed = slice(start, entry.compressed_size);
+        if (entry.method == METHOD_STORED) {
+            return compressed.order(ByteOrder.BIG_ENDIAN);
+        } else if (entry.method != METHOD_DEFLATED) {
+            throw new SourceFormatException("Unsupported compression method " + entry.method + " for jar entry " + entry.name);
+        }
+        byte[] input = new byte[entry.compressed_size];
+        compressed.get(input);
+        byte[] output = new byte[entry.size];
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(input);
+            int offs = 0;
+            while (offs < output.length) {
+                int len = inflater.inflate(output, offs, output.length - offs);
+                if (len == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new SourceFormatException("Truncated jar entry " + entry.name);
+                }
+                offs += len;
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt jar entry " + entry.name, e);
+        } finally {
+            inflater.end();
+        }
+        return ByteBuffer.wrap(output);
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.channel.close();
+    }
+
+    private ByteBuffer slice(int start, int length) {
+        ByteBuffer buf = this.data.duplicate();
+        buf.position(start);
+        buf.limit(start + length);
+        return buf.slice();
+    }
+
+    private List<Entry> readCentralDirectory() throws IOException {
+        int end = findEnd();
+        long entry_count = Short.toUnsignedInt(this.data.getShort(end + 10));
+        long directory_offset = Integer.toUnsignedLong(this.data.getInt(end + 16));
+        int locator = end - ZIP64_LOCATOR_LENGTH;
+        if (locator >= 0 && this.data.getInt(locator) == ZIP64_LOCATOR_SIGNATURE) {
+            int zip64_end = checkedOffset(this.data.getLong(locator + 8));
+            if (this.data.getInt(zip64_end) != ZIP64_END_SIGNATURE) {
+                throw new SourceFormatException("Bad zip64 end of central directory");
+            }
+            entry_count = this.data.getLong(zip64_end + 32);
+            directory_offset = this.data.getLong(zip64_end + 48);
+        }
+        List<Entry> result = new ArrayList<>((int) Math.min(entry_count, 1 << 16));
+        int offs = checkedOffset(directory_offset);
+        for (long i = 0; i < entry_count; i++) {
+            if (this.data.getInt(offs) != CENTRAL_HEADER_SIGNATURE) {
+                throw new SourceFormatException("Bad central directory entry");
+            }
+            int method = Short.toUnsignedInt(this.data.getShort(offs + 10));
+            long compressed_size = Integer.toUnsignedLong(this.data.getInt(offs + 20));
+            long size = Integer.toUnsignedLong(this.data.getInt(offs + 24));
+            int name_length = Short.toUnsignedInt(this.data.getShort(offs + 28));
+            int extra_length = Short.toUnsignedInt(this.data.getShort(offs + 30));
+            int comment_length = Short.toUnsignedInt(this.data.getShort(offs + 32));
+            long header_offset = Integer.toUnsignedLong(this.data.getInt(offs + 42));
+            byte[] name = new byte[name_length];
+            ByteBuffer name_data = slice(offs + 46, name_length);
+            name_data.get(name);
+
+            // values which do not fit are moved to the zip64 extra field
+            int extra = offs + 46 + name_length;
+            int extra_end = extra + extra_length;
+            if (extra_end > this.data.limit()) {
+                throw new SourceFormatException("Central directory entry out of bounds");
+            }
+            while (extra + 4 <= extra_end) {
+                int id = Short.toUnsignedInt(this.data.getShort(extra));
+                int length = Short.toUnsignedInt(this.data.getShort(extra + 2));
+                int field_end = extra + 4 + length;
+                if (field_end > extra_end) {
+                    throw new SourceFormatException("Malformed extra field in jar entry " + new String(name, StandardCharsets.UTF_8));
+                }
+                if (id == 0x0001) {
+                    int field = extra + 4;
+                    if (size == 0xFFFFFFFFL) {
+                        size = readZip64Value(field, field_end, name);
+                        field += 8;
+                    }
+                    if (compressed_size == 0xFFFFFFFFL) {
+                        compressed_size = readZip64Value(field, field_end, name);
+                        field += 8;
+                    }
+                    if (header_offset == 0xFFFFFFFFL) {
+                        header_offset = readZip64Value(field, field_end, name);
+                    }
+                }
+                extra = field_end;
+            }
+
+            if (size > Integer.MAX_VALUE) {
+                throw new SourceFormatException("Jar entry too large: " + new String(name, StandardCharsets.UTF_8));
+            }
+            result.add(new Entry(new String(name, StandardCharsets.UTF_8), method, checkedOffset(compressed_size), (int) size,
+                    checkedOffset(header_offset)));
+            offs += 46 + name_length + extra_length + comment_length;
+        }
+        return result;
+    }
+
+    private long readZip64Value(int field, int field_end, byte[] name) throws IOException {
+        if (field + 8 > field_end) {
+            throw new SourceFormatException("Malformed zip64 extra field in jar entry " + new String(name, StandardCharsets.UTF_8));
+        }
+        return this.data.getLong(field);
+    }
+
+    private int findEnd() throws IOException {
+        // the end record is followed by a comment of up to 64k
+        int min = Math.max(0, this.data.limit() - END_LENGTH - 0xFFFF);
+        for (int i = this.data.limit() - END_LENGTH; i >= min; i--) {
+            if (this.data.getInt(i) == END_SIGNATURE) {
+                return i;
+            }
+        }
+        throw new SourceFormatException("No end of central directory found, not a jar file");
+    }
+
+    private int checkedOffset(long value) throws IOException {
+        if (value < 0 || value > this.data.limit()) {
+            throw new SourceFormatException("Jar file offset out of bounds: " + value);
+        }
+        return (int) value;
+    }
+
+    /**
+     * An entry in a mapped jar file.
+     */
+    public static class Entry {
+
+        final String name;
+        final int method;
+        final int compressed_size;
+        final int size;
+        final int header_offset;
+
+        Entry(String name, int method, int compressed_size, int size, int header_offset) {
+            this.name = name;
+            this.method = method;
+            this.compressed_size = compressed_size;
+            this.size = size;
+            this.header_offset = header_offset;
+        }
+
+        public String getName() {
+            return this.name;
+        }
+
+        public boolean isDirectory() {
+            return this.name.endsWith("/");
+        }
+
+        /**
+         * Gets the uncompressed size of this entry.
+         */
+        public int getSize() {
+            return this.size;
+        }
+
+    }
+
+}
@@ -0,0 +1,420 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Despector <https://despector.voxelgenesis.com>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.despector.decompiler;
+
+import org.spongepowered.despector.ast.SourceSet;
+import org.spongepowered.despector.ast.type.TypeEntry;
+import org.spongepowered.despector.config.LibraryConfiguration;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Decompiles a set of sources in bounded batches rather than all at once.
+ *
+ * <p>The sources are processed by three stages connected by bounded queues.
+ * Class files are read into batches on a reader thread, each batch is
+ * decompiled into the source set on a decompiler thread and the decompiled
+ * batches are handed to a {@link BatchConsumer} on the calling thread to be
+ * transformed and emitted. A batch is removed from the source set again once
+ * it has been consumed, so that memory use scales with the batch size rather
+ * than with the size of the input.</p>
+ *
+ * <p>Inner classes are always placed in the same batch as their outer class as
+ * they are needed in order to emit it. Unless the source set already has a
+ * {@link SourceSet.Loader} one is installed for the duration of the run which
+ * loads types of other batches from the sources on demand, so that types
+ * referring to them are decompiled and emitted the same as when the whole
+ * input is decompiled at once. Types loaded this way stay in the source set,
+ * unless disabled in the {@link LibraryConfiguration} only as headers.</p>
+ */
+public class StreamingDecompiler {
+
+    private static final int READ_AHEAD = 2;
+    private static final int DECOMPILE_AHEAD = 1;
+    private static final List<ByteBuffer> END = Collections.emptyList();
+    private static final List<TypeEntry> DECOMPILED_END = Collections.emptyList();
+
+    private final Decompiler decompiler;
+    private final int batch_size;
+    private final BlockingQueue<List<ByteBuffer>> queue = new ArrayBlockingQueue<>(READ_AHEAD);
+    private final BlockingQueue<List<TypeEntry>> decompiled = new ArrayBlockingQueue<>(DECOMPILE_AHEAD);
+
+    private List<ByteBuffer> next_batch = new ArrayList<>();
+    private volatile Throwable reader_error;
+    private volatile Throwable decompiler_error;
+    private volatile boolean closed;
+
+    public StreamingDecompiler(Decompiler decompiler, int batch_size) {
+        this.decompiler = decompiler;
+        this.batch_size = Math.max(batch_size, 1);
+    }
+
+    /**
+     * Decompiles all classes from the given sources into the given source set
+     * and passes them to the consumer batch by batch. Returns the total number
+     * of types decompiled. An unchecked exception thrown while reading or
+     * decompiling the sources is rethrown once the batches finished before it
+     * have been consumed.
+     */
+    public int run(List<Path> sources, SourceSet set, BatchConsumer consumer) throws IOException {
+        SourceIndex index = null;
+        if (set.getLoader() == null) {
+            index = new SourceIndex();
+            for (Path path : sources) {
+                index.add(path);
+            }
+            set.setLoader(index);
+        }
+        Thread reader = new Thread(() -> read(sources), "despector-reader");
+        reader.setDaemon(true);
+        Thread decompiler = new Thread(() -> decompile(set), "despector-decompiler");
+        decompiler.setDaemon(true);
+        try {
+            reader.start();
+            decompiler.start();
+            int total = 0;
+            while (true) {
+                List<TypeEntry> types;
+                try {
+                    types = this.decompiled.take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                if (types == DECOMPILED_END) {
+                    rethrow(this.reader_error);
+                    rethrow(this.decompiler_error);
+                    break;
+                }
+                consumer.accept(types);
+                for (TypeEntry type : types) {
+                    set.remove(type);
+                }
+                total += types.size();
+            }
+            return total;
+        } finally {
+            // stops the other stages if the consumer failed
+            this.closed = true;
+            if (index != null) {
+                set.setLoader(null);
+                index.close();
+            }
+        }
+    }
+
+    private static void rethrow(Throwable error) {
+        if (error instanceof RuntimeException) {
+            throw (RuntimeException) error;
+        } else if (error instanceof Error) {
+            throw (Error) error;
+        }
+    }
+
+    /**
+     * Puts the given value into the queue, waiting for space until the run is
+     * closed. Returns false if the run was closed first.
+     */
+    private <T> boolean put(BlockingQueue<T> queue, T value) {
+        boolean interrupted = false;
+        try {
+            while (!this.closed) {
+                try {
+                    if (queue.offer(value, 100, TimeUnit.MILLISECONDS)) {
+                        return true;
+                    }
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            return false;
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void decompile(SourceSet set) {
+        try {
+            while (!this.closed) {
+                List<ByteBuffer> batch;
+                try {
+                    batch = this.queue.poll(100, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                if (batch == null) {
+                    continue;
+                }
+                if (batch == END) {
+                    break;
+                }
+                List<TypeEntry> types = new ArrayList<>(batch.size());
+                for (ByteBuffer data : batch) {
+                    try {
+                        types.add(this.decompiler.decompile(data, set));
+                    } catch (IOException e) {
+                        e.printStackTrace();
+                    }
+                }
+                if (LibraryConfiguration.parallel && this.decompiler instanceof BaseDecompiler) {
+                    ((BaseDecompiler) this.decompiler).flushTasks();
+                }
+                if (!put(this.decompiled, types)) {
+                    return;
+                }
+            }
+        } catch (RuntimeException | Error e) {
+            // passed on to the consuming thread which rethrows it once it
+            // reaches the end of the queue
+            this.decompiler_error = e;
+        }
+        // the end marker must always be queued or the consuming thread would
+        // wait on the queue forever
+        put(this.decompiled, DECOMPILED_END);
+    }
+
+    private void read(List<Path> sources) {
+        try {
+            for (Path path : sources) {
+                if (this.closed) {
+                    return;
+                }
+                readSource(path);
+            }
+            if (!this.next_batch.isEmpty()) {
+                put(this.queue, this.next_batch);
+            }
+        } catch (RuntimeException | Error e) {
+            // passed on to the consuming thread which rethrows it once it
+            // reaches the end of the queue
+            this.reader_error = e;
+        } finally {
+            this.next_batch = null;
+            put(this.queue, END);
+        }
+    }
+
+    private void readSource(Path path) {
+        if (!Files.exists(path)) {
+            System.err.println("Unknown source: " + path.toAbsolutePath().toString());
+        } else if (path.toString().endsWith(".jar")) {
+            readJar(path);
+        } else if (Files.isDirectory(path)) {
+            readDirectory(path);
+        } else if (this.decompiler.isValid(path.toString())) {
+            try {
+                addGroup(Collections.singletonList(ByteBuffer.wrap(Files.readAllBytes(path))));
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        } else {
+            System.err.println("Unknown source type: " + path.toAbsolutePath().toString() + " must be jar or directory");
+        }
+    }
+
+    private void readJar(Path path) {
+        try (MappedJarFile jar = new MappedJarFile(path)) {
+            Map<String, List<MappedJarFile.Entry>> groups = new TreeMap<>();
+            for (MappedJarFile.Entry entry : jar.getEntries()) {
+                if (entry.isDirectory() || !this.decompiler.isValid(entry.getName())) {
+                    continue;
+                }
+                groups.computeIfAbsent(getOuterName(entry.getName()), (k) -> new ArrayList<>()).add(entry);
+            }
+            for (List<MappedJarFile.Entry> group : groups.values()) {
+                List<ByteBuffer> data = new ArrayList<>(group.size());
+                for (MappedJarFile.Entry entry : group) {
+                    data.add(jar.read(entry));
+                }
+                addGroup(data);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void readDirectory(Path dir) {
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(dir)) {
+            files = walk.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+        } catch (IOException e) {
+            System.err.println("Error while walking directory: " + dir.toAbsolutePath().toString());
+            e.printStackTrace();
+            return;
+        }
+        Map<String, List<Path>> groups = new TreeMap<>();
+        for (Path file : files) {
+            String name = dir.relativize(file).toString();
+            if (name.endsWith(".jar")) {
+                readJar(file);
+            } else if (this.decompiler.isValid(name)) {
+                groups.computeIfAbsent(getOuterName(name), (k) -> new ArrayList<>()).add(file);
+            }
+        }
+        for (List<Path> group : groups.values()) {
+            List<ByteBuffer> data = new ArrayList<>(group.size());
+            for (Path file : group) {
+                try {
+                    data.add(ByteBuffer.wrap(Files.readAllBytes(file)));
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+            addGroup(data);
+        }
+    }
+
+    private void addGroup(List<ByteBuffer> group) {
+        this.next_batch.addAll(group);
+        if (this.next_batch.size() >= this.batch_size) {
+            put(this.queue, this.next_batch);
+            this.next_batch = new ArrayList<>();
+        }
+    }
+
+    private static String getTypeName(String file_name) {
+        return file_name.substring(0, file_name.length() - ".class".length()).replace('\\', '/');
+    }
+
+    private static String getOuterName(String file_name) {
+        int slash = Math.max(file_name.lastIndexOf('/'), file_name.lastIndexOf('\\'));
+        int inner = file_name.indexOf('$', slash + 1);
+        if (inner == -1) {
+            return file_name.substring(0, file_name.length() - ".class".length());
+        }
+        return file_name.substring(0, inner);
+    }
+
+    /**
+     * A loader for the types of the sources being decompiled. Jars are kept
+     * open until the run is finished.
+     */
+    private class SourceIndex implements SourceSet.Loader, Closeable {
+
+        private final Map<String, Path> files = new HashMap<>();
+        private final Map<String, MappedJarFile.Entry> entries = new HashMap<>();
+        private final Map<String, MappedJarFile> entry_jars = new HashMap<>();
+        private final List<MappedJarFile> jars = new ArrayList<>();
+
+        void add(Path path) {
+            if (!Files.exists(path)) {
+                return;
+            } else if (path.toString().endsWith(".jar")) {
+                addJar(path);
+            } else if (Files.isDirectory(path)) {
+                try (Stream<Path> walk = Files.walk(path)) {
+                    for (Path file : (Iterable<Path>) walk.filter(Files::isRegularFile).sorted()::iterator) {
+                        String name = path.relativize(file).toString();
+                        if (name.endsWith(".jar")) {
+                            addJar(file);
+                        } else if (StreamingDecompiler.this.decompiler.isValid(name) && name.endsWith(".class")) {
+                            this.files.putIfAbsent(getTypeName(name), file);
+                        }
+                    }
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+
+        private void addJar(Path path) {
+            try {
+                MappedJarFile jar = new MappedJarFile(path);
+                this.jars.add(jar);
+                for (MappedJarFile.Entry entry : jar.getEntries()) {
+                    String name = entry.getName();
+                    if (entry.isDirectory() || !StreamingDecompiler.this.decompiler.isValid(name) || !name.endsWith(".class")) {
+                        continue;
+                    }
+                    String type = getTypeName(name);
+                    if (!this.entries.containsKey(type)) {
+                        this.entries.put(type, entry);
+                        this.entry_jars.put(type, jar);
+                    }
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+
+        @Override
+        public InputStream find(String name) {
+            try {
+                MappedJarFile.Entry entry = this.entries.get(name);
+                if (entry != null) {
+                    ByteBuffer data = this.entry_jars.get(name).read(entry);
+                    byte[] bytes = new byte[data.remaining()];
+                    data.get(bytes);
+                    return new ByteArrayInputStream(bytes);
+                }
+                Path file = this.files.get(name);
+                if (file != null) {
+                    return Files.newInputStream(file);
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            return null;
+        }
+
+        @Override
+        public void close() throws IOException {
+            for (MappedJarFile jar : this.jars) {
+                jar.close();
+            }
+        }
+
+    }
+
+    /**
+     * A consumer for a batch of decompiled types.
+     */
+    public static interface BatchConsumer {
+
+        void accept(List<TypeEntry> batch) throws IOException;
+
+    }
+
+}
@@ -24,44 +24,414 @@
  */
 package org.spongepowered.despector.decompiler.ir;
 
+import org.spongepowered.despector.config.LibraryConfiguration;
 import org.spongepowered.despector.decompiler.method.PartialMethod.TryCatchRegion;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 
+/**
+ * The instructions of a method.
+ *
+ * <p>If {@link LibraryConfiguration#compact_ir} is set the instructions are
+ * stored in parallel arrays of opcodes, int operands and references, and
+ * {@link Insn} objects are only created for instructions which are requested
+ * through {@link #get(int)}. Consumers which only need the opcodes and
+ * operands should read them through the index accessors or a
+ * {@link #cursor(int, int) cursor}, which work for either representation.</p>
+ */
 public class InsnBlock implements Iterable<Insn> {
 
+    private static final int INITIAL_CAPACITY = 16;
+
     private final List<Insn> instructions;
     private int[] op_indices;
+    private int[] insn_indices;
     private List<TryCatchRegion> catch_regions = new ArrayList<>();
 
+    // compact representation
+    private int size;
+    private int[] opcodes;
+    private int[] operands;
+    private long[] wide_operands;
+    private Object[] references;
+    private Insn[] materialized;
+
     public InsnBlock() {
-        this.instructions = new ArrayList<>();
+        this(false);
+    }
+
+    public InsnBlock(boolean compact) {
+        if (compact) {
+            this.instructions = null;
+            this.opcodes = new int[INITIAL_CAPACITY];
+            this.operands = new int[INITIAL_CAPACITY];
+            this.references = new Object[INITIAL_CAPACITY];
+        } else {
+            this.instructions = new ArrayList<>();
+        }
+    }
+
+    /**
+     * Gets if this block uses the compact representation.
+     */
+    public boolean isCompact() {
+        return this.instructions == null;
     }
 
     public int size() {
+        if (this.instructions == null) {
+            return this.size;
+        }
         return this.instructions.size();
     }
 
+    /**
+     * Gets the instruction at the given index. In the compact representation
+     * the instruction object is created on first access and reused
+     * afterwards.
+     */
     public Insn get(int i) {
-        return this.instructions.get(i);
+        if (this.instructions != null) {
+            return this.instructions.get(i);
+        }
+        checkIndex(i);
+        if (this.references[i] instanceof Insn) {
+            return (Insn) this.references[i];
+        }
+        if (this.materialized == null) {
+            this.materialized = new Insn[this.opcodes.length];
+        }
+        Insn insn = this.materialized[i];
+        if (insn == null) {
+            insn = materialize(i);
+            this.materialized[i] = insn;
+        }
+        return insn;
     }
 
+    private Insn materialize(int i) {
+        int op = this.opcodes[i];
+        switch (op) {
+        case Insn.ICONST:
+        case Insn.LOCAL_LOAD:
+        case Insn.LOCAL_STORE:
+            return new IntInsn(op, this.operands[i]);
+        case Insn.LCONST:
+            return new LongInsn(op, this.wide_operands[i]);
+        case Insn.FCONST:
+            return new FloatInsn(op, Float.intBitsToFloat(this.operands[i]));
+        case Insn.DCONST:
+            return new DoubleInsn(op, Double.longBitsToDouble(this.wide_operands[i]));
+        case Insn.PUSH:
+            return new LdcInsn(op, this.references[i]);
+        case Insn.NEW:
+        case Insn.NEWARRAY:
+        case Insn.CAST:
+        case Insn.INSTANCEOF:
+            return new TypeInsn(op, (String) this.references[i]);
+        default:
+            if (isJump(op)) {
+                return new JumpInsn(op, this.operands[i]);
+            }
+            return new OpInsn(op);
+        }
+    }
+
+    private void checkIndex(int i) {
+        if (i < 0 || i >= this.size) {
+            throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + this.size);
+        }
+    }
+
+    private int grow() {
+        int i = this.size;
+        if (i == this.opcodes.length) {
+            int capacity = i * 2;
+            this.opcodes = Arrays.copyOf(this.opcodes, capacity);
+            this.operands = Arrays.copyOf(this.operands, capacity);
+            this.references = Arrays.copyOf(this.references, capacity);
+            if (this.wide_operands != null) {
+                this.wide_operands = Arrays.copyOf(this.wide_operands, capacity);
+            }
+            if (this.materialized != null) {
+                this.materialized = Arrays.copyOf(this.materialized, capacity);
+            }
+        }
+        this.size++;
+        return i;
+    }
+
+    /**
+     * Appends the given instruction. In the compact representation
+     * instructions which have a compact form are stored in it and the given
+     * object is discarded.
+     */
     public void append(Insn insn) {
-        this.instructions.add(insn);
+        if (this.instructions != null) {
+            this.instructions.add(insn);
+            return;
+        }
+        int op = insn.getOpcode();
+        if (insn instanceof OpInsn) {
+            appendOp(op);
+        } else if (insn instanceof IntInsn) {
+            appendInt(op, ((IntInsn) insn).getValue());
+        } else if (insn instanceof JumpInsn) {
+            appendJump(op, ((JumpInsn) insn).getTarget());
+        } else if (insn instanceof LongInsn) {
+            appendLong(op, ((LongInsn) insn).getValue());
+        } else if (insn instanceof FloatInsn) {
+            appendFloat(op, ((FloatInsn) insn).getValue());
+        } else if (insn instanceof DoubleInsn) {
+            appendDouble(op, ((DoubleInsn) insn).getValue());
+        } else if (insn instanceof LdcInsn) {
+            appendConstant(op, ((LdcInsn) insn).getConstant());
+        } else if (insn instanceof TypeInsn) {
+            appendType(op, ((TypeInsn) insn).getType());
+        } else {
+            int i = grow();
+            this.opcodes[i] = op;
+            this.references[i] = insn;
+        }
+    }
+
+    /**
+     * Appends an instruction without operands.
+     */
+    public void appendOp(int op) {
+        if (this.instructions != null) {
+            this.instructions.add(new OpInsn(op));
+            return;
+        }
+        int i = grow();
+        this.opcodes[i] = op;
     }
 
+    /**
+     * Appends an instruction with an int operand.
+     */
+    public void appendInt(int op, int value) {
+        if (this.instructions != null) {
+            this.instructions.add(new IntInsn(op, value));
+            return;
+        }
+        int i = grow();
+        this.opcodes[i] = op;
+        this.operands[i] = value;
+    }
+
+    /**
+     * Appends a jump instruction to the given target.
+     */
+    public void appendJump(int op, int target) {
+        if (this.instructions != null) {
+            this.instructions.add(new JumpInsn(op, target));
+            return;
+        }
+        int i = grow();
+        this.opcodes[i] = op;
+        this.operands[i] = target;
+    }
+
+    /**
+     * Appends an instruction with a long operand.
+     */
+    public void appendLong(int op, long value) {
+        if (this.instructions != null) {
+            this.instructions.add(new LongInsn(op, value));
+            return;
+        }
+        int i = grow();
+        this.opcodes[i] = op;
+        wideOperands()[i] = value;
+    }
+
+    /**
+     * Appends an instruction with a float operand.
+     */
+    public void appendFloat(int op, float value) {
+        if (this.instructions != null) {
+            this.instructions.add(new FloatInsn(op, value));
+            return;
+        }
+        int i = grow();
+        this.opcodes[i] = op;
+        this.operands[i] = Float.floatToRawIntBits(value);
+    }
+
+    /**
+     * Appends an instruction with a double operand.
+     */
+    public void appendDouble(int op, double value) {
+        if (this.instructions != null) {
+            this.instructions.add(new DoubleInsn(op, value));
+            return;
+        }
+        int i = grow();
+        this.opcodes[i] = op;
+        wideOperands()[i] = Double.doubleToRawLongBits(value);
+    }
+
+    /**
+     * Appends an instruction pushing the given constant.
+     */
+    public void appendConstant(int op, Object constant) {
+        if (this.instructions != null) {
+            this.instructions.add(new LdcInsn(op, constant));
+            return;
+        }
+        int i = grow();
+        this.opcodes[i] = op;
+        this.references[i] = constant;
+    }
+
+    /**
+     * Appends an instruction with a type descriptor operand.
+     */
+    public void appendType(int op, String type) {
+        if (this.instructions != null) {
+            this.instructions.add(new TypeInsn(op, type));
+            return;
+        }
+        int i = grow();
+        this.opcodes[i] = op;
+        this.references[i] = type;
+    }
+
+    private long[] wideOperands() {
+        if (this.wide_operands == null) {
+            this.wide_operands = new long[this.opcodes.length];
+        }
+        return this.wide_operands;
+    }
+
+    /**
+     * Gets the opcode of the instruction at the given index.
+     */
+    public int getOpcode(int i) {
+        if (this.instructions != null) {
+            return this.instructions.get(i).getOpcode();
+        }
+        checkIndex(i);
+        return this.opcodes[i];
+    }
+
+    /**
+     * Gets the int operand of the instruction at the given index, see
+     * {@link InsnCursor#getInt()}.
+     */
+    public int getIntOperand(int i) {
+        if (this.instructions != null) {
+            return InsnCursor.getInt(this.instructions.get(i));
+        }
+        checkIndex(i);
+        if (this.references[i] instanceof Insn) {
+            return InsnCursor.getInt((Insn) this.references[i]);
+        }
+        return this.operands[i];
+    }
+
+    /**
+     * Gets the target of the jump instruction at the given index.
+     */
+    public int getJumpTarget(int i) {
+        if (this.instructions != null) {
+            return ((JumpInsn) this.instructions.get(i)).getTarget();
+        }
+        checkIndex(i);
+        return this.operands[i];
+    }
+
+    /**
+     * Sets the target of the jump instruction at the given index.
+     */
+    public void setJumpTarget(int i, int target) {
+        if (this.instructions != null) {
+            ((JumpInsn) this.instructions.get(i)).setTarget(target);
+            return;
+        }
+        checkIndex(i);
+        this.operands[i] = target;
+        if (this.materialized != null && this.materialized[i] != null) {
+            ((JumpInsn) this.materialized[i]).setTarget(target);
+        }
+    }
+
+    /**
+     * Creates a cursor over the instructions between the given start
+     * (inclusive) and end (exclusive) indices.
+     */
+    public InsnCursor cursor(int start, int end) {
+        if (this.instructions != null) {
+            return InsnCursor.of(this.instructions.subList(start, end));
+        }
+        return new CompactCursor(start, end);
+    }
+
+    /**
+     * Gets if the given opcode is a conditional or unconditional jump.
+     */
+    public static boolean isJump(int op) {
+        return op >= Insn.IFEQ && op <= Insn.GOTO;
+    }
+
+    /**
+     * Gets the instructions of this block. In the compact representation this
+     * creates an object for every instruction.
+     */
     public List<Insn> getInstructions() {
-        return this.instructions;
+        if (this.instructions != null) {
+            return this.instructions;
+        }
+        List<Insn> insns = new ArrayList<>(this.size);
+        for (int i = 0; i < this.size; i++) {
+            insns.add(get(i));
+        }
+        return insns;
     }
 
+    /**
+     * Gets the bytecode offset of each instruction in this block. Bytecode
+     * instructions which are translated to several instructions in this block
+     * have the same offset for each of them.
+     */
     public int[] getOpcodeIndices() {
         return this.op_indices;
     }
 
+    /**
+     * Sets the bytecode offset of each instruction in this block and builds
+     * the reverse table used by {@link #getInstructionIndex(int)}.
+     */
     public void setOpcodeIndices(int[] op) {
         this.op_indices = op;
+        int max = -1;
+        for (int pc : op) {
+            max = Math.max(max, pc);
+        }
+        int[] indices = new int[max + 1];
+        Arrays.fill(indices, -1);
+        // iterate backwards so that a bytecode offset maps to the first of
+        // the instructions it was translated to
+        for (int i = op.length - 1; i >= 0; i--) {
+            indices[op[i]] = i;
+        }
+        this.insn_indices = indices;
+    }
+
+    /**
+     * Gets the index of the first instruction in this block which was
+     * translated from the bytecode instruction at the given offset, or -1 if
+     * no instruction starts at that offset.
+     */
+    public int getInstructionIndex(int pc) {
+        if (this.insn_indices == null || pc < 0 || pc >= this.insn_indices.length) {
+            return -1;
+        }
+        return this.insn_indices[pc];
     }
 
     public List<TryCatchRegion> getCatchRegions() {
@@ -71,7 +441,7 @@ public class InsnBlock implements Iterable<Insn> {
     @Override
     public String toString() {
         StringBuilder str = new StringBuilder();
-        for (Insn insn : this.instructions) {
+        for (Insn insn : this) {
             str.append(" ").append(insn).append("\n");
         }
         return str.toString();
@@ -88,12 +458,72 @@ public class InsnBlock implements Iterable<Insn> {
 
         @Override
         public boolean hasNext() {
-            return InsnBlock.this.getInstructions().size() > this.index;
+            return InsnBlock.this.size() > this.index;
         }
 
         @Override
         public Insn next() {
-            return InsnBlock.this.getInstructions().get(this.index++);
+            return InsnBlock.this.get(this.index++);
+        }
+
+    }
+
+    /**
+     * A cursor reading directly from the compact representation.
+     */
+    private class CompactCursor extends InsnCursor {
+
+        private final int start;
+        private final int end;
+
+        CompactCursor(int start, int end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public int size() {
+            return this.end - this.start;
+        }
+
+        @Override
+        public int getOpcode() {
+            return InsnBlock.this.opcodes[this.start + this.index];
+        }
+
+        @Override
+        public int getInt() {
+            return getIntOperand(this.start + this.index);
+        }
+
+        @Override
+        public long getLong() {
+            return InsnBlock.this.wide_operands[this.start + this.index];
+        }
+
+        @Override
+        public float getFloat() {
+            return Float.intBitsToFloat(InsnBlock.this.operands[this.start + this.index]);
+        }
+
+        @Override
+        public double getDouble() {
+            return Double.longBitsToDouble(InsnBlock.this.wide_operands[this.start + this.index]);
+        }
+
+        @Override
+        public Object getConstant() {
+            return InsnBlock.this.references[this.start + this.index];
+        }
+
+        @Override
+        public String getType() {
+            return (String) InsnBlock.this.references[this.start + this.index];
+        }
+
+        @Override
+        public Insn get() {
+            return InsnBlock.this.get(this.start + this.index);
         }
 
     }
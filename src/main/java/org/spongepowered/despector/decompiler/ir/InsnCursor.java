@@ -0,0 +1,198 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Despector <https://despector.voxelgenesis.com>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.despector.decompiler.ir;
+
+import java.util.List;
+
+/**
+ * A cursor over a sequence of instructions which gives access to the operands
+ * of each instruction without requiring an {@link Insn} object for it.
+ *
+ * <p>Instructions without a dedicated operand accessor (field accesses, method
+ * invocations, switches, ...) are accessed through {@link #get()}.</p>
+ */
+public abstract class InsnCursor {
+
+    /**
+     * Creates a cursor over the given list of instructions.
+     */
+    public static InsnCursor of(List<Insn> insns) {
+        return new ListCursor(insns);
+    }
+
+    protected int index = -1;
+
+    /**
+     * Gets the number of instructions covered by this cursor.
+     */
+    public abstract int size();
+
+    /**
+     * Advances to the next instruction and returns whether there was one.
+     */
+    public boolean next() {
+        return ++this.index < size();
+    }
+
+    /**
+     * Gets the index of the current instruction relative to the start of this
+     * cursor.
+     */
+    public int getIndex() {
+        return this.index;
+    }
+
+    /**
+     * Gets the opcode of the current instruction.
+     */
+    public abstract int getOpcode();
+
+    /**
+     * Gets the int operand of the current instruction. This is the value of
+     * an {@link Insn#ICONST}, the local index of a local load or store, or the
+     * target of a jump.
+     */
+    public abstract int getInt();
+
+    /**
+     * Gets the value of the current {@link Insn#LCONST} instruction.
+     */
+    public abstract long getLong();
+
+    /**
+     * Gets the value of the current {@link Insn#FCONST} instruction.
+     */
+    public abstract float getFloat();
+
+    /**
+     * Gets the value of the current {@link Insn#DCONST} instruction.
+     */
+    public abstract double getDouble();
+
+    /**
+     * Gets the constant of the current {@link Insn#PUSH} instruction.
+     */
+    public abstract Object getConstant();
+
+    /**
+     * Gets the type descriptor of the current {@link Insn#NEW},
+     * {@link Insn#NEWARRAY}, {@link Insn#CAST} or {@link Insn#INSTANCEOF}
+     * instruction.
+     */
+    public abstract String getType();
+
+    /**
+     * Gets the current instruction.
+     */
+    public abstract Insn get();
+
+    static int getInt(Insn insn) {
+        if (insn instanceof IntInsn) {
+            return ((IntInsn) insn).getValue();
+        } else if (insn instanceof JumpInsn) {
+            return ((JumpInsn) insn).getTarget();
+        }
+        throw new IllegalStateException("Instruction has no int operand: " + insn);
+    }
+
+    static long getLong(Insn insn) {
+        return ((LongInsn) insn).getValue();
+    }
+
+    static float getFloat(Insn insn) {
+        return ((FloatInsn) insn).getValue();
+    }
+
+    static double getDouble(Insn insn) {
+        return ((DoubleInsn) insn).getValue();
+    }
+
+    static Object getConstant(Insn insn) {
+        return ((LdcInsn) insn).getConstant();
+    }
+
+    static String getType(Insn insn) {
+        return ((TypeInsn) insn).getType();
+    }
+
+    /**
+     * A cursor over a list of instruction objects.
+     */
+    private static class ListCursor extends InsnCursor {
+
+        private final List<Insn> insns;
+
+        ListCursor(List<Insn> insns) {
+            this.insns = insns;
+        }
+
+        @Override
+        public int size() {
+            return this.insns.size();
+        }
+
+        @Override
+        public int getOpcode() {
+            return get().getOpcode();
+        }
+
+        @Override
+        public int getInt() {
+            return getInt(get());
+        }
+
+        @Override
+        public long getLong() {
+            return getLong(get());
+        }
+
+        @Override
+        public float getFloat() {
+            return getFloat(get());
+        }
+
+        @Override
+        public double getDouble() {
+            return getDouble(get());
+        }
+
+        @Override
+        public Object getConstant() {
+            return getConstant(get());
+        }
+
+        @Override
+        public String getType() {
+            return getType(get());
+        }
+
+        @Override
+        public Insn get() {
+            return this.insns.get(this.index);
+        }
+
+    }
+
+}
@@ -28,7 +28,6 @@ import static com.google.common.base.Preconditions.checkState;
 
 import org.spongepowered.despector.decompiler.ir.Insn;
 import org.spongepowered.despector.decompiler.ir.InsnBlock;
-import org.spongepowered.despector.decompiler.ir.JumpInsn;
 import org.spongepowered.despector.decompiler.kotlin.method.graph.data.ElvisBlockSection;
 import org.spongepowered.despector.decompiler.method.PartialMethod;
 import org.spongepowered.despector.decompiler.method.graph.GraphOperation;
@@ -38,10 +37,10 @@ import org.spongepowered.despector.decompiler.method.graph.data.opcode.OpcodeBlo
 import org.spongepowered.despector.decompiler.method.graph.data.opcode.ProcessedOpcodeBlock;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 /**
  * A graph operation that pre-processes ternaries before the rest of the graph
@@ -52,13 +51,13 @@ public class ElvisGraphProducerStep implements GraphProducerStep {
     private Map<Integer, ElvisBlockSection> sections = new HashMap<>();
 
     @Override
-    public void collectBreakpoints(PartialMethod partial, Set<Integer> break_points) {
+    public void collectBreakpoints(PartialMethod partial, BitSet break_points) {
         this.sections.clear();
         InsnBlock ops = partial.getOpcodes();
         if (ops.size() == 0) {
             return;
         }
-        int last = ops.get(0).getOpcode();
+        int last = ops.getOpcode(0);
         for (int i = 1; i < ops.size(); i++) {
             // an elvis statement when compiled will look something like:
             //
@@ -76,14 +75,13 @@ public class ElvisGraphProducerStep implements GraphProducerStep {
             //
             // Sometimes with the condition inverted and the else case placed
             // before the GOTO
-            int next = ops.get(i).getOpcode();
+            int next = ops.getOpcode(i);
             if (last == Insn.DUP && ((next >= Insn.IFEQ && next <= Insn.IF_CMPNE))) {
                 // Hello elvis
                 int o = i;
                 int start = i - 1;
-                Insn search = ops.get(o++);
-                int target = ((JumpInsn) search).getTarget();
-                JumpInsn ggoto = null;
+                int target = ops.getJumpTarget(o++);
+                int ggoto = -1;
                 // loop forwards and look for the label we're targeting with the
                 // check, and pick up the last goto on the way
                 //
@@ -91,43 +89,43 @@ public class ElvisGraphProducerStep implements GraphProducerStep {
                 // sure if I need to pay attention to it or not for the purposes
                 // of decompiling.
                 while (true) {
-                    search = ops.get(o++);
-                    if (o - 1 == target) {
+                    int search = o++;
+                    if (search == target) {
                         break;
-                    } else if (search.getOpcode() == Insn.GOTO) {
-                        ggoto = (JumpInsn) search;
+                    } else if (ops.getOpcode(search) == Insn.GOTO) {
+                        ggoto = search;
                     }
                 }
-                checkState(ggoto != null);
+                checkState(ggoto != -1);
                 // The target will be the end of the else body
-                target = ggoto.getTarget();
+                target = ops.getJumpTarget(ggoto);
                 List<Insn> else_body = new ArrayList<>();
                 boolean first_pop = false;
                 while (true) {
-                    search = ops.get(o++);
-                    if (o - 1 == target) {
+                    int search = o++;
+                    if (search == target) {
                         break;
                     }
                     // we ignore the first pop which is removing the checked
                     // value from the stack
-                    if (search.getOpcode() == Insn.POP && !first_pop) {
+                    if (ops.getOpcode(search) == Insn.POP && !first_pop) {
                         first_pop = true;
                     } else {
-                        else_body.add(search);
+                        else_body.add(ops.get(search));
                     }
                 }
                 OpcodeBlock holder = new BodyOpcodeBlock(0, 0);
                 holder.getOpcodes().addAll(else_body);
                 // remove any break points that were placed inside the elvis
-                for (int l = start; l < o; l++) {
-                    break_points.remove(l);
-                }
+                break_points.clear(start, o);
                 // add break points at the start and end of the elvis
                 //
                 // the one just before will create a body block that ends with
                 // the checked value being left on the stack
-                break_points.add(o - 1);
-                break_points.add(start - 1);
+                break_points.set(o - 1);
+                if (start > 0) {
+                    break_points.set(start - 1);
+                }
                 // TODO we need to parse any ternaries that might be contained
                 // in the else body of the elvis statement.
                 ElvisBlockSection elvis = new ElvisBlockSection(holder);
@@ -139,7 +137,7 @@ public class ElvisGraphProducerStep implements GraphProducerStep {
     }
 
     @Override
-    public void formEdges(PartialMethod partial, List<Integer> sorted_break_points, List<OpcodeBlock> block_list) {
+    public void formEdges(PartialMethod partial, int[] sorted_break_points, List<OpcodeBlock> block_list) {
         for (int i = 0; i < block_list.size(); i++) {
                 OpcodeBlock block = block_list.get(i);
             ElvisBlockSection elvis = this.sections.get(block.getStart());
@@ -148,11 +146,11 @@ public class ElvisGraphProducerStep implements GraphProducerStep {
             if (elvis != null) {
                 ProcessedOpcodeBlock replacement = new ProcessedOpcodeBlock(block.getStart(), block.getEnd(), elvis);
                 replacement.setTarget(block.getTarget());
-                block_list.set(block_list.indexOf(block), replacement);
+                block_list.set(i, replacement);
                 // omit the next block from the ternary check as it will look
                 // like a ternary since its missing the value which is the
                 // result of the elvis statement
-                block_list.get(block_list.indexOf(block) + 1).omitFromTernaryCheck(true);
+                block_list.get(i + 1).omitFromTernaryCheck(true);
                 GraphOperation.remap(block_list, block, replacement);
             }
         }
@@ -26,7 +26,6 @@ package org.spongepowered.despector.decompiler.kotlin.method.graph.operate;
 
 import static com.google.common.base.Preconditions.checkState;
 
-import org.spongepowered.despector.ast.Locals;
 import org.spongepowered.despector.ast.insn.condition.Condition;
 import org.spongepowered.despector.decompiler.kotlin.method.graph.data.WhenBlockSection;
 import org.spongepowered.despector.decompiler.kotlin.method.graph.data.WhenBlockSection.WhenCondition;
@@ -72,12 +71,12 @@ public class KotlinTernaryPrePassOperation implements GraphOperation {
         for (int i = 0; i < blocks.size(); i++) {
             OpcodeBlock block = blocks.get(i);
             if (!block.isOmittedFromTernaryCheck() && AstUtil.hasStartingRequirement(block.getOpcodes())) {
-                i -= compileTernary(blocks, i, partial.getLocals());
+                i -= compileTernary(blocks, i, partial);
             }
         }
     }
 
-    private static int compileTernary(List<OpcodeBlock> blocks, int end, Locals locals) {
+    private static int compileTernary(List<OpcodeBlock> blocks, int end, PartialMethod partial) {
         if (end < 4) {
             return 0;
         }
@@ -140,7 +139,7 @@ public class KotlinTernaryPrePassOperation implements GraphOperation {
                 seen.add(next);
                 condition_blocks.add(0, (ConditionalOpcodeBlock) next);
             }
-            Condition cond = ConditionBuilder.makeCondition(condition_blocks, locals, first_false, first_true);
+            Condition cond = ConditionBuilder.makeCondition(partial, condition_blocks, first_false, first_true);
             WhenBlock next_when = new WhenBlock(cond);
             next_when.getBody().addAll(false_blocks);
             first = condition_blocks.get(0);
@@ -182,7 +181,7 @@ public class KotlinTernaryPrePassOperation implements GraphOperation {
             TernaryBlockSection ternary = new TernaryBlockSection(conditions.get(0).getCondition());
             if (true_blocks.size() > 1) {
                 true_blocks.add(consumer);
-                compileTernary(true_blocks, true_blocks.size() - 1, locals);
+                compileTernary(true_blocks, true_blocks.size() - 1, partial);
                 true_blocks.remove(consumer);
             }
             for (OpcodeBlock t : true_blocks) {
@@ -196,7 +195,7 @@ public class KotlinTernaryPrePassOperation implements GraphOperation {
             List<OpcodeBlock> false_blocks = conditions.get(0).getBody();
             if (false_blocks.size() > 1) {
                 false_blocks.add(consumer);
-                compileTernary(false_blocks, false_blocks.size() - 1, locals);
+                compileTernary(false_blocks, false_blocks.size() - 1, partial);
                 false_blocks.remove(consumer);
             }
             for (OpcodeBlock t : false_blocks) {
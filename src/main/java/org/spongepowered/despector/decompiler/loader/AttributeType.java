@@ -0,0 +1,90 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Despector <https://despector.voxelgenesis.com>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.despector.decompiler.loader;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The class file attributes understood by the class loader.
+ */
+public enum AttributeType {
+
+    ANNOTATION_DEFAULT("AnnotationDefault"),
+    BOOTSTRAP_METHODS("BootstrapMethods"),
+    CODE("Code"),
+    CONSTANT_VALUE("ConstantValue"),
+    DEPRECATED("Deprecated"),
+    ENCLOSING_METHOD("EnclosingMethod"),
+    EXCEPTIONS("Exceptions"),
+    INNER_CLASSES("InnerClasses"),
+    LINE_NUMBER_TABLE("LineNumberTable"),
+    LOCAL_VARIABLE_TABLE("LocalVariableTable"),
+    LOCAL_VARIABLE_TYPE_TABLE("LocalVariableTypeTable"),
+    RUNTIME_INVISIBLE_ANNOTATIONS("RuntimeInvisibleAnnotations"),
+    RUNTIME_INVISIBLE_PARAMETER_ANNOTATIONS("RuntimeInvisibleParameterAnnotations"),
+    RUNTIME_VISIBLE_ANNOTATIONS("RuntimeVisibleAnnotations"),
+    RUNTIME_VISIBLE_PARAMETER_ANNOTATIONS("RuntimeVisibleParameterAnnotations"),
+    SIGNATURE("Signature"),
+    SOURCE_DEBUG_EXTENSION("SourceDebugExtension"),
+    SOURCE_FILE("SourceFile"),
+    STACK_MAP_TABLE("StackMapTable"),
+    SYNTHETIC("Synthetic"),
+    UNKNOWN(null);
+
+    private static final Map<String, AttributeType> BY_NAME = new HashMap<>();
+
+    static {
+        for (AttributeType type : values()) {
+            if (type.name != null) {
+                BY_NAME.put(type.name, type);
+            }
+        }
+    }
+
+    private final String name;
+
+    AttributeType(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Gets the name of this attribute as it appears in the class file, or null
+     * for {@link #UNKNOWN}.
+     */
+    public String getAttributeName() {
+        return this.name;
+    }
+
+    /**
+     * Gets the attribute type for the given attribute name. Names which are not
+     * recognized map to {@link #UNKNOWN}.
+     */
+    public static AttributeType of(String name) {
+        AttributeType type = BY_NAME.get(name);
+        return type == null ? UNKNOWN : type;
+    }
+
+}
@@ -28,22 +28,15 @@ import org.spongepowered.despector.ast.Locals;
 import org.spongepowered.despector.ast.generic.ClassTypeSignature;
 import org.spongepowered.despector.ast.generic.MethodSignature;
 import org.spongepowered.despector.ast.stmt.invoke.InstanceMethodInvoke;
+import org.spongepowered.despector.config.LibraryConfiguration;
 import org.spongepowered.despector.decompiler.BaseDecompiler.BootstrapMethod;
 import org.spongepowered.despector.decompiler.error.SourceFormatException;
-import org.spongepowered.despector.decompiler.ir.DoubleInsn;
 import org.spongepowered.despector.decompiler.ir.FieldInsn;
-import org.spongepowered.despector.decompiler.ir.FloatInsn;
 import org.spongepowered.despector.decompiler.ir.Insn;
 import org.spongepowered.despector.decompiler.ir.InsnBlock;
-import org.spongepowered.despector.decompiler.ir.IntInsn;
 import org.spongepowered.despector.decompiler.ir.InvokeDynamicInsn;
 import org.spongepowered.despector.decompiler.ir.InvokeInsn;
-import org.spongepowered.despector.decompiler.ir.JumpInsn;
-import org.spongepowered.despector.decompiler.ir.LdcInsn;
-import org.spongepowered.despector.decompiler.ir.LongInsn;
-import org.spongepowered.despector.decompiler.ir.OpInsn;
 import org.spongepowered.despector.decompiler.ir.SwitchInsn;
-import org.spongepowered.despector.decompiler.ir.TypeInsn;
 import org.spongepowered.despector.decompiler.ir.TypeIntInsn;
 import org.spongepowered.despector.decompiler.ir.VarIntInsn;
 import org.spongepowered.despector.decompiler.loader.ClassConstantPool.ClassEntry;
@@ -58,8 +51,10 @@ import org.spongepowered.despector.decompiler.loader.ClassConstantPool.MethodHan
 import org.spongepowered.despector.decompiler.loader.ClassConstantPool.MethodRefEntry;
 import org.spongepowered.despector.decompiler.loader.ClassConstantPool.StringEntry;
 import org.spongepowered.despector.decompiler.method.PartialMethod.TryCatchRegion;
+import org.spongepowered.despector.util.SymbolTable;
 
-import java.util.ArrayList;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -70,117 +65,121 @@ public class BytecodeTranslator {
 
     }
 
-    public InsnBlock createIR(MethodSignature methodSignature, byte[] code, Locals locals, List<TryCatchRegion> catch_regions, ClassConstantPool pool,
+    public InsnBlock createIR(MethodSignature methodSignature, ByteBuffer code, Locals locals, List<TryCatchRegion> catch_regions, ClassConstantPool pool,
             List<BootstrapMethod> bootstrap_methods) {
-        InsnBlock block = new InsnBlock();
-        List<Integer> insn_starts = new ArrayList<>();
+        SymbolTable symbols = pool.getSymbolTable();
+        InsnBlock block = new InsnBlock(LibraryConfiguration.compact_ir);
+        // the bytecode offset of each instruction, a bytecode instruction is
+        // translated to at most two instructions
+        int[] insn_starts = new int[code.limit() * 2];
+        int insn_count = 0;
 
-        for (int i = 0; i < code.length;) {
+        for (int i = 0; i < code.limit();) {
             int opcode_index = i;
-            insn_starts.add(opcode_index);
-            int next = code[i++] & 0xFF;
+            insn_starts[insn_count++] = opcode_index;
+            int next = code.get(i++) & 0xFF;
             switch (next) {
             case 0: // NOP
-                block.append(new OpInsn(Insn.NOOP));
+                block.appendOp(Insn.NOOP);
                 break;
             case 1: // ACONST_NULL
-                block.append(new LdcInsn(Insn.PUSH, null));
+                block.appendConstant(Insn.PUSH, null);
                 break;
             case 2: // ICONST_M1
-                block.append(new IntInsn(Insn.ICONST, -1));
+                block.appendInt(Insn.ICONST, -1);
                 break;
             case 3: // ICONST_0
-                block.append(new IntInsn(Insn.ICONST, 0));
+                block.appendInt(Insn.ICONST, 0);
                 break;
             case 4: // ICONST_1
-                block.append(new IntInsn(Insn.ICONST, 1));
+                block.appendInt(Insn.ICONST, 1);
                 break;
             case 5: // ICONST_2
-                block.append(new IntInsn(Insn.ICONST, 2));
+                block.appendInt(Insn.ICONST, 2);
                 break;
             case 6: // ICONST_3
-                block.append(new IntInsn(Insn.ICONST, 3));
+                block.appendInt(Insn.ICONST, 3);
                 break;
             case 7: // ICONST_4
-                block.append(new IntInsn(Insn.ICONST, 4));
+                block.appendInt(Insn.ICONST, 4);
                 break;
             case 8: // ICONST_5
-                block.append(new IntInsn(Insn.ICONST, 5));
+                block.appendInt(Insn.ICONST, 5);
                 break;
             case 9: // LCONST_0
-                block.append(new LongInsn(Insn.LCONST, 0));
+                block.appendLong(Insn.LCONST, 0);
                 break;
             case 10: // LCONST_1
-                block.append(new LongInsn(Insn.LCONST, 1));
+                block.appendLong(Insn.LCONST, 1);
                 break;
             case 11: // FCONST_0
-                block.append(new FloatInsn(Insn.FCONST, 0));
+                block.appendFloat(Insn.FCONST, 0);
                 break;
             case 12: // FCONST_1
-                block.append(new FloatInsn(Insn.FCONST, 1));
+                block.appendFloat(Insn.FCONST, 1);
                 break;
             case 13: // FCONST_2
-                block.append(new FloatInsn(Insn.FCONST, 2));
+                block.appendFloat(Insn.FCONST, 2);
                 break;
             case 14: // DCONST_0
-                block.append(new DoubleInsn(Insn.DCONST, 0));
+                block.appendDouble(Insn.DCONST, 0);
                 break;
             case 15: // DCONST_1
-                block.append(new DoubleInsn(Insn.DCONST, 1));
+                block.appendDouble(Insn.DCONST, 1);
                 break;
             case 16: {// BIPUSH
-                int val = code[i++];
-                block.append(new IntInsn(Insn.ICONST, val));
+                int val = code.get(i++);
+                block.appendInt(Insn.ICONST, val);
                 break;
             }
             case 17: {// SIPUSH
-                short val = (short) (((code[i++] & 0xFF) << 8) | (code[i++] & 0xFF));
-                block.append(new IntInsn(Insn.ICONST, val));
+                short val = (short) (((code.get(i++) & 0xFF) << 8) | (code.get(i++) & 0xFF));
+                block.appendInt(Insn.ICONST, val);
                 break;
             }
             case 18: {// LDC
-                int index = code[i++] & 0xFF;
+                int index = code.get(i++) & 0xFF;
                 Entry entry = pool.getEntry(index);
                 if (entry instanceof IntEntry) {
-                    block.append(new IntInsn(Insn.ICONST, ((IntEntry) entry).value));
+                    block.appendInt(Insn.ICONST, ((IntEntry) entry).value);
                 } else if (entry instanceof FloatEntry) {
-                    block.append(new FloatInsn(Insn.FCONST, ((FloatEntry) entry).value));
+                    block.appendFloat(Insn.FCONST, ((FloatEntry) entry).value);
                 } else if (entry instanceof StringEntry) {
-                    block.append(new LdcInsn(Insn.PUSH, ((StringEntry) entry).value));
+                    block.appendConstant(Insn.PUSH, ((StringEntry) entry).value);
                 } else if (entry instanceof ClassEntry) {
                     String type = ((ClassEntry) entry).name;
                     if (!type.startsWith("[")) {
-                        type = "L" + type + ";";
+                        type = symbols.intern("L" + type + ";");
                     }
-                    block.append(new LdcInsn(Insn.PUSH, ClassTypeSignature.of(type)));
+                    block.appendConstant(Insn.PUSH, ClassTypeSignature.of(type));
                 } else {
                     throw new IllegalStateException("Unsupported constant pool entry type in LDC node " + entry.getClass().getSimpleName());
                 }
                 break;
             }
             case 19: {// LDC_W
-                int index = ((code[i++] & 0xFF) << 8) | (code[i++] & 0xFF);
+                int index = ((code.get(i++) & 0xFF) << 8) | (code.get(i++) & 0xFF);
                 Entry entry = pool.getEntry(index);
                 if (entry instanceof IntEntry) {
-                    block.append(new IntInsn(Insn.ICONST, ((IntEntry) entry).value));
+                    block.appendInt(Insn.ICONST, ((IntEntry) entry).value);
                 } else if (entry instanceof FloatEntry) {
-                    block.append(new FloatInsn(Insn.FCONST, ((FloatEntry) entry).value));
+                    block.appendFloat(Insn.FCONST, ((FloatEntry) entry).value);
                 } else if (entry instanceof StringEntry) {
-                    block.append(new LdcInsn(Insn.PUSH, ((StringEntry) entry).value));
+                    block.appendConstant(Insn.PUSH, ((StringEntry) entry).value);
                 } else if (entry instanceof ClassEntry) {
-                    block.append(new LdcInsn(Insn.PUSH, ClassTypeSignature.of("L" + ((ClassEntry) entry).name + ";")));
+                    block.appendConstant(Insn.PUSH, ClassTypeSignature.of(symbols.intern("L" + ((ClassEntry) entry).name + ";")));
                 } else {
                     throw new IllegalStateException("Unsupported constant pool entry type in LDC node " + entry.getClass().getSimpleName());
                 }
                 break;
             }
             case 20: {// LDC2_W
-                int index = ((code[i++] & 0xFF) << 8) | (code[i++] & 0xFF);
+                int index = ((code.get(i++) & 0xFF) << 8) | (code.get(i++) & 0xFF);
                 Entry entry = pool.getEntry(index);
                 if (entry instanceof LongEntry) {
-                    block.append(new LongInsn(Insn.LCONST, ((LongEntry) entry).value));
+                    block.appendLong(Insn.LCONST, ((LongEntry) entry).value);
                 } else if (entry instanceof DoubleEntry) {
-                    block.append(new DoubleInsn(Insn.DCONST, ((DoubleEntry) entry).value));
+                    block.appendDouble(Insn.DCONST, ((DoubleEntry) entry).value);
                 } else {
                     throw new IllegalStateException("Unsupported constant pool entry type in LDC node " + entry.getClass().getSimpleName());
                 }
@@ -191,8 +190,8 @@ public class BytecodeTranslator {
             case 23: // FLOAD
             case 24: // DLOAD
             case 25: { // ALOAD
-                int val = code[i++] & 0xFF;
-                block.append(new IntInsn(Insn.LOCAL_LOAD, val));
+                int val = code.get(i++) & 0xFF;
+                block.appendInt(Insn.LOCAL_LOAD, val);
                 break;
             }
             case 26: // ILOAD_0
@@ -200,28 +199,28 @@ public class BytecodeTranslator {
             case 34: // FLOAD_0
             case 38: // DLOAD_0
             case 42: // ALOAD_0
-                block.append(new IntInsn(Insn.LOCAL_LOAD, 0));
+                block.appendInt(Insn.LOCAL_LOAD, 0);
                 break;
             case 27: // ILOAD_1
             case 31: // LLOAD_1
             case 35: // FLOAD_1
             case 39: // DLOAD_1
             case 43: // ALOAD_1
-                block.append(new IntInsn(Insn.LOCAL_LOAD, 1));
+                block.appendInt(Insn.LOCAL_LOAD, 1);
                 break;
             case 28: // ILOAD_2
             case 32: // LLOAD_2
             case 36: // FLOAD_2
             case 40: // DLOAD_2
             case 44: // ALOAD_2
-                block.append(new IntInsn(Insn.LOCAL_LOAD, 2));
+                block.appendInt(Insn.LOCAL_LOAD, 2);
                 break;
             case 29: // ILOAD_3
             case 33: // LLOAD_3
             case 37: // FLOAD_3
             case 41: // DLOAD_3
             case 45: // ALOAD_3
-                block.append(new IntInsn(Insn.LOCAL_LOAD, 3));
+                block.appendInt(Insn.LOCAL_LOAD, 3);
                 break;
             case 46: // IALOAD
             case 47: // LALOAD
@@ -231,19 +230,19 @@ public class BytecodeTranslator {
             case 51: // BALOAD
             case 52: // CALOAD
             case 53: // SALOAD
-                block.append(new OpInsn(Insn.ARRAY_LOAD));
+                block.appendOp(Insn.ARRAY_LOAD);
                 break;
             case 54: { // ISTORE
-                int local = code[i++] & 0xFF;
-                block.append(new IntInsn(Insn.LOCAL_STORE, local));
+                int local = code.get(i++) & 0xFF;
+                block.appendInt(Insn.LOCAL_STORE, local);
                 break;
             }
             case 55: // LSTORE
             case 56: // FSTORE
             case 57: // DSTORE
             case 58: { // ASTORE
-                int val = code[i++] & 0xFF;
-                block.append(new IntInsn(Insn.LOCAL_STORE, val));
+                int val = code.get(i++) & 0xFF;
+                block.appendInt(Insn.LOCAL_STORE, val);
                 break;
             }
             case 59: // ISTORE_0
@@ -251,28 +250,28 @@ public class BytecodeTranslator {
             case 67: // FSTORE_0
             case 71: // DSTORE_0
             case 75: // ASTORE_0
-                block.append(new IntInsn(Insn.LOCAL_STORE, 0));
+                block.appendInt(Insn.LOCAL_STORE, 0);
                 break;
             case 60: // ISTORE_1
             case 64: // LSTORE_1
             case 68: // FSTORE_1
             case 72: // DSTORE_1
             case 76: // ASTORE_1
-                block.append(new IntInsn(Insn.LOCAL_STORE, 1));
+                block.appendInt(Insn.LOCAL_STORE, 1);
                 break;
             case 61: // ISTORE_2
             case 65: // LSTORE_2
             case 69: // FSTORE_2
             case 73: // DSTORE_2
             case 77: // ASTORE_2
-                block.append(new IntInsn(Insn.LOCAL_STORE, 2));
+                block.appendInt(Insn.LOCAL_STORE, 2);
                 break;
             case 62: // ISTORE_3
             case 66: // LSTORE_3
             case 70: // FSTORE_3
             case 74: // DSTORE_3
             case 78: // ASTORE_3
-                block.append(new IntInsn(Insn.LOCAL_STORE, 3));
+                block.appendInt(Insn.LOCAL_STORE, 3);
                 break;
             case 79: // IASTORE
             case 80: // LASTORE
@@ -282,220 +281,220 @@ public class BytecodeTranslator {
             case 84: // BASTORE
             case 85: // CASTORE
             case 86: // SASTORE
-                block.append(new OpInsn(Insn.ARRAY_STORE));
+                block.appendOp(Insn.ARRAY_STORE);
                 break;
             case 87: // POP
-                block.append(new OpInsn(Insn.POP));
+                block.appendOp(Insn.POP);
                 break;
             case 88: // POP2
-                block.append(new OpInsn(Insn.POP));
-                insn_starts.add(opcode_index);
-                block.append(new OpInsn(Insn.POP));
+                block.appendOp(Insn.POP);
+                insn_starts[insn_count++] = opcode_index;
+                block.appendOp(Insn.POP);
                 break;
             case 89: // DUP
-                block.append(new OpInsn(Insn.DUP));
+                block.appendOp(Insn.DUP);
                 break;
             case 90: // DUP_X1
-                block.append(new OpInsn(Insn.DUP_X1));
+                block.appendOp(Insn.DUP_X1);
                 break;
             case 91: // DUP_X2
-                block.append(new OpInsn(Insn.DUP_X2));
+                block.appendOp(Insn.DUP_X2);
                 break;
             case 92: // DUP2
-                block.append(new OpInsn(Insn.DUP2));
+                block.appendOp(Insn.DUP2);
                 break;
             case 93: // DUP2_X1
-                block.append(new OpInsn(Insn.DUP2_X1));
+                block.appendOp(Insn.DUP2_X1);
                 break;
             case 94: // DUP2_X2
-                block.append(new OpInsn(Insn.DUP2_X2));
+                block.appendOp(Insn.DUP2_X2);
                 break;
             case 95: // SWAP
-                block.append(new OpInsn(Insn.SWAP));
+                block.appendOp(Insn.SWAP);
                 break;
             case 96: // IADD
             case 97: // LADD
             case 98: // FADD
             case 99: // DADD
-                block.append(new OpInsn(Insn.ADD));
+                block.appendOp(Insn.ADD);
                 break;
             case 100: // ISUB
             case 101: // LSUB
             case 102: // FSUB
             case 103: // DSUB
-                block.append(new OpInsn(Insn.SUB));
+                block.appendOp(Insn.SUB);
                 break;
             case 104: // IMUL
             case 105: // LMUL
             case 106: // FMUL
             case 107: // DMUL
-                block.append(new OpInsn(Insn.MUL));
+                block.appendOp(Insn.MUL);
                 break;
             case 108: // IDIV
             case 109: // LDIV
             case 110: // FDIV
             case 111: // DDIV
-                block.append(new OpInsn(Insn.DIV));
+                block.appendOp(Insn.DIV);
                 break;
             case 112: // IREM
             case 113: // LREM
             case 114: // FREM
             case 115: // DREM
-                block.append(new OpInsn(Insn.REM));
+                block.appendOp(Insn.REM);
                 break;
             case 116: // INEG
             case 117: // LNEG
             case 118: // FNEG
             case 119: // DNEG
-                block.append(new OpInsn(Insn.NEG));
+                block.appendOp(Insn.NEG);
                 break;
             case 120: // ISHL
             case 121: // LSHL
-                block.append(new OpInsn(Insn.SHL));
+                block.appendOp(Insn.SHL);
                 break;
             case 122: // ISHR
             case 123: // LSHR
-                block.append(new OpInsn(Insn.SHR));
+                block.appendOp(Insn.SHR);
                 break;
             case 124: // IUSHR
             case 125: // LUSHR
-                block.append(new OpInsn(Insn.USHR));
+                block.appendOp(Insn.USHR);
                 break;
             case 126: // IAND
             case 127: // LAND
-                block.append(new OpInsn(Insn.AND));
+                block.appendOp(Insn.AND);
                 break;
             case 128: // IOR
             case 129: // LOR
-                block.append(new OpInsn(Insn.OR));
+                block.appendOp(Insn.OR);
                 break;
             case 130: // IXOR
             case 131: // LXOR
-                block.append(new OpInsn(Insn.XOR));
+                block.appendOp(Insn.XOR);
                 break;
             case 132: {// IINC
-                int local = code[i++] & 0xFF;
-                int incr = code[i++];
+                int local = code.get(i++) & 0xFF;
+                int incr = code.get(i++);
                 block.append(new VarIntInsn(Insn.IINC, local, incr));
                 break;
             }
             case 136: // L2I
             case 139: // F2I
             case 142: // D2I
-                block.append(new TypeInsn(Insn.CAST, "I"));
+                block.appendType(Insn.CAST, "I");
                 break;
             case 133: // I2L
             case 140: // F2L
             case 143: // D2L
-                block.append(new TypeInsn(Insn.CAST, "J"));
+                block.appendType(Insn.CAST, "J");
                 break;
             case 134: // I2F
             case 137: // L2F
             case 144: // D2F
-                block.append(new TypeInsn(Insn.CAST, "F"));
+                block.appendType(Insn.CAST, "F");
                 break;
             case 135: // I2D
             case 138: // L2D
             case 141: // F2D
-                block.append(new TypeInsn(Insn.CAST, "D"));
+                block.appendType(Insn.CAST, "D");
                 break;
             case 145: // I2B
-                block.append(new TypeInsn(Insn.CAST, "B"));
+                block.appendType(Insn.CAST, "B");
                 break;
             case 146: // I2C
-                block.append(new TypeInsn(Insn.CAST, "C"));
+                block.appendType(Insn.CAST, "C");
                 break;
             case 147: // I2S
-                block.append(new TypeInsn(Insn.CAST, "S"));
+                block.appendType(Insn.CAST, "S");
                 break;
             case 148: // LCMP
             case 149: // FCMPL
             case 150: // FCMPG
             case 151: // DCMPL
             case 152: // DCMPG
-                block.append(new OpInsn(Insn.CMP));
+                block.appendOp(Insn.CMP);
                 break;
             case 153: {// IFEQ
-                short index = (short) (((code[i++] & 0xFF) << 8) | (code[i++] & 0xFF));
-                block.append(new JumpInsn(Insn.IFEQ, opcode_index + index));
+                short index = (short) (((code.get(i++) & 0xFF) << 8) | (code.get(i++) & 0xFF));
+                block.appendJump(Insn.IFEQ, opcode_index + index);
                 break;
             }
             case 154: {// IFNE
-                short index = (short) (((code[i++] & 0xFF) << 8) | (code[i++] & 0xFF));
-                block.append(new JumpInsn(Insn.IFNE, opcode_index + index));
+                short index = (short) (((code.get(i++) & 0xFF) << 8) | (code.get(i++) & 0xFF));
+                block.appendJump(Insn.IFNE, opcode_index + index);
                 break;
             }
             case 155: {// IFLT
-                block.append(new IntInsn(Insn.ICONST, 0));
-                insn_starts.add(opcode_index);
-                short index = (short) (((code[i++] & 0xFF) << 8) | (code[i++] & 0xFF));
-                block.append(new JumpInsn(Insn.IF_CMPLT, opcode_index + index));
+                block.appendInt(Insn.ICONST, 0);
+                insn_starts[insn_count++] = opcode_index;
+                short index = (short) (((code.get(i++) & 0xFF) << 8) | (code.get(i++) & 0xFF));
+                block.appendJump(Insn.IF_CMPLT, opcode_index + index);
                 break;
             }
             case 156: {// IFGE
-                block.append(new IntInsn(Insn.ICONST, 0));
-                insn_starts.add(opcode_index);
-                short index = (short) (((code[i++] & 0xFF) << 8) | (code[i++] & 0xFF));
-                block.append(new JumpInsn(Insn.IF_CMPGE, opcode_index + index));
+                block.appendInt(Insn.ICONST, 0);
+                insn_starts[insn_count++] = opcode_index;
+                short index = (short) (((code.get(i++) & 0xFF) << 8) | (code.get(i++) & 0xFF));
+                block.appendJump(Insn.IF_CMPGE, opcode_index + index);
                 break;
             }
             case 157: {// IFGT
-                block.append(new IntInsn(Insn.ICONST, 0));
-                insn_starts.add(opcode_index);
-                short index = (short) (((code[i++] & 0xFF) << 8) | (code[i++] & 0xFF));
-                block.append(new JumpInsn(Insn.IF_CMPGT, opcode_index + index));
+                block.appendInt(Insn.ICONST, 0);
+                insn_starts[insn_count++] = opcode_index;
+                short index = (short) (((code.get(i++) & 0xFF) << 8) | (code.get(i++) & 0xFF));
+                block.appendJump(Insn.IF_CMPGT, opcode_index + index);
                 break;
             }
             case 158: {// IFLE
-                block.append(new IntInsn(Insn.ICONST, 0));
-                insn_starts.add(opcode_index);
-                short index = (short) (((code[i++] & 0xFF) << 8) | (code[i++] & 0xFF));
-                block.append(new JumpInsn(Insn.IF_CMPLE, opcode_index + index));
+                block.appendInt(Insn.ICONST, 0);
+                insn_starts[insn_count++] = opcode_index;
+                short index = (short) (((code.get(i++) & 0xFF) << 8) | (code.get(i++) & 0xFF));
+                block.appendJump(Insn.IF_CMPLE, opcode_index + index);
                 break;
             }
             case 159: {// IF_ICMPEQ
-                short index = (short) (((code[i++] & 0xFF) << 8) | (code[i++] & 0xFF));
-                block.append(new JumpInsn(Insn.IF_CMPEQ, opcode_index + index));
+                short index = (short) (((code.get(i++) & 0xFF) << 8) | (code.get(i++) & 0xFF));
+                block.appendJump(Insn.IF_CMPEQ, opcode_index + index);
                 break;
             }
             case 160: {// IF_ICMPNE
-                short index = (short) (((code[i++] & 0xFF) << 8) | (code[i++] & 0xFF));
-                block.append(new JumpInsn(Insn.IF_CMPNE, opcode_index + index));
+                short index = (short) (((code.get(i++) & 0xFF) << 8) | (code.get(i++) & 0xFF));
+                block.appendJump(Insn.IF_CMPNE, opcode_index + index);
                 break;
             }
             case 161: {// IF_ICMPLT
-                short index = (short) (((code[i++] & 0xFF) << 8) | (code[i++] & 0xFF));
-                block.append(new JumpInsn(Insn.IF_CMPLT, opcode_index + index));
+                short index = (short) (((code.get(i++) & 0xFF) << 8) | (code.get(i++) & 0xFF));
+                block.appendJump(Insn.IF_CMPLT, opcode_index + index);
                 break;
             }
             case 162: {// IF_ICMPGE
-                short index = (short) (((code[i++] & 0xFF) << 8) | (code[i++] & 0xFF));
-                block.append(new JumpInsn(Insn.IF_CMPGE, opcode_index + index));
+                short index = (short) (((code.get(i++) & 0xFF) << 8) | (code.get(i++) & 0xFF));
+                block.appendJump(Insn.IF_CMPGE, opcode_index + index);
                 break;
             }
             case 163: {// IF_ICMPGT
-                short index = (short) (((code[i++] & 0xFF) << 8) | (code[i++] & 0xFF));
-                block.append(new JumpInsn(Insn.IF_CMPGT, opcode_index + index));
+                short index = (short) (((code.get(i++) & 0xFF) << 8) | (code.get(i++) & 0xFF));
+                block.appendJump(Insn.IF_CMPGT, opcode_index + index);
                 break;
             }
             case 164: {// IF_ICMPLE
-                short index = (short) (((code[i++] & 0xFF) << 8) | (code[i++] & 0xFF));
-                block.append(new JumpInsn(Insn.IF_CMPLE, opcode_index + index));
+                short index = (short) (((code.get(i++) & 0xFF) << 8) | (code.get(i++) & 0xFF));
+                block.appendJump(Insn.IF_CMPLE, opcode_index + index);
                 break;
             }
             case 165: {// IF_ACMPEQ
-                short index = (short) (((code[i++] & 0xFF) << 8) | (code[i++] & 0xFF));
-                block.append(new JumpInsn(Insn.IF_CMPEQ, opcode_index + index));
+                short index = (short) (((code.get(i++) & 0xFF) << 8) | (code.get(i++) & 0xFF));
+                block.appendJump(Insn.IF_CMPEQ, opcode_index + index);
                 break;
             }
             case 166: {// IF_ACMPNE
-                short index = (short) (((code[i++] & 0xFF) << 8) | (code[i++] & 0xFF));
-                block.append(new JumpInsn(Insn.IF_CMPNE, opcode_index + index));
+                short index = (short) (((code.get(i++) & 0xFF) << 8) | (code.get(i++) & 0xFF));
+                block.appendJump(Insn.IF_CMPNE, opcode_index + index);
                 break;
             }
             case 167: {// GOTO
-                short index = (short) (((code[i++] & 0xFF) << 8) | (code[i++] & 0xFF));
-                block.append(new JumpInsn(Insn.GOTO, opcode_index + index));
+                short index = (short) (((code.get(i++) & 0xFF) << 8) | (code.get(i++) & 0xFF));
+                block.appendJump(Insn.GOTO, opcode_index + index);
                 break;
             }
             case 168: // JSR
@@ -505,15 +504,15 @@ public class BytecodeTranslator {
                 while (i % 4 != 0) {
                     i++;
                 }
-                int def = opcode_index + readInt(code, i);
+                int def = opcode_index + code.getInt(i);
                 i += 4;
-                int low = readInt(code, i);
+                int low = code.getInt(i);
                 i += 4;
-                int high = readInt(code, i);
+                int high = code.getInt(i);
                 i += 4;
                 Map<Integer, Integer> targets = new HashMap<>();
                 for (int j = 0; j < high - low + 1; j++) {
-                    targets.put(low + j, opcode_index + readInt(code, i));
+                    targets.put(low + j, opcode_index + code.getInt(i));
                     i += 4;
                 }
                 block.append(new SwitchInsn(Insn.SWITCH, targets, def));
@@ -523,15 +522,15 @@ public class BytecodeTranslator {
                 while (i % 4 != 0) {
                     i++;
                 }
-                int def = opcode_index + readInt(code, i);
+                int def = opcode_index + code.getInt(i);
                 i += 4;
-                int npairs = readInt(code, i);
+                int npairs = code.getInt(i);
                 i += 4;
                 Map<Integer, Integer> targets = new HashMap<>();
                 for (int j = 0; j < npairs; j++) {
-                    int key = readInt(code, i);
+                    int key = code.getInt(i);
                     i += 4;
-                    targets.put(key, opcode_index + readInt(code, i));
+                    targets.put(key, opcode_index + code.getInt(i));
                     i += 4;
                 }
                 block.append(new SwitchInsn(Insn.SWITCH, targets, def));
@@ -542,51 +541,51 @@ public class BytecodeTranslator {
             case 174: // FRETURN
             case 175: // DRETURN
             case 176: // ARETURN
-                block.append(new OpInsn(Insn.ARETURN));
+                block.appendOp(Insn.ARETURN);
                 break;
             case 177: // RETURN
-                block.append(new OpInsn(Insn.RETURN));
+                block.appendOp(Insn.RETURN);
                 break;
             case 178: { // GETSTATIC
-                int index = ((code[i++] & 0xFF) << 8) | (code[i++] & 0xFF);
+                int index = ((code.get(i++) & 0xFF) << 8) | (code.get(i++) & 0xFF);
                 FieldRefEntry ref = pool.getFieldRef(index);
                 block.append(new FieldInsn(Insn.GETSTATIC, ref.cls, ref.name, ref.type_name));
                 break;
             }
             case 179: { // PUTSTATIC
-                int index = ((code[i++] & 0xFF) << 8) | (code[i++] & 0xFF);
+                int index = ((code.get(i++) & 0xFF) << 8) | (code.get(i++) & 0xFF);
                 FieldRefEntry ref = pool.getFieldRef(index);
                 block.append(new FieldInsn(Insn.PUTSTATIC, ref.cls, ref.name, ref.type_name));
                 break;
             }
             case 180: { // GETFIELD
-                int index = ((code[i++] & 0xFF) << 8) | (code[i++] & 0xFF);
+                int index = ((code.get(i++) & 0xFF) << 8) | (code.get(i++) & 0xFF);
                 FieldRefEntry ref = pool.getFieldRef(index);
                 block.append(new FieldInsn(Insn.GETFIELD, ref.cls, ref.name, ref.type_name));
                 break;
             }
             case 181: { // PUTFIELD
-                int index = ((code[i++] & 0xFF) << 8) | (code[i++] & 0xFF);
+                int index = ((code.get(i++) & 0xFF) << 8) | (code.get(i++) & 0xFF);
                 FieldRefEntry ref = pool.getFieldRef(index);
                 block.append(new FieldInsn(Insn.PUTFIELD, ref.cls, ref.name, ref.type_name));
                 break;
             }
             case 182: // INVOKEVIRTUAL
             case 183: { // INVOKESPECIAL
-                int index = ((code[i++] & 0xFF) << 8) | (code[i++] & 0xFF);
+                int index = ((code.get(i++) & 0xFF) << 8) | (code.get(i++) & 0xFF);
                 MethodRefEntry ref = pool.getMethodRef(index);
                 InstanceMethodInvoke.Type t = next == 182 ? InstanceMethodInvoke.Type.VIRTUAL : InstanceMethodInvoke.Type.SPECIAL;
                 block.append(new InvokeInsn(Insn.INVOKE, t, ref.cls, ref.name, ref.type_name));
                 break;
             }
             case 184: { // INVOKESTATIC
-                int index = ((code[i++] & 0xFF) << 8) | (code[i++] & 0xFF);
+                int index = ((code.get(i++) & 0xFF) << 8) | (code.get(i++) & 0xFF);
                 MethodRefEntry ref = pool.getMethodRef(index);
                 block.append(new InvokeInsn(Insn.INVOKESTATIC, InstanceMethodInvoke.Type.STATIC, ref.cls, ref.name, ref.type_name));
                 break;
             }
             case 185: {// INVOKEINTERFACE
-                int index = ((code[i++] & 0xFF) << 8) | (code[i++] & 0xFF);
+                int index = ((code.get(i++) & 0xFF) << 8) | (code.get(i++) & 0xFF);
                 // skip count and constant 0 (historical)
                 i += 2;
                 MethodRefEntry ref = pool.getInterfaceMethodRef(index);
@@ -594,26 +593,26 @@ public class BytecodeTranslator {
                 break;
             }
             case 186: {// INVOKEDYNAMIC
-                int index = ((code[i++] & 0xFF) << 8) | (code[i++] & 0xFF);
+                int index = ((code.get(i++) & 0xFF) << 8) | (code.get(i++) & 0xFF);
                 // skip constant 0 (historical)
                 i += 2;
                 InvokeDynamicEntry handle = pool.getInvokeDynamic(index);
                 BootstrapMethod bsm = bootstrap_methods.get(handle.bootstrap_index);
                 MethodRefEntry bsmArg = pool.getMethodRef(((MethodHandleEntry) bsm.arguments[1]).reference_index);
-                block.append(new InvokeDynamicInsn(Insn.INVOKEDYNAMIC, "L" + bsmArg.cls + ";", bsmArg.name, bsmArg.type_name, handle.name,
+                block.append(new InvokeDynamicInsn(Insn.INVOKEDYNAMIC, symbols.intern("L" + bsmArg.cls + ";"), bsmArg.name, bsmArg.type_name, handle.name,
                         handle.type_name,
                         bsmArg.type == ClassConstantPool.EntryType.INTERFACE_METHOD_REF));
                 break;
             }
             case 187: {// NEW
-                int index = ((code[i++] & 0xFF) << 8) | (code[i++] & 0xFF);
+                int index = ((code.get(i++) & 0xFF) << 8) | (code.get(i++) & 0xFF);
                 ClassEntry ref = pool.getClass(index);
-                block.append(new TypeInsn(Insn.NEW, "L" + ref.name + ";"));
+                block.appendType(Insn.NEW, symbols.intern("L" + ref.name + ";"));
                 break;
             }
             case 188: {// NEWARRAY
                 String type = null;
-                byte atype = code[i++];
+                byte atype = code.get(i++);
                 switch (atype) {
                 case 4: // T_BOOLEAN
                     type = "Z";
@@ -642,39 +641,39 @@ public class BytecodeTranslator {
                 default:
                     throw new SourceFormatException("Unsupported NEWARRAY type value: " + atype);
                 }
-                block.append(new TypeInsn(Insn.NEWARRAY, type));
+                block.appendType(Insn.NEWARRAY, type);
                 break;
             }
             case 189: {// ANEWARRAY
-                int index = ((code[i++] & 0xFF) << 8) | (code[i++] & 0xFF);
+                int index = ((code.get(i++) & 0xFF) << 8) | (code.get(i++) & 0xFF);
                 ClassEntry ref = pool.getClass(index);
                 String desc = ref.name;
                 if (!desc.startsWith("[") && (desc.length() > 1 || "BSIJFDCZ".indexOf(desc.charAt(0)) == -1)) {
-                    desc = "L" + desc + ";";
+                    desc = symbols.intern("L" + desc + ";");
                 }
-                block.append(new TypeInsn(Insn.NEWARRAY, desc));
+                block.appendType(Insn.NEWARRAY, desc);
                 break;
             }
             case 190: // ARRAYLENGTH
                 block.append(new FieldInsn(Insn.GETFIELD, "", "length", "I"));
                 break;
             case 191: // ATHROW
-                block.append(new OpInsn(Insn.THROW));
+                block.appendOp(Insn.THROW);
                 break;
             case 192: {// CHECKCAST
-                int index = ((code[i++] & 0xFF) << 8) | (code[i++] & 0xFF);
+                int index = ((code.get(i++) & 0xFF) << 8) | (code.get(i++) & 0xFF);
                 ClassEntry ref = pool.getClass(index);
                 String desc = ref.name;
                 if (!desc.startsWith("[")) {
-                    desc = "L" + desc + ";";
+                    desc = symbols.intern("L" + desc + ";");
                 }
-                block.append(new TypeInsn(Insn.CAST, desc));
+                block.appendType(Insn.CAST, desc);
                 break;
             }
             case 193: {// INSTANCEOF
-                int index = ((code[i++] & 0xFF) << 8) | (code[i++] & 0xFF);
+                int index = ((code.get(i++) & 0xFF) << 8) | (code.get(i++) & 0xFF);
                 ClassEntry ref = pool.getClass(index);
-                block.append(new TypeInsn(Insn.INSTANCEOF, "L" + ref.name + ";"));
+                block.appendType(Insn.INSTANCEOF, symbols.intern("L" + ref.name + ";"));
                 break;
             }
             case 194: // MONITORENTER
@@ -682,24 +681,24 @@ public class BytecodeTranslator {
             case 196: // WIDE
                 throw new SourceFormatException("Unsupported java opcode: " + next);
             case 197: {// MULTINEWARRAY
-                int index = ((code[i++] & 0xFF) << 8) | (code[i++] & 0xFF);
+                int index = ((code.get(i++) & 0xFF) << 8) | (code.get(i++) & 0xFF);
                 ClassEntry ref = pool.getClass(index);
-                int dims = code[i++] & 0xFF;
+                int dims = code.get(i++) & 0xFF;
                 block.append(new TypeIntInsn(Insn.MULTINEWARRAY, ref.name, dims));
                 break;
             }
             case 198: {// IFNULL
-                block.append(new LdcInsn(Insn.PUSH, null));
-                insn_starts.add(opcode_index);
-                short index = (short) (((code[i++] & 0xFF) << 8) | (code[i++] & 0xFF));
-                block.append(new JumpInsn(Insn.IF_CMPEQ, opcode_index + index));
+                block.appendConstant(Insn.PUSH, null);
+                insn_starts[insn_count++] = opcode_index;
+                short index = (short) (((code.get(i++) & 0xFF) << 8) | (code.get(i++) & 0xFF));
+                block.appendJump(Insn.IF_CMPEQ, opcode_index + index);
                 break;
             }
             case 199: {// IFNONNULL
-                block.append(new LdcInsn(Insn.PUSH, null));
-                insn_starts.add(opcode_index);
-                short index = (short) (((code[i++] & 0xFF) << 8) | (code[i++] & 0xFF));
-                block.append(new JumpInsn(Insn.IF_CMPNE, opcode_index + index));
+                block.appendConstant(Insn.PUSH, null);
+                insn_starts[insn_count++] = opcode_index;
+                short index = (short) (((code.get(i++) & 0xFF) << 8) | (code.get(i++) & 0xFF));
+                block.appendJump(Insn.IF_CMPNE, opcode_index + index);
                 break;
             }
             case 200: // GOTO_W
@@ -710,16 +709,18 @@ public class BytecodeTranslator {
             }
         }
 
-        for (Insn insn : block) {
-            if (insn instanceof JumpInsn) {
-                JumpInsn jump = (JumpInsn) insn;
-                jump.setTarget(insn_starts.indexOf(jump.getTarget()));
-            } else if (insn instanceof SwitchInsn) {
-                SwitchInsn sw = (SwitchInsn) insn;
-                sw.setDefault(insn_starts.indexOf(sw.getDefault()));
+        block.setOpcodeIndices(Arrays.copyOf(insn_starts, insn_count));
+
+        for (int i = 0; i < block.size(); i++) {
+            int op = block.getOpcode(i);
+            if (InsnBlock.isJump(op)) {
+                block.setJumpTarget(i, block.getInstructionIndex(block.getJumpTarget(i)));
+            } else if (op == Insn.SWITCH) {
+                SwitchInsn sw = (SwitchInsn) block.get(i);
+                sw.setDefault(block.getInstructionIndex(sw.getDefault()));
                 Map<Integer, Integer> new_targets = new HashMap<>();
                 for (Map.Entry<Integer, Integer> e : sw.getTargets().entrySet()) {
-                    new_targets.put(e.getKey(), insn_starts.indexOf(e.getValue()));
+                    new_targets.put(e.getKey(), block.getInstructionIndex(e.getValue()));
                 }
                 sw.getTargets().clear();
                 sw.getTargets().putAll(new_targets);
@@ -727,23 +728,15 @@ public class BytecodeTranslator {
         }
 
         for (TryCatchRegion region : catch_regions) {
-            int start_pc = insn_starts.indexOf(region.getStart());
-            int end_pc = insn_starts.indexOf(region.getEnd());
-            int catch_pc = insn_starts.indexOf(region.getCatch());
+            int start_pc = block.getInstructionIndex(region.getStart());
+            int end_pc = block.getInstructionIndex(region.getEnd());
+            int catch_pc = block.getInstructionIndex(region.getCatch());
             block.getCatchRegions().add(new TryCatchRegion(start_pc, end_pc, catch_pc, region.getException()));
         }
 
-        locals.bakeInstances(methodSignature, insn_starts);
+        locals.bakeInstances(methodSignature, block);
 
         return block;
     }
 
-    private int readInt(byte[] code, int i) {
-        int byte1 = code[i++] & 0xFF;
-        int byte2 = code[i++] & 0xFF;
-        int byte3 = code[i++] & 0xFF;
-        int byte4 = code[i++] & 0xFF;
-        return (byte1 << 24) | (byte2 << 16) | (byte3 << 8) | byte4;
-    }
-
 }
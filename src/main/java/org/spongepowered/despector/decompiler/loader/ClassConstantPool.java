@@ -26,302 +26,400 @@ package org.spongepowered.despector.decompiler.loader;
 
 import com.google.common.base.Charsets;
 import org.spongepowered.despector.decompiler.error.SourceFormatException;
+import org.spongepowered.despector.util.SymbolTable;
 
-import java.io.DataInputStream;
-import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
+/**
+ * The constant pool of a class file.
+ *
+ * <p>Loading the pool only records the tag and offset of every entry, entries
+ * are decoded from the class data the first time they are requested. Decoded
+ * utf8 values are cached and those used as class, member or descriptor names
+ * are interned through the pool's {@link SymbolTable}.
+ * Method bodies of a type may be decompiled concurrently so entries are
+ * published through an atomic array, strings are immutable and may be cached
+ * in a plain array.</p>
+ */
 public class ClassConstantPool {
 
     private static final boolean DUMP_CONSTANT_POOL = Boolean.getBoolean("despect.debug.jvm.dump_constant_pool");
+    private static final EntryType[] ENTRY_TYPES = EntryType.values();
 
-    private Entry[] values;
+    private final SymbolTable symbols;
+
+    private ByteBuffer data;
+    private byte[] tags;
+    private int[] offsets;
+    private String[] strings;
+    private String[] interned;
+    private AtomicReferenceArray<Entry> values;
+    private AttributeType[] attributes;
 
     public ClassConstantPool() {
+        this(new SymbolTable());
+    }
+
+    public ClassConstantPool(SymbolTable symbols) {
+        this.symbols = symbols;
+    }
+
+    /**
+     * Gets the symbol table that names decoded from this pool are interned
+     * into.
+     */
+    public SymbolTable getSymbolTable() {
+        return this.symbols;
     }
 
-    public void load(DataInputStream data) throws IOException {
-        int entry_count = data.readUnsignedShort();
+    public void load(ByteBuffer data) {
+        int entry_count = Short.toUnsignedInt(data.getShort());
 
-        this.values = new Entry[entry_count - 1];
+        this.data = data.duplicate();
+        this.tags = new byte[entry_count - 1];
+        this.offsets = new int[entry_count - 1];
+        this.strings = new String[entry_count - 1];
+        this.interned = new String[entry_count - 1];
+        this.values = new AtomicReferenceArray<>(entry_count - 1);
+        this.attributes = new AttributeType[entry_count - 1];
 
         for (int i = 0; i < entry_count - 1; i++) {
-            int tag = data.readUnsignedByte();
-            EntryType type = EntryType.values()[tag];
-            switch (type) {
-            case UTF8: {
-                Utf8Entry u = new Utf8Entry();
-                int len = data.readUnsignedShort();
-                byte[] bytes = new byte[len];
-                int offs = 0;
-                while (len > 0) {
-                    int read = data.read(bytes, offs, len);
-                    len -= read;
-                    offs += read;
-                }
-                u.value = new String(bytes, Charsets.UTF_8);
-                this.values[i] = u;
-                if (DUMP_CONSTANT_POOL) {
-                    System.out.println(i + ": Utf8 " + u.value);
-                }
-                break;
-            }
-            case INTEGER: {
-                IntEntry c = new IntEntry();
-                c.value = data.readInt();
-                this.values[i] = c;
-                if (DUMP_CONSTANT_POOL) {
-                    System.out.println(i + ": Int " + c.value);
-                }
-                break;
-            }
-            case FLOAT: {
-                FloatEntry c = new FloatEntry();
-                c.value = data.readFloat();
-                this.values[i] = c;
-                if (DUMP_CONSTANT_POOL) {
-                    System.out.println(i + ": Float " + c.value);
-                }
-                break;
-            }
-            case LONG: {
-                LongEntry c = new LongEntry();
-                long l = ((long) data.readInt() << 32);
-                l |= data.readInt();
-                c.value = l;
-                this.values[i] = c;
-                if (DUMP_CONSTANT_POOL) {
-                    System.out.println(i + ": Long " + c.value);
-                }
-                break;
-            }
-            case DOUBLE: {
-                DoubleEntry c = new DoubleEntry();
-                long l = ((long) data.readInt() << 32);
-                l |= data.readInt();
-                c.value = Double.longBitsToDouble(l);
-                this.values[i] = c;
-                if (DUMP_CONSTANT_POOL) {
-                    System.out.println(i + ": Double " + c.value);
-                }
-                break;
-            }
-            case CLASS: {
-                ClassEntry e = new ClassEntry();
-                e.name_index = data.readUnsignedShort();
-                this.values[i] = e;
-                if (DUMP_CONSTANT_POOL) {
-                    System.out.println(i + ": Class " + e.name_index);
-                }
-                break;
-            }
-            case STRING: {
-                StringEntry e = new StringEntry();
-                e.value_index = data.readUnsignedShort();
-                this.values[i] = e;
-                if (DUMP_CONSTANT_POOL) {
-                    System.out.println(i + ": String " + e.value_index);
-                }
-                break;
-            }
-            case FIELD_REF: {
-                FieldRefEntry f = new FieldRefEntry();
-                f.class_index = data.readUnsignedShort();
-                f.name_and_type_index = data.readUnsignedShort();
-                this.values[i] = f;
-                if (DUMP_CONSTANT_POOL) {
-                    System.out.println(i + ": FieldRef " + f.class_index + " " + f.name_and_type_index);
-                }
-                break;
-            }
-            case METHOD_REF: {
-                MethodRefEntry f = new MethodRefEntry();
-                f.class_index = data.readUnsignedShort();
-                f.name_and_type_index = data.readUnsignedShort();
-                this.values[i] = f;
-                if (DUMP_CONSTANT_POOL) {
-                    System.out.println(i + ": MethodRef " + f.class_index + " " + f.name_and_type_index);
-                }
-                break;
+            int tag = Byte.toUnsignedInt(data.get());
+            if (tag >= ENTRY_TYPES.length) {
+                throw new SourceFormatException("Illegal tag in constant pool");
             }
-            case INTERFACE_METHOD_REF: {
-                MethodRefEntry f = new MethodRefEntry();
-                f.class_index = data.readUnsignedShort();
-                f.name_and_type_index = data.readUnsignedShort();
-                this.values[i] = f;
-                if (DUMP_CONSTANT_POOL) {
-                    System.out.println(i + ": InterfaceMethodRef " + f.class_index + " " + f.name_and_type_index);
-                }
+            this.tags[i] = (byte) tag;
+            this.offsets[i] = data.position();
+            EntryType type = ENTRY_TYPES[tag];
+            switch (type) {
+            case UTF8:
+                data.position(data.position() + 2 + Short.toUnsignedInt(data.getShort(data.position())));
                 break;
-            }
-            case NAME_AND_TYPE: {
-                NameAndTypeEntry n = new NameAndTypeEntry();
-                n.name_index = data.readUnsignedShort();
-                n.type_index = data.readUnsignedShort();
-                this.values[i] = n;
-                if (DUMP_CONSTANT_POOL) {
-                    System.out.println(i + ": NameAndType " + n.name_index + " " + n.type_index);
-                }
+            case CLASS:
+            case STRING:
+            case METHOD_TYPE:
+                data.position(data.position() + 2);
                 break;
-            }
-            case METHOD_HANDLE: {
-                MethodHandleEntry h = new MethodHandleEntry();
-                h.kind = data.readByte();
-                h.reference_index = data.readUnsignedShort();
-                this.values[i] = h;
-                if (DUMP_CONSTANT_POOL) {
-                    System.out.println(i + ": MethodHandle " + h.kind + " " + h.reference_index);
-                }
+            case METHOD_HANDLE:
+                data.position(data.position() + 3);
                 break;
-            }
-            case METHOD_TYPE: {
-                MethodTypeEntry t = new MethodTypeEntry();
-                t.desc_index = data.readUnsignedShort();
-                this.values[i] = t;
-                if (DUMP_CONSTANT_POOL) {
-                    System.out.println(i + ": MethodType " + t.desc_index);
-                }
+            case INTEGER:
+            case FLOAT:
+            case FIELD_REF:
+            case METHOD_REF:
+            case INTERFACE_METHOD_REF:
+            case NAME_AND_TYPE:
+            case INVOKE_DYNAMIC:
+                data.position(data.position() + 4);
                 break;
-            }
-            case INVOKE_DYNAMIC: {
-                InvokeDynamicEntry d = new InvokeDynamicEntry();
-                d.bootstrap_index = data.readUnsignedShort();
-                d.name_and_type_index = data.readUnsignedShort();
-                this.values[i] = d;
-                if (DUMP_CONSTANT_POOL) {
-                    System.out.println(i + ": InvokeDynamic " + d.bootstrap_index + " " + d.name_and_type_index);
-                }
+            case LONG:
+            case DOUBLE:
+                data.position(data.position() + 8);
+                // longs and doubles take up two slots
+                i++;
                 break;
-            }
             default:
                 throw new SourceFormatException("Illegal tag in constant pool");
             }
-            this.values[i].type = type;
-            if (type == EntryType.LONG || type == EntryType.DOUBLE) {
-                i++;
-            }
         }
 
-        // bake references
-        for (int i = 0; i < entry_count - 1; i++) {
-            Entry e = this.values[i];
-            if (e == null) {
+        if (DUMP_CONSTANT_POOL) {
+            dump();
+        }
+    }
+
+    private void dump() {
+        for (int i = 0; i < this.tags.length; i++) {
+            EntryType type = ENTRY_TYPES[this.tags[i]];
+            if (type == EntryType._0) {
+                // second slot of a long or double
                 continue;
             }
-            switch (e.type) {
+            Entry e = getEntry(i + 1);
+            switch (type) {
             case UTF8:
+                System.out.println(i + ": Utf8 " + ((Utf8Entry) e).value);
+                break;
             case INTEGER:
+                System.out.println(i + ": Int " + ((IntEntry) e).value);
+                break;
             case FLOAT:
+                System.out.println(i + ": Float " + ((FloatEntry) e).value);
                 break;
             case LONG:
+                System.out.println(i + ": Long " + ((LongEntry) e).value);
+                break;
             case DOUBLE:
-                i++;
+                System.out.println(i + ": Double " + ((DoubleEntry) e).value);
                 break;
-            case CLASS: {
-                ClassEntry c = (ClassEntry) e;
-                c.name = getUtf8(c.name_index);
+            case CLASS:
+                System.out.println(i + ": Class " + ((ClassEntry) e).name_index);
                 break;
-            }
-            case STRING: {
-                StringEntry c = (StringEntry) e;
-                c.value = getUtf8(c.value_index);
+            case STRING:
+                System.out.println(i + ": String " + ((StringEntry) e).value_index);
                 break;
-            }
-            case FIELD_REF: {
-                FieldRefEntry f = (FieldRefEntry) e;
-                f.cls = getUtf8(getClass(f.class_index).name_index);
-                f.name = getUtf8(getNameAndType(f.name_and_type_index).name_index);
-                f.type_name = getUtf8(getNameAndType(f.name_and_type_index).type_index);
+            case FIELD_REF:
+                System.out.println(i + ": FieldRef " + ((FieldRefEntry) e).class_index + " " + ((FieldRefEntry) e).name_and_type_index);
                 break;
-            }
-            case METHOD_REF: {
-                MethodRefEntry f = (MethodRefEntry) e;
-                f.cls = getUtf8(getClass(f.class_index).name_index);
-                f.name = getUtf8(getNameAndType(f.name_and_type_index).name_index);
-                f.type_name = getUtf8(getNameAndType(f.name_and_type_index).type_index);
+            case METHOD_REF:
+                System.out.println(i + ": MethodRef " + ((MethodRefEntry) e).class_index + " " + ((MethodRefEntry) e).name_and_type_index);
                 break;
-            }
-            case INTERFACE_METHOD_REF: {
-                MethodRefEntry f = (MethodRefEntry) e;
-                f.cls = getUtf8(getClass(f.class_index).name_index);
-                f.name = getUtf8(getNameAndType(f.name_and_type_index).name_index);
-                f.type_name = getUtf8(getNameAndType(f.name_and_type_index).type_index);
+            case INTERFACE_METHOD_REF:
+                System.out.println(i + ": InterfaceMethodRef " + ((MethodRefEntry) e).class_index + " "
+                        + ((MethodRefEntry) e).name_and_type_index);
                 break;
-            }
-            case NAME_AND_TYPE: {
-                NameAndTypeEntry n = (NameAndTypeEntry) e;
-                n.name = getUtf8(n.name_index);
-                n.type_name = getUtf8(n.type_index);
+            case NAME_AND_TYPE:
+                System.out.println(i + ": NameAndType " + ((NameAndTypeEntry) e).name_index + " " + ((NameAndTypeEntry) e).type_index);
                 break;
-            }
             case METHOD_HANDLE:
+                System.out.println(i + ": MethodHandle " + ((MethodHandleEntry) e).kind + " " + ((MethodHandleEntry) e).reference_index);
                 break;
-            case METHOD_TYPE: {
-                MethodTypeEntry t = (MethodTypeEntry) e;
-                t.desc = getUtf8(t.desc_index);
+            case METHOD_TYPE:
+                System.out.println(i + ": MethodType " + ((MethodTypeEntry) e).desc_index);
                 break;
-            }
-            case INVOKE_DYNAMIC: {
-                InvokeDynamicEntry f = (InvokeDynamicEntry) e;
-                f.name = getUtf8(getNameAndType(f.name_and_type_index).name_index);
-                f.type_name = getUtf8(getNameAndType(f.name_and_type_index).type_index);
+            case INVOKE_DYNAMIC:
+                System.out.println(i + ": InvokeDynamic " + ((InvokeDynamicEntry) e).bootstrap_index + " "
+                        + ((InvokeDynamicEntry) e).name_and_type_index);
                 break;
-            }
             default:
-                throw new SourceFormatException("Illegal tag in constant pool");
+                break;
             }
         }
     }
 
+    /**
+     * Gets the number of slots in this constant pool.
+     */
+    public int size() {
+        return this.tags.length;
+    }
+
+    /**
+     * Gets the type of the entry at the given index without decoding it.
+     */
+    public EntryType getType(int index) {
+        return ENTRY_TYPES[this.tags[index - 1]];
+    }
+
     public Entry getEntry(int index) {
-        return this.values[index - 1];
+        Entry e = this.values.get(index - 1);
+        if (e == null) {
+            e = decode(index);
+            if (!this.values.compareAndSet(index - 1, null, e)) {
+                e = this.values.get(index - 1);
+            }
+        }
+        return e;
+    }
+
+    private Entry decode(int index) {
+        int offs = this.offsets[index - 1];
+        ByteBuffer data = this.data;
+        EntryType type = getType(index);
+        Entry entry;
+        switch (type) {
+        case UTF8: {
+            Utf8Entry u = new Utf8Entry();
+            u.value = getUtf8(index);
+            entry = u;
+            break;
+        }
+        case INTEGER: {
+            IntEntry c = new IntEntry();
+            c.value = data.getInt(offs);
+            entry = c;
+            break;
+        }
+        case FLOAT: {
+            FloatEntry c = new FloatEntry();
+            c.value = data.getFloat(offs);
+            entry = c;
+            break;
+        }
+        case LONG: {
+            LongEntry c = new LongEntry();
+            c.value = data.getLong(offs);
+            entry = c;
+            break;
+        }
+        case DOUBLE: {
+            DoubleEntry c = new DoubleEntry();
+            c.value = data.getDouble(offs);
+            entry = c;
+            break;
+        }
+        case CLASS: {
+            ClassEntry c = new ClassEntry();
+            c.name_index = Short.toUnsignedInt(data.getShort(offs));
+            c.name = getSymbol(c.name_index);
+            entry = c;
+            break;
+        }
+        case STRING: {
+            StringEntry c = new StringEntry();
+            c.value_index = Short.toUnsignedInt(data.getShort(offs));
+            c.value = getUtf8(c.value_index);
+            entry = c;
+            break;
+        }
+        case FIELD_REF: {
+            FieldRefEntry f = new FieldRefEntry();
+            f.class_index = Short.toUnsignedInt(data.getShort(offs));
+            f.name_and_type_index = Short.toUnsignedInt(data.getShort(offs + 2));
+            NameAndTypeEntry n = getNameAndType(f.name_and_type_index);
+            f.cls = getClass(f.class_index).name;
+            f.name = n.name;
+            f.type_name = n.type_name;
+            entry = f;
+            break;
+        }
+        case METHOD_REF:
+        case INTERFACE_METHOD_REF: {
+            MethodRefEntry f = new MethodRefEntry();
+            f.class_index = Short.toUnsignedInt(data.getShort(offs));
+            f.name_and_type_index = Short.toUnsignedInt(data.getShort(offs + 2));
+            NameAndTypeEntry n = getNameAndType(f.name_and_type_index);
+            f.cls = getClass(f.class_index).name;
+            f.name = n.name;
+            f.type_name = n.type_name;
+            entry = f;
+            break;
+        }
+        case NAME_AND_TYPE: {
+            NameAndTypeEntry n = new NameAndTypeEntry();
+            n.name_index = Short.toUnsignedInt(data.getShort(offs));
+            n.type_index = Short.toUnsignedInt(data.getShort(offs + 2));
+            n.name = getSymbol(n.name_index);
+            n.type_name = getSymbol(n.type_index);
+            entry = n;
+            break;
+        }
+        case METHOD_HANDLE: {
+            MethodHandleEntry h = new MethodHandleEntry();
+            h.kind = data.get(offs);
+            h.reference_index = Short.toUnsignedInt(data.getShort(offs + 1));
+            entry = h;
+            break;
+        }
+        case METHOD_TYPE: {
+            MethodTypeEntry t = new MethodTypeEntry();
+            t.desc_index = Short.toUnsignedInt(data.getShort(offs));
+            t.desc = getSymbol(t.desc_index);
+            entry = t;
+            break;
+        }
+        case INVOKE_DYNAMIC: {
+            InvokeDynamicEntry d = new InvokeDynamicEntry();
+            d.bootstrap_index = Short.toUnsignedInt(data.getShort(offs));
+            d.name_and_type_index = Short.toUnsignedInt(data.getShort(offs + 2));
+            NameAndTypeEntry n = getNameAndType(d.name_and_type_index);
+            d.name = n.name;
+            d.type_name = n.type_name;
+            entry = d;
+            break;
+        }
+        default:
+            throw new SourceFormatException("Illegal constant pool index: " + index);
+        }
+        entry.type = type;
+        return entry;
     }
 
     public String getUtf8(int index) {
-        return ((Utf8Entry) this.values[index - 1]).value;
+        String value = this.strings[index - 1];
+        if (value == null) {
+            if (this.tags[index - 1] != EntryType.UTF8.ordinal()) {
+                throw new SourceFormatException("Constant pool entry " + index + " is not a utf8 entry");
+            }
+            int offs = this.offsets[index - 1];
+            int len = Short.toUnsignedInt(this.data.getShort(offs));
+            if (this.data.hasArray()) {
+                value = new String(this.data.array(), this.data.arrayOffset() + offs + 2, len, Charsets.UTF_8);
+            } else {
+                byte[] bytes = new byte[len];
+                for (int i = 0; i < len; i++) {
+                    bytes[i] = this.data.get(offs + 2 + i);
+                }
+                value = new String(bytes, Charsets.UTF_8);
+            }
+            this.strings[index - 1] = value;
+        }
+        return value;
+    }
+
+    /**
+     * Gets the utf8 entry at the given index interned into the symbol table.
+     * This should only be used for class, member and descriptor names as the
+     * symbol table lives as long as the source set, other values such as
+     * string constants should be read with {@link #getUtf8(int)}.
+     */
+    public String getSymbol(int index) {
+        String value = this.interned[index - 1];
+        if (value == null) {
+            value = this.symbols.intern(getUtf8(index));
+            this.strings[index - 1] = value;
+            this.interned[index - 1] = value;
+        }
+        return value;
+    }
+
+    /**
+     * Gets the attribute type named by the utf8 entry at the given index. The
+     * lookup is cached per index so that attribute dispatch in the class
+     * loader does not compare attribute names for every attribute.
+     */
+    public AttributeType getAttributeType(int index) {
+        AttributeType type = this.attributes[index - 1];
+        if (type == null) {
+            type = AttributeType.of(getUtf8(index));
+            this.attributes[index - 1] = type;
+        }
+        return type;
     }
 
     public int getInt(int index) {
-        return ((IntEntry) this.values[index - 1]).value;
+        return ((IntEntry) getEntry(index)).value;
     }
 
     public float getFloat(int index) {
-        return ((FloatEntry) this.values[index - 1]).value;
+        return ((FloatEntry) getEntry(index)).value;
     }
 
     public long getLong(int index) {
-        return ((LongEntry) this.values[index - 1]).value;
+        return ((LongEntry) getEntry(index)).value;
     }
 
     public double getDouble(int index) {
-        return ((DoubleEntry) this.values[index - 1]).value;
+        return ((DoubleEntry) getEntry(index)).value;
     }
 
     public ClassEntry getClass(int index) {
-        return (ClassEntry) this.values[index - 1];
+        return (ClassEntry) getEntry(index);
     }
 
     public NameAndTypeEntry getNameAndType(int index) {
-        return (NameAndTypeEntry) this.values[index - 1];
+        return (NameAndTypeEntry) getEntry(index);
     }
 
     public FieldRefEntry getFieldRef(int index) {
-        return (FieldRefEntry) this.values[index - 1];
+        return (FieldRefEntry) getEntry(index);
     }
 
     public MethodRefEntry getMethodRef(int index) {
-        return (MethodRefEntry) this.values[index - 1];
+        return (MethodRefEntry) getEntry(index);
     }
 
     public MethodRefEntry getInterfaceMethodRef(int index) {
-        return (MethodRefEntry) this.values[index - 1];
+        return (MethodRefEntry) getEntry(index);
     }
 
     public MethodHandleEntry getMethodHandle(int index) {
-        return (MethodHandleEntry) this.values[index - 1];
+        return (MethodHandleEntry) getEntry(index);
     }
 
     public InvokeDynamicEntry getInvokeDynamic(int index) {
-        return (InvokeDynamicEntry) this.values[index - 1];
+        return (InvokeDynamicEntry) getEntry(index);
     }
 
     public static abstract class Entry {
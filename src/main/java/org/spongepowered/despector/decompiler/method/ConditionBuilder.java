@@ -39,6 +39,7 @@ import org.spongepowered.despector.ast.stmt.StatementBlock;
 import org.spongepowered.despector.decompiler.ir.Insn;
 import org.spongepowered.despector.decompiler.method.graph.data.opcode.ConditionalOpcodeBlock;
 import org.spongepowered.despector.decompiler.method.graph.data.opcode.OpcodeBlock;
+import org.spongepowered.despector.decompiler.method.special.ConditionProcessor;
 import org.spongepowered.despector.util.ConditionUtil;
 
 import java.util.ArrayDeque;
@@ -139,6 +140,18 @@ public final class ConditionBuilder {
         stack.pollLast();
     }
 
+    /**
+     * Converts the given set of {@link OpcodeBlock}s to a condition using the
+     * {@link ConditionProcessor} of the method's decompiler if one is set.
+     */
+    public static Condition makeCondition(PartialMethod partial, List<ConditionalOpcodeBlock> blocks, OpcodeBlock body, OpcodeBlock ret) {
+        ConditionProcessor processor = partial.getDecompiler().getSpecialProcessor(ConditionProcessor.class);
+        if (processor != null) {
+            return processor.makeCondition(partial, blocks, body, ret);
+        }
+        return makeCondition(blocks, partial.getLocals(), body, ret);
+    }
+
     /**
      * Converts the given set of {@link OpcodeBlock}s to a condition.
      */
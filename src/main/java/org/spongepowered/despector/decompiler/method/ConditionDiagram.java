@@ -0,0 +1,306 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Despector <https://despector.voxelgenesis.com>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.despector.decompiler.method;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static org.spongepowered.despector.util.ConditionUtil.inverse;
+
+import org.spongepowered.despector.ast.insn.condition.AndCondition;
+import org.spongepowered.despector.ast.insn.condition.Condition;
+import org.spongepowered.despector.ast.insn.condition.OrCondition;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+/**
+ * A binary decision diagram over a set of simple conditions. Each node tests
+ * a single condition and continues to its true or false target, the terminal
+ * targets are {@link #TRUE} and {@link #FALSE}.
+ *
+ * <p>Rather than enumerating every path to the true terminal the diagram is
+ * reduced (redundant tests are removed and identical nodes are shared) and
+ * then chains of nodes which form short-circuiting and and or conditions are
+ * collapsed into single nodes. Whatever remains is expanded around each node
+ * condition.</p>
+ */
+public class ConditionDiagram {
+
+    public static final int TRUE = -1;
+    public static final int FALSE = -2;
+
+    private final Condition[] conditions;
+    private final int[] targets;
+    private final int[] else_targets;
+
+    public ConditionDiagram(int size) {
+        this.conditions = new Condition[size];
+        this.targets = new int[size];
+        this.else_targets = new int[size];
+    }
+
+    /**
+     * Gets the number of nodes in this diagram.
+     */
+    public int size() {
+        return this.conditions.length;
+    }
+
+    /**
+     * Sets the node at the given index to test the given condition and
+     * continue to the given targets. A target is either the index of another
+     * node or one of {@link #TRUE} or {@link #FALSE}.
+     */
+    public void setNode(int index, Condition condition, int target, int else_target) {
+        checkArgument(target >= FALSE && target < this.conditions.length, "target");
+        checkArgument(else_target >= FALSE && else_target < this.conditions.length, "else_target");
+        this.conditions[index] = condition;
+        this.targets[index] = target;
+        this.else_targets[index] = else_target;
+    }
+
+    /**
+     * Forms the condition under which the true terminal is reached from the
+     * given root node. Returns null if the diagram contains a cycle or if the
+     * root does not depend on any condition.
+     */
+    @Nullable
+    public Condition toCondition(int root) {
+        int size = this.conditions.length;
+        for (int i = 0; i < size; i++) {
+            checkArgument(this.conditions[i] != null, "Node %s was not set", i);
+        }
+        int[] order = postOrder(root);
+        if (order == null) {
+            return null;
+        }
+
+        // reduce the diagram, children are visited before their parents so
+        // each node only needs to look at its direct targets
+        Condition[] cond = Arrays.copyOf(this.conditions, size);
+        int[] hi = new int[size];
+        int[] lo = new int[size];
+        int[] canon = new int[size];
+        Map<List<Object>, Integer> unique = new HashMap<>();
+        for (int n : order) {
+            int t = canonical(canon, this.targets[n]);
+            int e = canonical(canon, this.else_targets[n]);
+            if (t == e) {
+                canon[n] = t;
+                continue;
+            }
+            Integer existing = unique.putIfAbsent(Arrays.asList(cond[n], t, e), n);
+            if (existing != null) {
+                canon[n] = existing;
+                continue;
+            }
+            canon[n] = n;
+            hi[n] = t;
+            lo[n] = e;
+        }
+        int start = canonical(canon, root);
+        if (start < 0) {
+            return null;
+        }
+
+        int[] preds = new int[size];
+        List<Integer> live = new ArrayList<>();
+        for (int n : order) {
+            if (canon[n] == n) {
+                live.add(n);
+                count(preds, hi[n]);
+                count(preds, lo[n]);
+            }
+        }
+
+        // collapse short-circuiting chains until nothing changes, the
+        // absorbed node is marked dead by setting its targets to itself
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int n : live) {
+                if (hi[n] == n) {
+                    continue;
+                }
+                int h = hi[n];
+                int l = lo[n];
+                if (l >= 0 && preds[l] == 1) {
+                    if (hi[l] == h) {
+                        // n || l
+                        cond[n] = or(cond[n], cond[l]);
+                        lo[n] = lo[l];
+                        uncount(preds, h);
+                        kill(hi, lo, l);
+                        changed = true;
+                        continue;
+                    } else if (lo[l] == h) {
+                        // n || !l
+                        cond[n] = or(cond[n], inverse(cond[l]));
+                        lo[n] = hi[l];
+                        uncount(preds, h);
+                        kill(hi, lo, l);
+                        changed = true;
+                        continue;
+                    }
+                }
+                if (h >= 0 && preds[h] == 1) {
+                    if (lo[h] == l) {
+                        // n && h
+                        cond[n] = and(cond[n], cond[h]);
+                        hi[n] = hi[h];
+                        uncount(preds, l);
+                        kill(hi, lo, h);
+                        changed = true;
+                    } else if (hi[h] == l) {
+                        // n && !h
+                        cond[n] = and(cond[n], inverse(cond[h]));
+                        hi[n] = lo[h];
+                        uncount(preds, l);
+                        kill(hi, lo, h);
+                        changed = true;
+                    }
+                }
+            }
+        }
+
+        return expand(start, cond, hi, lo, new Condition[size]);
+    }
+
+    private int[] postOrder(int root) {
+        // an iterative depth first search, returns null if a cycle is found
+        int size = this.conditions.length;
+        int[] state = new int[size];
+        int[] order = new int[size];
+        int order_size = 0;
+        int[] stack = new int[size];
+        int stack_size = 0;
+        if (root >= 0) {
+            stack[stack_size++] = root;
+            state[root] = 1;
+        }
+        while (stack_size > 0) {
+            int n = stack[stack_size - 1];
+            int next = -1;
+            for (int t : new int[] {this.targets[n], this.else_targets[n]}) {
+                if (t < 0) {
+                    continue;
+                }
+                if (state[t] == 1) {
+                    return null;
+                }
+                if (state[t] == 0) {
+                    next = t;
+                    break;
+                }
+            }
+            if (next == -1) {
+                state[n] = 2;
+                order[order_size++] = n;
+                stack_size--;
+            } else {
+                state[next] = 1;
+                stack[stack_size++] = next;
+            }
+        }
+        return Arrays.copyOf(order, order_size);
+    }
+
+    private static int canonical(int[] canon, int node) {
+        return node < 0 ? node : canon[node];
+    }
+
+    private static void count(int[] preds, int node) {
+        if (node >= 0) {
+            preds[node]++;
+        }
+    }
+
+    private static void uncount(int[] preds, int node) {
+        if (node >= 0) {
+            preds[node]--;
+        }
+    }
+
+    private static void kill(int[] hi, int[] lo, int node) {
+        hi[node] = node;
+        lo[node] = node;
+    }
+
+    private static Condition expand(int n, Condition[] cond, int[] hi, int[] lo, Condition[] memo) {
+        if (memo[n] != null) {
+            return memo[n];
+        }
+        int h = hi[n];
+        int l = lo[n];
+        Condition c = cond[n];
+        Condition result;
+        if (h == TRUE && l == FALSE) {
+            result = c;
+        } else if (h == FALSE && l == TRUE) {
+            result = inverse(c);
+        } else if (h == TRUE) {
+            result = or(c, expand(l, cond, hi, lo, memo));
+        } else if (l == FALSE) {
+            result = and(c, expand(h, cond, hi, lo, memo));
+        } else if (h == FALSE) {
+            result = and(inverse(c), expand(l, cond, hi, lo, memo));
+        } else if (l == TRUE) {
+            result = or(inverse(c), expand(h, cond, hi, lo, memo));
+        } else {
+            result = or(and(c, expand(h, cond, hi, lo, memo)), and(inverse(c), expand(l, cond, hi, lo, memo)));
+        }
+        memo[n] = result;
+        return result;
+    }
+
+    private static Condition and(Condition a, Condition b) {
+        List<Condition> operands = new ArrayList<>();
+        for (Condition c : new Condition[] {a, b}) {
+            if (c instanceof AndCondition) {
+                operands.addAll(((AndCondition) c).getOperands());
+            } else {
+                operands.add(c);
+            }
+        }
+        return new AndCondition(operands);
+    }
+
+    private static Condition or(Condition a, Condition b) {
+        List<Condition> operands = new ArrayList<>();
+        for (Condition c : new Condition[] {a, b}) {
+            if (c instanceof OrCondition) {
+                operands.addAll(((OrCondition) c).getOperands());
+            } else {
+                operands.add(c);
+            }
+        }
+        return new OrCondition(operands);
+    }
+
+}
@@ -37,26 +37,29 @@ import org.spongepowered.despector.decompiler.ir.SwitchInsn;
 import org.spongepowered.despector.decompiler.method.graph.GraphOperation;
 import org.spongepowered.despector.decompiler.method.graph.GraphProcessor;
 import org.spongepowered.despector.decompiler.method.graph.GraphProducerStep;
+import org.spongepowered.despector.decompiler.method.graph.LegacyGraphProducerStep;
 import org.spongepowered.despector.decompiler.method.graph.RegionProcessor;
 import org.spongepowered.despector.decompiler.method.graph.data.block.BlockSection;
+import org.spongepowered.despector.decompiler.method.graph.data.block.InlineBlockSection;
 import org.spongepowered.despector.decompiler.method.graph.data.opcode.BodyOpcodeBlock;
 import org.spongepowered.despector.decompiler.method.graph.data.opcode.OpcodeBlock;
+import org.spongepowered.despector.decompiler.method.graph.data.opcode.OpcodeBlockList;
 import org.spongepowered.despector.decompiler.method.graph.data.opcode.SwitchOpcodeBlock;
 import org.spongepowered.despector.decompiler.method.graph.data.opcode.TryCatchMarkerOpcodeBlock;
+import org.spongepowered.despector.decompiler.method.postprocess.FusedPostProcessor;
+import org.spongepowered.despector.decompiler.method.postprocess.PostProcessTraversal;
 import org.spongepowered.despector.decompiler.method.postprocess.StatementPostProcessor;
 import org.spongepowered.despector.decompiler.method.special.SpecialMethodProcessor;
-import org.spongepowered.despector.decompiler.method.special.UninitializedNewVisitor;
 
 import java.io.StringWriter;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.BitSet;
 import java.util.Deque;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
 
 import javax.annotation.Nullable;
 
@@ -72,14 +75,19 @@ public class MethodDecompiler {
     private final List<GraphProcessor> processors = new ArrayList<>();
     private final List<RegionProcessor> region_processors = new ArrayList<>();
     private final List<StatementPostProcessor> post_processors = new ArrayList<>();
+    private List<StatementPostProcessor> post_stages = new ArrayList<>();
     private final Map<Class<?>, SpecialMethodProcessor> special_processors = new HashMap<>();
 
+    private final LongAdder decompiled_methods = new LongAdder();
+    private final LongAdder straight_line_methods = new LongAdder();
+
     /**
      * Adds the given {@link GraphProducerStep} to the end of the graph
-     * producers.
+     * producers. Steps compiled against the boxed break point methods only
+     * are wrapped in a {@link LegacyGraphProducerStep}.
      */
     public void addGraphProducer(GraphProducerStep step) {
-        this.graph_producers.add(checkNotNull(step, "step"));
+        this.graph_producers.add(LegacyGraphProducerStep.adapt(checkNotNull(step, "step")));
     }
 
     /**
@@ -110,6 +118,25 @@ public class MethodDecompiler {
      */
     public void addPostProcessor(StatementPostProcessor post) {
         this.post_processors.add(checkNotNull(post, "post"));
+
+        // consecutive fused post processors are run from a single traversal
+        List<StatementPostProcessor> stages = new ArrayList<>();
+        List<FusedPostProcessor<?>> fused = new ArrayList<>();
+        for (StatementPostProcessor next : this.post_processors) {
+            if (next instanceof FusedPostProcessor) {
+                fused.add((FusedPostProcessor<?>) next);
+                continue;
+            }
+            if (!fused.isEmpty()) {
+                stages.add(new PostProcessTraversal(fused));
+                fused = new ArrayList<>();
+            }
+            stages.add(next);
+        }
+        if (!fused.isEmpty()) {
+            stages.add(new PostProcessTraversal(fused));
+        }
+        this.post_stages = stages;
     }
 
     /**
@@ -137,16 +164,31 @@ public class MethodDecompiler {
             return null;
         }
 
+        this.decompiled_methods.increment();
+        StatementBlock block = new StatementBlock(StatementBlock.Type.METHOD);
+
         // Setup the partial method
         PartialMethod partial = new PartialMethod(this, entry);
-
-        // Convert the instructions linked list to an array list for easier
-        // processing
-        StatementBlock block = new StatementBlock(StatementBlock.Type.METHOD);
         partial.setBlock(block);
 
-        // Creates the initial form of the control flow graph
-        List<OpcodeBlock> graph = makeGraph(partial);
+        // queries all graph producers to determine where the instructions
+        // should be broken up to form the graph
+        BitSet break_points = collectBreakpoints(partial);
+
+        // methods where no producer breaks up the instructions form a single
+        // body block which needs no edges and would be flattened unchanged
+        OpcodeBlock straight_line = null;
+        List<OpcodeBlock> graph;
+        if (LibraryConfiguration.straight_line_fast_path && isStraightLine(partial, break_points)) {
+            InsnBlock insns = partial.getOpcodes();
+            straight_line = new BodyOpcodeBlock(0, insns.size() - 1);
+            straight_line.setOpcodes(insns, 0, insns.size());
+            graph = new OpcodeBlockList();
+            graph.add(straight_line);
+        } else {
+            // Creates the initial form of the control flow graph
+            graph = makeGraph(partial, break_points);
+        }
         partial.setGraph(graph);
 
         for (int i = 0; i < graph.size() - 1; i++) {
@@ -193,6 +235,19 @@ public class MethodDecompiler {
             System.out.println();
         }
 
+        // unless a cleanup operation replaced it the single block is appended
+        // directly rather than passing it through the graph processors
+        if (straight_line != null && partial.getGraph().size() == 1 && partial.getGraph().get(0) == straight_line) {
+            this.straight_line_methods.increment();
+            BlockSection section = new InlineBlockSection(straight_line);
+            if (LibraryConfiguration.emit_block_debug) {
+                entry.block_debug[2] = section.toString();
+            }
+            section.appendTo(block, entry.getLocals(), new ArrayDeque<>());
+            postprocess(block);
+            return block;
+        }
+
         // Performs a sequence of transformations to convert the graph into a
         // simple array of partially decompiled block sections.
         List<BlockSection> flat_graph = new ArrayList<>();
@@ -224,7 +279,13 @@ public class MethodDecompiler {
             BlockSection op = flat_graph.get(i);
             op.appendTo(block, entry.getLocals(), stack);
         }
-        for (StatementPostProcessor post : this.post_processors) {
+        postprocess(block);
+
+        return block;
+    }
+
+    private void postprocess(StatementBlock block) {
+        for (StatementPostProcessor post : this.post_stages) {
             try {
                 post.postprocess(block);
             } catch (Exception e) {
@@ -234,48 +295,48 @@ public class MethodDecompiler {
                 }
             }
         }
-
-        block.accept(new UninitializedNewVisitor());
-
-        return block;
     }
 
-    private List<OpcodeBlock> makeGraph(PartialMethod partial) {
-        InsnBlock instructions = partial.getOpcodes();
-
-        Set<Integer> break_points = new HashSet<>();
-
-        // queries all graph producers to determine where the instructions
-        // should be broken up to form the graph
+    private BitSet collectBreakpoints(PartialMethod partial) {
+        BitSet break_points = new BitSet(partial.getOpcodes().size());
         for (GraphProducerStep step : this.graph_producers) {
             step.collectBreakpoints(partial, break_points);
         }
+        return break_points;
+    }
+
+    /**
+     * Gets if none of the graph producers broke up the instructions of the
+     * given method and it has no exception handlers, in which case the method
+     * forms a single block.
+     */
+    private static boolean isStraightLine(PartialMethod partial, BitSet break_points) {
+        return break_points.isEmpty() && partial.getOpcodes().getCatchRegions().isEmpty()
+                && !partial.getEntry().getName().startsWith("$SWITCH_TABLE$");
+    }
+
+    private List<OpcodeBlock> makeGraph(PartialMethod partial, BitSet break_points) {
+        InsnBlock instructions = partial.getOpcodes();
 
-        // Sort the break points
-        List<Integer> sorted_break_points = new ArrayList<>(break_points);
-        sorted_break_points.sort(Comparator.naturalOrder());
-        List<OpcodeBlock> block_list = new ArrayList<>();
+        int[] sorted_break_points = break_points.stream().toArray();
+        List<OpcodeBlock> block_list = new OpcodeBlockList();
 
         // turn all blocks to the basic body opcode block, the various
         // processors will then replace these with the specialized opcode blocks
         int last_brk = 0;
         for (int brk : sorted_break_points) {
-            // accumulate the opcodes beween the next breakpoint and the last
-            // breakpoint.
+            // the block is a view of the opcodes between the last breakpoint
+            // and the next breakpoint.
             OpcodeBlock block = new BodyOpcodeBlock(last_brk, brk);
             block_list.add(block);
-            for (int i = last_brk; i <= brk; i++) {
-                block.getOpcodes().add(instructions.get(i));
-            }
+            block.setOpcodes(instructions, last_brk, brk + 1);
             last_brk = brk + 1;
         }
 
         if (last_brk < instructions.size()) {
             OpcodeBlock block = new BodyOpcodeBlock(last_brk, instructions.size() - 1);
             block_list.add(block);
-            for (int i = last_brk; i < instructions.size(); i++) {
-                block.getOpcodes().add(instructions.get(i));
-            }
+            block.setOpcodes(instructions, last_brk, instructions.size());
         }
 
         for (int i = 0; i < block_list.size() - 1; i++) {
@@ -293,6 +354,22 @@ public class MethodDecompiler {
         return block_list;
     }
 
+    /**
+     * Gets the number of methods with a body which have been decompiled.
+     */
+    public long getDecompiledMethodCount() {
+        return this.decompiled_methods.sum();
+    }
+
+    /**
+     * Gets the number of methods which were decompiled as a single block
+     * without passing through the graph processors as no graph producer broke
+     * up their instructions.
+     */
+    public long getStraightLineMethodCount() {
+        return this.straight_line_methods.sum();
+    }
+
     /**
      * Processes the given region into one or more block sections.
      */
@@ -66,16 +66,11 @@ import org.spongepowered.despector.ast.stmt.invoke.StaticMethodInvoke;
 import org.spongepowered.despector.ast.stmt.misc.Increment;
 import org.spongepowered.despector.ast.stmt.misc.Return;
 import org.spongepowered.despector.ast.stmt.misc.Throw;
-import org.spongepowered.despector.decompiler.ir.DoubleInsn;
 import org.spongepowered.despector.decompiler.ir.FieldInsn;
-import org.spongepowered.despector.decompiler.ir.FloatInsn;
 import org.spongepowered.despector.decompiler.ir.Insn;
-import org.spongepowered.despector.decompiler.ir.IntInsn;
+import org.spongepowered.despector.decompiler.ir.InsnCursor;
 import org.spongepowered.despector.decompiler.ir.InvokeDynamicInsn;
 import org.spongepowered.despector.decompiler.ir.InvokeInsn;
-import org.spongepowered.despector.decompiler.ir.LdcInsn;
-import org.spongepowered.despector.decompiler.ir.LongInsn;
-import org.spongepowered.despector.decompiler.ir.TypeInsn;
 import org.spongepowered.despector.decompiler.ir.TypeIntInsn;
 import org.spongepowered.despector.decompiler.ir.VarIntInsn;
 import org.spongepowered.despector.decompiler.method.graph.data.opcode.OpcodeBlock;
@@ -97,47 +92,45 @@ public final class StatementBuilder {
 
         // Decompiles a set of opcodes into statements.
 
-        for (int index = 0; index < op.getOpcodes().size(); index++) {
-            int label_index = op.getStart() + index;
-            Insn next = op.getOpcodes().get(index);
-            switch (next.getOpcode()) {
+        InsnCursor insns = op.cursor();
+        while (insns.next()) {
+            int label_index = op.getStart() + insns.getIndex();
+            switch (insns.getOpcode()) {
             case Insn.NOOP:
                 break;
             case Insn.ICONST:
-                stack.push(new IntConstant(((IntInsn) next).getValue()));
+                stack.push(new IntConstant(insns.getInt()));
                 break;
             case Insn.LCONST:
-                stack.push(new LongConstant(((LongInsn) next).getValue()));
+                stack.push(new LongConstant(insns.getLong()));
                 break;
             case Insn.FCONST:
-                stack.push(new FloatConstant(((FloatInsn) next).getValue()));
+                stack.push(new FloatConstant(insns.getFloat()));
                 break;
             case Insn.DCONST:
-                stack.push(new DoubleConstant(((DoubleInsn) next).getValue()));
+                stack.push(new DoubleConstant(insns.getDouble()));
                 break;
             case Insn.PUSH: {
-                LdcInsn ldc = (LdcInsn) next;
-                if (ldc.getConstant() == null) {
+                Object cst = insns.getConstant();
+                if (cst == null) {
                     stack.push(NullConstant.NULL);
-                } else if (ldc.getConstant() instanceof String) {
-                    stack.push(new StringConstant((String) ldc.getConstant()));
-                } else if (ldc.getConstant() instanceof ClassTypeSignature) {
-                    stack.push(new TypeConstant((ClassTypeSignature) ldc.getConstant()));
+                } else if (cst instanceof String) {
+                    stack.push(new StringConstant((String) cst));
+                } else if (cst instanceof ClassTypeSignature) {
+                    stack.push(new TypeConstant((ClassTypeSignature) cst));
                 } else {
-                    throw new IllegalStateException("Unsupported ldc constant: " + ldc.getConstant().getClass().getName());
+                    throw new IllegalStateException("Unsupported ldc constant: " + cst.getClass().getName());
                 }
                 break;
             }
             case Insn.LOCAL_LOAD: {
-                IntInsn var = (IntInsn) next;
-                Local local = locals.getLocal(var.getValue());
+                Local local = locals.getLocal(insns.getInt());
                 stack.push(new LocalAccess(local.getInstance(label_index)));
                 break;
             }
             case Insn.LOCAL_STORE: {
-                IntInsn var = (IntInsn) next;
                 Instruction val = stack.pop();
-                Local local = locals.getLocal(var.getValue());
+                Local local = locals.getLocal(insns.getInt());
                 LocalInstance instance = local.getInstance(label_index);
                 if (!local.isParameter() && local.getParameterInstance() != null) {
                     instance.setType(val.inferType());
@@ -312,7 +305,7 @@ public final class StatementBuilder {
                 break;
             }
             case Insn.IINC: {
-                VarIntInsn inc = (VarIntInsn) next;
+                VarIntInsn inc = (VarIntInsn) insns.get();
                 Local local = locals.getLocal(inc.getLocal());
                 Increment insn = new Increment(local.getInstance(label_index), inc.getValue());
                 block.append(insn);
@@ -331,7 +324,7 @@ public final class StatementBuilder {
                 block.append(new Return());
                 break;
             case Insn.GETSTATIC: {
-                FieldInsn field = (FieldInsn) next;
+                FieldInsn field = (FieldInsn) insns.get();
                 String owner = field.getOwner();
                 if (!owner.startsWith("[")) {
                     owner = "L" + owner + ";";
@@ -341,7 +334,7 @@ public final class StatementBuilder {
                 break;
             }
             case Insn.PUTSTATIC: {
-                FieldInsn field = (FieldInsn) next;
+                FieldInsn field = (FieldInsn) insns.get();
                 Instruction val = stack.pop();
                 String owner = field.getOwner();
                 if (!owner.startsWith("[")) {
@@ -352,7 +345,7 @@ public final class StatementBuilder {
                 break;
             }
             case Insn.GETFIELD: {
-                FieldInsn field = (FieldInsn) next;
+                FieldInsn field = (FieldInsn) insns.get();
                 String owner = field.getOwner();
                 if (!owner.startsWith("[")) {
                     owner = "L" + owner + ";";
@@ -362,7 +355,7 @@ public final class StatementBuilder {
                 break;
             }
             case Insn.PUTFIELD: {
-                FieldInsn field = (FieldInsn) next;
+                FieldInsn field = (FieldInsn) insns.get();
                 Instruction val = stack.pop();
                 Instruction owner = stack.pop();
                 String owner_t = field.getOwner();
@@ -375,7 +368,7 @@ public final class StatementBuilder {
                 break;
             }
             case Insn.INVOKE: {
-                InvokeInsn method = (InvokeInsn) next;
+                InvokeInsn method = (InvokeInsn) insns.get();
                 if (method.getName().equals("<init>")) {
                     Instruction[] args = new Instruction[TypeHelper.paramCount(method.getDescription())];
                     for (int i = args.length - 1; i >= 0; i--) {
@@ -426,7 +419,7 @@ public final class StatementBuilder {
                 break;
             }
             case Insn.INVOKESTATIC: {
-                InvokeInsn method = (InvokeInsn) next;
+                InvokeInsn method = (InvokeInsn) insns.get();
                 String ret = TypeHelper.getRet(method.getDescription());
                 Instruction[] args = new Instruction[TypeHelper.paramCount(method.getDescription())];
                 for (int i = args.length - 1; i >= 0; i--) {
@@ -445,7 +438,7 @@ public final class StatementBuilder {
                 break;
             }
             case Insn.INVOKEDYNAMIC: {
-                InvokeDynamicInsn invoke = (InvokeDynamicInsn) next;
+                InvokeDynamicInsn invoke = (InvokeDynamicInsn) insns.get();
                 TypeSignature type = ClassTypeSignature.of(TypeHelper.getRet(invoke.getType()));
                 if (invoke.isInterface()) {
                     MethodReference handle = new MethodReference(stack.pop(), invoke.getLambdaOwner(), invoke.getLambdaName(),
@@ -465,18 +458,17 @@ public final class StatementBuilder {
                 break;
             }
             case Insn.NEW: {
-                TypeSignature type = ClassTypeSignature.of(((TypeInsn) next).getType());
+                TypeSignature type = ClassTypeSignature.of(insns.getType());
                 stack.push(new UninitializedNew(type));
                 break;
             }
             case Insn.NEWARRAY: {
                 Instruction size = stack.pop();
-                TypeInsn array = (TypeInsn) next;
-                stack.push(new NewArray(ClassTypeSignature.of(array.getType()), size, null));
+                stack.push(new NewArray(ClassTypeSignature.of(insns.getType()), size, null));
                 break;
             }
             case Insn.MULTINEWARRAY: {
-                TypeIntInsn array = (TypeIntInsn) next;
+                TypeIntInsn array = (TypeIntInsn) insns.get();
                 Instruction[] size = new Instruction[array.getValue()];
                 for (int i = array.getValue() - 1; i >= 0; i--) {
                     size[i] = stack.pop();
@@ -488,15 +480,13 @@ public final class StatementBuilder {
                 block.append(new Throw(stack.pop()));
                 break;
             case Insn.CAST: {
-                TypeInsn cast = (TypeInsn) next;
-                String desc = cast.getType();
+                String desc = insns.getType();
                 stack.push(new Cast(ClassTypeSignature.of(desc), stack.pop()));
                 break;
             }
             case Insn.INSTANCEOF: {
-                TypeInsn insn = (TypeInsn) next;
                 Instruction val = stack.pop();
-                String type = insn.getType();
+                String type = insns.getType();
                 stack.push(new InstanceOf(val, ClassTypeSignature.of(type)));
                 break;
             }
@@ -513,7 +503,7 @@ public final class StatementBuilder {
                 // graph
                 break;
             default:
-                System.err.println("Unsupported opcode: " + next.getOpcode());
+                System.err.println("Unsupported opcode: " + insns.getOpcode());
                 throw new IllegalStateException();
             }
         }
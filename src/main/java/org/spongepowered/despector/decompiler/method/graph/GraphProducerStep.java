@@ -27,25 +27,67 @@ package org.spongepowered.despector.decompiler.method.graph;
 import org.spongepowered.despector.decompiler.method.PartialMethod;
 import org.spongepowered.despector.decompiler.method.graph.data.opcode.OpcodeBlock;
 
+import java.util.BitSet;
 import java.util.List;
 import java.util.Set;
 
 /**
  * A producer for dividing up the opcodes into blocks and joining them together
  * into a graph.
+ *
+ * <p>The boxed variants of the methods are deprecated and only adapt to the
+ * {@link BitSet} and int array variants which every step must implement.
+ * Steps written against the boxed variants should implement
+ * {@link LegacyGraphProducerStep} instead.</p>
  */
 public interface GraphProducerStep {
 
+    /**
+     * Sets the indices of any opcodes that the opcode list should be split
+     * after in the break_points set. Steps may also clear break points set by
+     * previous steps.
+     */
+    void collectBreakpoints(PartialMethod partial, BitSet break_points);
+
     /**
      * Adds the indices of any opcodes that the opcode list should be split
      * after to the break_points set.
+     *
+     * @deprecated Use {@link #collectBreakpoints(PartialMethod, BitSet)}
+     */
+    @Deprecated
+    default void collectBreakpoints(PartialMethod partial, Set<Integer> break_points) {
+        BitSet points = new BitSet();
+        for (int point : break_points) {
+            if (point >= 0) {
+                points.set(point);
+            }
+        }
+        collectBreakpoints(partial, points);
+        break_points.clear();
+        for (int i = points.nextSetBit(0); i >= 0; i = points.nextSetBit(i + 1)) {
+            break_points.add(i);
+        }
+    }
+
+    /**
+     * Forms edges between blocks in the graph.
      */
-    void collectBreakpoints(PartialMethod partial, Set<Integer> break_points);
+    void formEdges(PartialMethod partial, int[] sorted_break_points, List<OpcodeBlock> block_list);
 
     /**
      * Forms edges between blocks in the graph.
+     *
+     * @deprecated Use {@link #formEdges(PartialMethod, int[], List)}
      */
-    void formEdges(PartialMethod partial, List<Integer> sorted_break_points, List<OpcodeBlock> block_list);
+    @Deprecated
+    default void formEdges(PartialMethod partial, List<Integer> sorted_break_points, List<OpcodeBlock> block_list) {
+        int[] points = new int[sorted_break_points.size()];
+        for (int i = 0; i < points.length; i++) {
+            points[i] = sorted_break_points.get(i);
+        }
+        formEdges(partial, points, block_list);
+    }
 
     static OpcodeBlock find(List<OpcodeBlock> blocks, int op) {
         for (OpcodeBlock block : blocks) {
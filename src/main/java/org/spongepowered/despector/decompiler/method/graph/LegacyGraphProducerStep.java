@@ -0,0 +1,118 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Despector <https://despector.voxelgenesis.com>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.despector.decompiler.method.graph;
+
+import org.spongepowered.despector.decompiler.method.PartialMethod;
+import org.spongepowered.despector.decompiler.method.graph.data.opcode.OpcodeBlock;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A graph producer written against the boxed break point methods. The
+ * {@link BitSet} and int array methods are implemented by calling the boxed
+ * methods so older steps only need to implement this interface instead.
+ */
+public interface LegacyGraphProducerStep extends GraphProducerStep {
+
+    /**
+     * Adds the indices of any opcodes that the opcode list should be split
+     * after to the break_points set.
+     */
+    @Override
+    void collectBreakpoints(PartialMethod partial, Set<Integer> break_points);
+
+    /**
+     * Forms edges between blocks in the graph.
+     */
+    @Override
+    void formEdges(PartialMethod partial, List<Integer> sorted_break_points, List<OpcodeBlock> block_list);
+
+    @Override
+    default void collectBreakpoints(PartialMethod partial, BitSet break_points) {
+        Set<Integer> points = new HashSet<>();
+        for (int i = break_points.nextSetBit(0); i >= 0; i = break_points.nextSetBit(i + 1)) {
+            points.add(i);
+        }
+        collectBreakpoints(partial, points);
+        break_points.clear();
+        for (int point : points) {
+            if (point >= 0) {
+                break_points.set(point);
+            }
+        }
+    }
+
+    @Override
+    default void formEdges(PartialMethod partial, int[] sorted_break_points, List<OpcodeBlock> block_list) {
+        List<Integer> points = new ArrayList<>(sorted_break_points.length);
+        for (int point : sorted_break_points) {
+            points.add(point);
+        }
+        formEdges(partial, points, block_list);
+    }
+
+    /**
+     * Wraps the given step if it was compiled against the boxed methods only
+     * and would therefore fail with an {@link AbstractMethodError} when
+     * called through the {@link BitSet} and int array methods.
+     */
+    static GraphProducerStep adapt(GraphProducerStep step) {
+        if (step instanceof LegacyGraphProducerStep || (implemented(step, "collectBreakpoints", BitSet.class)
+                && implemented(step, "formEdges", int[].class, List.class))) {
+            return step;
+        }
+        return new LegacyGraphProducerStep() {
+
+            @Override
+            public void collectBreakpoints(PartialMethod partial, Set<Integer> break_points) {
+                step.collectBreakpoints(partial, break_points);
+            }
+
+            @Override
+            public void formEdges(PartialMethod partial, List<Integer> sorted_break_points, List<OpcodeBlock> block_list) {
+                step.formEdges(partial, sorted_break_points, block_list);
+            }
+        };
+    }
+
+    static boolean implemented(GraphProducerStep step, String name, Class<?>... args) {
+        Class<?>[] params = new Class<?>[args.length + 1];
+        params[0] = PartialMethod.class;
+        System.arraycopy(args, 0, params, 1, args.length);
+        try {
+            Method method = step.getClass().getMethod(name, params);
+            return !Modifier.isAbstract(method.getModifiers());
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+}
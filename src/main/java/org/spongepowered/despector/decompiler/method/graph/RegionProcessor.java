@@ -30,8 +30,8 @@ import org.spongepowered.despector.decompiler.method.graph.data.opcode.BreakMark
 import org.spongepowered.despector.decompiler.method.graph.data.opcode.ConditionalOpcodeBlock;
 import org.spongepowered.despector.decompiler.method.graph.data.opcode.GotoOpcodeBlock;
 import org.spongepowered.despector.decompiler.method.graph.data.opcode.OpcodeBlock;
+import org.spongepowered.despector.decompiler.method.graph.data.opcode.OpcodeBlockList;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -49,7 +49,7 @@ public interface RegionProcessor {
      * not form a sub region.
      */
     static int getRegionEnd(List<OpcodeBlock> blk, OpcodeBlock ret, int start) {
-        List<OpcodeBlock> blocks = new ArrayList<>(blk);
+        List<OpcodeBlock> blocks = new OpcodeBlockList(blk);
         if (ret != null) {
             blocks.add(ret);
         }
@@ -126,21 +126,22 @@ public interface RegionProcessor {
         int end_a = -1;
         int end_b = -1;
 
+        // The targets of the blocks before the start are not changed by the
+        // search so the nearest point they target after the start is only
+        // found once rather than each time the region is extended.
+        int first_entry = Integer.MAX_VALUE;
+        for (int o = 0; o < start; o++) {
+            int target = blocks.indexOf(blocks.get(o).getTarget());
+            if (target > start && target < first_entry) {
+                first_entry = target;
+            }
+        }
+
         check: while (true) {
-            for (int o = 0; o < start; o++) {
-                OpcodeBlock next = blocks.get(o);
-                end_a = blocks.indexOf(next.getTarget());
-                if (next instanceof ConditionalOpcodeBlock) {
-                    ConditionalOpcodeBlock cond = (ConditionalOpcodeBlock) next;
-                    end_b = blocks.indexOf(cond.getTarget());
-                } else {
-                    end_b = -1;
-                }
-                if ((end_a > start && end_a < end) || (end_b > start && end_b < end)) {
-                    // If any block before the start points into the region then
-                    // our start node wasn't actually the start of a subregion.
-                    return -1;
-                }
+            if (first_entry < end) {
+                // If any block before the start points into the region then
+                // our start node wasn't actually the start of a subregion.
+                return -1;
             }
             for (int o = start + 1; o < end; o++) {
                 OpcodeBlock next = blocks.get(o);
@@ -34,8 +34,8 @@ import org.spongepowered.despector.decompiler.method.graph.data.opcode.Condition
 import org.spongepowered.despector.decompiler.method.graph.data.opcode.GotoOpcodeBlock;
 import org.spongepowered.despector.decompiler.method.graph.data.opcode.OpcodeBlock;
 
+import java.util.BitSet;
 import java.util.List;
-import java.util.Set;
 
 /**
  * A graph producer that creates opcode blocks for condition and unconditional
@@ -44,22 +44,22 @@ import java.util.Set;
 public class JumpGraphProducerStep implements GraphProducerStep {
 
     @Override
-    public void collectBreakpoints(PartialMethod partial, Set<Integer> break_points) {
+    public void collectBreakpoints(PartialMethod partial, BitSet break_points) {
         InsnBlock instructions = partial.getOpcodes();
 
         for (int i = 0; i < instructions.size(); i++) {
-            Insn next = instructions.get(i);
-            if (next instanceof JumpInsn) {
-                if(next.getOpcode() == Insn.GOTO && i > 0) {
-                    break_points.add(i - 1);
+            int next = instructions.getOpcode(i);
+            if (InsnBlock.isJump(next)) {
+                if(next == Insn.GOTO && i > 0) {
+                    break_points.set(i - 1);
                 }
-                break_points.add(i);
+                break_points.set(i);
                 // also break before labels targetted by jump opcodes to have a
                 // break between the body of an if block and the statements
                 // after it
-                int target = ((JumpInsn) next).getTarget() - 1;
+                int target = instructions.getJumpTarget(i) - 1;
                 if (target >= 0) {
-                    break_points.add(target);
+                    break_points.set(target);
                 }
                 continue;
             }
@@ -67,7 +67,7 @@ public class JumpGraphProducerStep implements GraphProducerStep {
     }
 
     @Override
-    public void formEdges(PartialMethod partial, List<Integer> sorted_break_points, List<OpcodeBlock> block_list) {
+    public void formEdges(PartialMethod partial, int[] sorted_break_points, List<OpcodeBlock> block_list) {
         for (int i = 0; i < block_list.size(); i++) {
             // Now we go through and form an edge from any block and the block
             // it flows (or jumps) into next.
@@ -77,14 +77,14 @@ public class JumpGraphProducerStep implements GraphProducerStep {
                 if (block.getLast().getOpcode() == Insn.GOTO) {
                     GotoOpcodeBlock replacement = new GotoOpcodeBlock(block.getStart(), block.getEnd());
                     block_list.set(i, replacement);
-                    replacement.getOpcodes().addAll(block.getOpcodes());
+                    replacement.setOpcodes(block);
                     replacement.setTarget(GraphProducerStep.find(block_list, label));
                     GraphOperation.remap(block_list, block, replacement);
                 } else {
                     ConditionalOpcodeBlock replacement = new ConditionalOpcodeBlock(block.getStart(), block.getEnd());
-                    OpcodeBlock next = block_list.get(block_list.indexOf(block) + 1);
+                    OpcodeBlock next = block_list.get(i + 1);
                     block_list.set(i, replacement);
-                    replacement.getOpcodes().addAll(block.getOpcodes());
+                    replacement.setOpcodes(block);
                     replacement.setTarget(GraphProducerStep.find(block_list, label));
                     replacement.setElseTarget(next);
                     GraphOperation.remap(block_list, block, replacement);
@@ -33,9 +33,9 @@ import org.spongepowered.despector.decompiler.method.graph.GraphProducerStep;
 import org.spongepowered.despector.decompiler.method.graph.data.opcode.OpcodeBlock;
 import org.spongepowered.despector.decompiler.method.graph.data.opcode.SwitchOpcodeBlock;
 
+import java.util.BitSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 /**
  * A graph producer that creates opcode blocks for switch statements.
@@ -43,24 +43,27 @@ import java.util.Set;
 public class SwitchGraphProducerStep implements GraphProducerStep {
 
     @Override
-    public void collectBreakpoints(PartialMethod partial, Set<Integer> break_points) {
+    public void collectBreakpoints(PartialMethod partial, BitSet break_points) {
         InsnBlock instructions = partial.getOpcodes();
 
         for (int i = 0; i < instructions.size(); i++) {
-            Insn next = instructions.get(i);
-            if (next instanceof SwitchInsn) {
-                break_points.add(i);
-                SwitchInsn ts = (SwitchInsn) next;
+            if (instructions.getOpcode(i) == Insn.SWITCH) {
+                break_points.set(i);
+                SwitchInsn ts = (SwitchInsn) instructions.get(i);
                 for (int l : ts.getTargets().values()) {
-                    break_points.add(l - 1);
+                    if (l > 0) {
+                        break_points.set(l - 1);
+                    }
+                }
+                if (ts.getDefault() > 0) {
+                    break_points.set(ts.getDefault() - 1);
                 }
-                break_points.add(ts.getDefault() - 1);
             }
         }
     }
 
     @Override
-    public void formEdges(PartialMethod partial, List<Integer> sorted_break_points, List<OpcodeBlock> block_list) {
+    public void formEdges(PartialMethod partial, int[] sorted_break_points, List<OpcodeBlock> block_list) {
         for (int i = 0; i < block_list.size(); i++) {
             // Now we go through and form an edge from any block and the block
             // it flows (or jumps) into next.
@@ -69,7 +72,7 @@ public class SwitchGraphProducerStep implements GraphProducerStep {
                 continue;
             }
             SwitchOpcodeBlock replacement = new SwitchOpcodeBlock(block.getStart(), block.getEnd());
-            replacement.getOpcodes().addAll(block.getOpcodes());
+            replacement.setOpcodes(block);
             replacement.setTarget(block.getTarget());
             block_list.set(i, replacement);
             GraphOperation.remap(block_list, block, replacement);
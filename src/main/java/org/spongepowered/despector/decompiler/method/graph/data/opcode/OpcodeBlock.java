@@ -25,9 +25,13 @@
 package org.spongepowered.despector.decompiler.method.graph.data.opcode;
 
 import org.spongepowered.despector.decompiler.ir.Insn;
+import org.spongepowered.despector.decompiler.ir.InsnBlock;
+import org.spongepowered.despector.decompiler.ir.InsnCursor;
 import org.spongepowered.despector.decompiler.method.graph.data.block.BlockSection;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -37,12 +41,21 @@ import java.util.Set;
  * graph representing the control flow through the method. The opcode blocks are
  * created by sectioning the original opcodes at any point that may cause a jump
  * and any point targeted by a jump.
+ *
+ * <p>The opcodes of a block are initially a view of a range of the method's
+ * {@link InsnBlock}, they are only copied into a list owned by the block once
+ * they are modified. A block which has not been given any opcodes is an empty
+ * view and allocates no list until it is first written to.</p>
  */
 public abstract class OpcodeBlock {
 
     protected int start_pc;
     protected int end_pc;
-    protected final List<Insn> opcodes = new ArrayList<>();
+    private final OpcodeList opcodes = new OpcodeList();
+    private InsnBlock source;
+    private int source_start;
+    private int source_end;
+    private List<Insn> owned_opcodes;
     protected OpcodeBlock target;
 
     protected Set<OpcodeBlock> targetted_by = new HashSet<>();
@@ -72,12 +85,69 @@ public abstract class OpcodeBlock {
     }
 
     /**
-     * Gets the opcodes that are part of this block.
+     * Gets the opcodes that are part of this block. If this block is a view of
+     * the method's instructions then modifying the returned list will first
+     * copy the opcodes into this block.
      */
     public List<Insn> getOpcodes() {
         return this.opcodes;
     }
 
+    /**
+     * Sets the opcodes of this block to a view of the instructions between the
+     * given start (inclusive) and end (exclusive) indices of the given block.
+     */
+    public void setOpcodes(InsnBlock insns, int start, int end) {
+        this.source = insns;
+        this.source_start = start;
+        this.source_end = end;
+        this.owned_opcodes = null;
+    }
+
+    /**
+     * Sets the opcodes of this block to the opcodes of the given block. If the
+     * given block is a view then this block becomes a view of the same range.
+     */
+    public void setOpcodes(OpcodeBlock other) {
+        setOpcodes(other, 0, other.getOpcodes().size());
+    }
+
+    /**
+     * Sets the opcodes of this block to the opcodes of the given block between
+     * the given start (inclusive) and end (exclusive) indices. The given block
+     * may be this block.
+     */
+    public void setOpcodes(OpcodeBlock other, int start, int end) {
+        if (other.owned_opcodes == null) {
+            setOpcodes(other.source, other.source_start + start, other.source_start + end);
+        } else {
+            List<Insn> copy = new ArrayList<>(other.owned_opcodes.subList(start, end));
+            this.source = null;
+            this.owned_opcodes = copy;
+        }
+    }
+
+    /**
+     * Gets if this block is a view of the method's instructions rather than
+     * having its own copy of its opcodes.
+     */
+    public boolean isView() {
+        return this.source != null;
+    }
+
+    /**
+     * Creates a cursor over the opcodes of this block.
+     */
+    public InsnCursor cursor() {
+        if (this.owned_opcodes != null) {
+            return InsnCursor.of(this.owned_opcodes);
+        }
+        if (this.source == null) {
+            return InsnCursor.of(Collections.emptyList());
+        }
+        return this.source.cursor(this.source_start, this.source_end);
+    }
+
     public Insn getLast() {
         return this.opcodes.get(this.opcodes.size() - 1);
     }
@@ -176,4 +246,70 @@ public abstract class OpcodeBlock {
         return op.getStart() == this.start_pc && op.getEnd() == this.end_pc;
     }
 
+    /**
+     * A list of the opcodes of this block which copies them from the source
+     * instructions on the first modification.
+     */
+    private class OpcodeList extends AbstractList<Insn> {
+
+        OpcodeList() {
+        }
+
+        private List<Insn> mutable() {
+            if (OpcodeBlock.this.owned_opcodes == null) {
+                List<Insn> copy = new ArrayList<>(size() + 1);
+                for (int i = OpcodeBlock.this.source_start; i < OpcodeBlock.this.source_end; i++) {
+                    copy.add(OpcodeBlock.this.source.get(i));
+                }
+                OpcodeBlock.this.owned_opcodes = copy;
+                OpcodeBlock.this.source = null;
+            }
+            return OpcodeBlock.this.owned_opcodes;
+        }
+
+        @Override
+        public Insn get(int index) {
+            if (OpcodeBlock.this.owned_opcodes != null) {
+                return OpcodeBlock.this.owned_opcodes.get(index);
+            }
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+            }
+            return OpcodeBlock.this.source.get(OpcodeBlock.this.source_start + index);
+        }
+
+        @Override
+        public int size() {
+            if (OpcodeBlock.this.owned_opcodes != null) {
+                return OpcodeBlock.this.owned_opcodes.size();
+            }
+            return OpcodeBlock.this.source_end - OpcodeBlock.this.source_start;
+        }
+
+        @Override
+        public Insn set(int index, Insn insn) {
+            return mutable().set(index, insn);
+        }
+
+        @Override
+        public void add(int index, Insn insn) {
+            this.modCount++;
+            mutable().add(index, insn);
+        }
+
+        @Override
+        public Insn remove(int index) {
+            this.modCount++;
+            return mutable().remove(index);
+        }
+
+        @Override
+        public void clear() {
+            this.modCount++;
+            OpcodeBlock.this.owned_opcodes = new ArrayList<>();
+            OpcodeBlock.this.source = null;
+        }
+
+    }
+
 }
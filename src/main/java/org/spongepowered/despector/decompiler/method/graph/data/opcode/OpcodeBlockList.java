@@ -0,0 +1,158 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Despector <https://despector.voxelgenesis.com>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.despector.decompiler.method.graph.data.opcode;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * A list of opcode blocks which keeps an index of the position of each block
+ * so that {@link #indexOf(Object)} and {@link #contains(Object)} do not scan
+ * the list.
+ *
+ * <p>The lookups have the same result as those of an {@link ArrayList}: blocks
+ * are matched by their bounds, except for {@link TryCatchMarkerOpcodeBlock}s
+ * which are matched by identity. The index is rebuilt lazily after blocks are
+ * inserted or removed, appending a block or replacing a block with one with
+ * the same bounds updates it in place. The bounds of a block must not be
+ * changed while it is in the list.</p>
+ */
+public class OpcodeBlockList extends AbstractList<OpcodeBlock> implements RandomAccess {
+
+    private final List<OpcodeBlock> blocks;
+    private final Map<Long, Integer> bounds_index = new HashMap<>();
+    private final Map<OpcodeBlock, Integer> identity_index = new IdentityHashMap<>();
+    private boolean dirty = true;
+
+    public OpcodeBlockList() {
+        this.blocks = new ArrayList<>();
+    }
+
+    public OpcodeBlockList(Collection<? extends OpcodeBlock> blocks) {
+        this.blocks = new ArrayList<>(blocks);
+    }
+
+    private static Long bounds(OpcodeBlock block) {
+        return Long.valueOf(((long) block.getStart() << 32) | (block.getEnd() & 0xFFFFFFFFL));
+    }
+
+    private void reindex() {
+        this.bounds_index.clear();
+        this.identity_index.clear();
+        for (int i = 0; i < this.blocks.size(); i++) {
+            index(this.blocks.get(i), i);
+        }
+        this.dirty = false;
+    }
+
+    private void index(OpcodeBlock block, int i) {
+        this.bounds_index.putIfAbsent(bounds(block), i);
+        if (block instanceof TryCatchMarkerOpcodeBlock) {
+            this.identity_index.putIfAbsent(block, i);
+        }
+    }
+
+    @Override
+    public OpcodeBlock get(int index) {
+        return this.blocks.get(index);
+    }
+
+    @Override
+    public int size() {
+        return this.blocks.size();
+    }
+
+    @Override
+    public OpcodeBlock set(int index, OpcodeBlock block) {
+        OpcodeBlock old = this.blocks.set(index, block);
+        // replacing a block with a specialized block of the same bounds is
+        // the common case and leaves the index unchanged
+        if (old instanceof TryCatchMarkerOpcodeBlock || block instanceof TryCatchMarkerOpcodeBlock || old.getStart() != block.getStart()
+                || old.getEnd() != block.getEnd()) {
+            this.dirty = true;
+        }
+        return old;
+    }
+
+    @Override
+    public void add(int index, OpcodeBlock block) {
+        this.modCount++;
+        this.blocks.add(index, block);
+        if (!this.dirty && index == this.blocks.size() - 1) {
+            index(block, index);
+        } else {
+            this.dirty = true;
+        }
+    }
+
+    @Override
+    public OpcodeBlock remove(int index) {
+        this.modCount++;
+        this.dirty = true;
+        return this.blocks.remove(index);
+    }
+
+    @Override
+    public void clear() {
+        this.modCount++;
+        this.blocks.clear();
+        this.bounds_index.clear();
+        this.identity_index.clear();
+        this.dirty = false;
+    }
+
+    @Override
+    public int indexOf(Object o) {
+        if (!(o instanceof OpcodeBlock)) {
+            return -1;
+        }
+        if (this.dirty) {
+            reindex();
+        }
+        OpcodeBlock block = (OpcodeBlock) o;
+        Integer index;
+        if (block instanceof TryCatchMarkerOpcodeBlock) {
+            index = this.identity_index.get(block);
+        } else {
+            index = this.bounds_index.get(bounds(block));
+        }
+        if (index == null) {
+            return -1;
+        }
+        return index;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return indexOf(o) != -1;
+    }
+
+}
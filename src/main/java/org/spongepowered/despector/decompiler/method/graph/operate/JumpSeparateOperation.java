@@ -24,17 +24,16 @@
  */
 package org.spongepowered.despector.decompiler.method.graph.operate;
 
-import org.spongepowered.despector.decompiler.ir.Insn;
 import org.spongepowered.despector.decompiler.method.PartialMethod;
 import org.spongepowered.despector.decompiler.method.graph.GraphOperation;
 import org.spongepowered.despector.decompiler.method.graph.data.opcode.BodyOpcodeBlock;
 import org.spongepowered.despector.decompiler.method.graph.data.opcode.ConditionalOpcodeBlock;
 import org.spongepowered.despector.decompiler.method.graph.data.opcode.GotoOpcodeBlock;
 import org.spongepowered.despector.decompiler.method.graph.data.opcode.OpcodeBlock;
+import org.spongepowered.despector.decompiler.method.graph.data.opcode.OpcodeBlockList;
 import org.spongepowered.despector.decompiler.method.graph.data.opcode.SwitchOpcodeBlock;
 import org.spongepowered.despector.util.AstUtil;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -48,7 +47,7 @@ public class JumpSeparateOperation implements GraphOperation {
         // Split the opcodes that form the condition away from the preceding
         // statements.
         List<OpcodeBlock> blocks = partial.getGraph();
-        List<OpcodeBlock> fblocks = new ArrayList<>();
+        List<OpcodeBlock> fblocks = new OpcodeBlockList();
         for (OpcodeBlock block : blocks) {
             if (block instanceof GotoOpcodeBlock) {
                 OpcodeBlock header = new BodyOpcodeBlock(block.getStart(), block.getEnd() - 1);
@@ -56,12 +55,9 @@ public class JumpSeparateOperation implements GraphOperation {
                     fblocks.add(block);
                     continue;
                 }
-                for(int i = 0; i < block.getOpcodes().size() - 1; i++) {
-                    header.getOpcodes().add(block.getOpcodes().get(i));
-                }
-                Insn ggoto = block.getOpcodes().get(block.getOpcodes().size() - 1);
-                block.getOpcodes().clear();
-                block.getOpcodes().add(ggoto);
+                int size = block.getOpcodes().size();
+                header.setOpcodes(block, 0, size - 1);
+                block.setOpcodes(block, size - 1, size);
                 block.setBounds(block.getEnd(), block.getEnd());
                 // Have to ensure that we remap any blocks that were
                 // targeting this block to target the header.
@@ -75,12 +71,8 @@ public class JumpSeparateOperation implements GraphOperation {
                 if (cond_start > 0) {
                     OpcodeBlock header = new BodyOpcodeBlock(block.getStart(), block.getStart() + cond_start - 1);
                     block.setBounds(block.getStart() + cond_start, block.getEnd());
-                    for (int i = 0; i < cond_start; i++) {
-                        header.getOpcodes().add(block.getOpcodes().get(i));
-                    }
-                    for (int i = cond_start - 1; i >= 0; i--) {
-                        block.getOpcodes().remove(i);
-                    }
+                    header.setOpcodes(block, 0, cond_start);
+                    block.setOpcodes(block, cond_start, block.getOpcodes().size());
                     // Have to ensure that we remap any blocks that were
                     // targeting this block to target the header.
                     GraphOperation.remap(blocks, block, header);
@@ -26,7 +26,6 @@ package org.spongepowered.despector.decompiler.method.graph.operate;
 
 import static com.google.common.base.Preconditions.checkState;
 
-import org.spongepowered.despector.ast.Locals;
 import org.spongepowered.despector.ast.insn.condition.Condition;
 import org.spongepowered.despector.decompiler.method.ConditionBuilder;
 import org.spongepowered.despector.decompiler.method.PartialMethod;
@@ -71,12 +70,12 @@ public class TernaryPrePassOperation implements GraphOperation {
         for (int i = 0; i < blocks.size(); i++) {
             OpcodeBlock block = blocks.get(i);
             if (!block.isOmittedFromTernaryCheck() && AstUtil.hasStartingRequirement(block.getOpcodes())) {
-                i -= compileTernary(blocks, i, partial.getLocals());
+                i -= compileTernary(blocks, i, partial);
             }
         }
     }
 
-    private static int compileTernary(List<OpcodeBlock> blocks, int end, Locals locals) {
+    private static int compileTernary(List<OpcodeBlock> blocks, int end, PartialMethod partial) {
         if (end < 4) {
             return 0;
         }
@@ -139,11 +138,11 @@ public class TernaryPrePassOperation implements GraphOperation {
             seen.add(next);
             condition_blocks.add(0, (ConditionalOpcodeBlock) next);
         }
-        Condition cond = ConditionBuilder.makeCondition(condition_blocks, locals, first_false, first_true);
+        Condition cond = ConditionBuilder.makeCondition(partial, condition_blocks, first_false, first_true);
         TernaryBlockSection ternary = new TernaryBlockSection(cond);
         while (true_blocks.size() > 1) {
             true_blocks.add(consumer);
-            int n = compileTernary(true_blocks, true_blocks.size() - 1, locals);
+            int n = compileTernary(true_blocks, true_blocks.size() - 1, partial);
             true_blocks.remove(consumer);
             if (n == 0) {
                 break;
@@ -159,7 +158,7 @@ public class TernaryPrePassOperation implements GraphOperation {
         }
         while (false_blocks.size() > 1) {
             false_blocks.add(consumer);
-            int n = compileTernary(false_blocks, false_blocks.size() - 1, locals);
+            int n = compileTernary(false_blocks, false_blocks.size() - 1, partial);
             false_blocks.remove(consumer);
             if (n == 0) {
                 break;
@@ -37,6 +37,7 @@ import org.spongepowered.despector.decompiler.method.graph.data.opcode.BodyOpcod
 import org.spongepowered.despector.decompiler.method.graph.data.opcode.ConditionalOpcodeBlock;
 import org.spongepowered.despector.decompiler.method.graph.data.opcode.GotoOpcodeBlock;
 import org.spongepowered.despector.decompiler.method.graph.data.opcode.OpcodeBlock;
+import org.spongepowered.despector.decompiler.method.graph.data.opcode.OpcodeBlockList;
 import org.spongepowered.despector.decompiler.method.graph.data.opcode.ProcessedOpcodeBlock;
 import org.spongepowered.despector.decompiler.method.graph.data.opcode.TryCatchMarkerOpcodeBlock;
 import org.spongepowered.despector.util.AstUtil;
@@ -105,7 +106,7 @@ public class SubRegionBlockProcessor implements GraphProcessor {
             end--;
         }
 
-        List<OpcodeBlock> region = new ArrayList<>();
+        List<OpcodeBlock> region = new OpcodeBlockList();
         for (int o = i; o < end; o++) {
             region.add(blocks.get(o));
         }
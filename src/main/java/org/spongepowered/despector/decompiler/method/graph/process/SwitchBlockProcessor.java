@@ -39,6 +39,7 @@ import org.spongepowered.despector.decompiler.method.graph.data.opcode.BodyOpcod
 import org.spongepowered.despector.decompiler.method.graph.data.opcode.ConditionalOpcodeBlock;
 import org.spongepowered.despector.decompiler.method.graph.data.opcode.GotoOpcodeBlock;
 import org.spongepowered.despector.decompiler.method.graph.data.opcode.OpcodeBlock;
+import org.spongepowered.despector.decompiler.method.graph.data.opcode.OpcodeBlockList;
 import org.spongepowered.despector.decompiler.method.graph.data.opcode.SwitchOpcodeBlock;
 
 import java.util.ArrayList;
@@ -77,7 +78,7 @@ public class SwitchBlockProcessor implements GraphProcessor {
                 sswitch.addCase(cs);
                 cases.put(l.getValue(), cs);
                 cs.getTargets().add(l.getKey());
-                List<OpcodeBlock> case_region = new ArrayList<>();
+                List<OpcodeBlock> case_region = new OpcodeBlockList();
                 OpcodeBlock block = sblock.getAdditionalTargets().get(l.getKey());
                 case_region.add(block);
                 int start = blocks.indexOf(block) + 1;
@@ -196,7 +197,7 @@ public class SwitchBlockProcessor implements GraphProcessor {
                 cs = sswitch.new SwitchCaseBlockSection();
                 cases.put(ts.getDefault(), cs);
                 sswitch.addCase(cs);
-                List<OpcodeBlock> case_region = new ArrayList<>();
+                List<OpcodeBlock> case_region = new OpcodeBlockList();
                 OpcodeBlock block = sblock.getAdditionalTargets().get(-1);
                 case_region.add(block);
                 int start = blocks.indexOf(block) + 1;
@@ -39,6 +39,7 @@ import org.spongepowered.despector.decompiler.method.graph.data.block.TryCatchBl
 import org.spongepowered.despector.decompiler.method.graph.data.block.TryCatchBlockSection.CatchBlockSection;
 import org.spongepowered.despector.decompiler.method.graph.data.opcode.GotoOpcodeBlock;
 import org.spongepowered.despector.decompiler.method.graph.data.opcode.OpcodeBlock;
+import org.spongepowered.despector.decompiler.method.graph.data.opcode.OpcodeBlockList;
 import org.spongepowered.despector.decompiler.method.graph.data.opcode.TryCatchMarkerOpcodeBlock;
 
 import java.util.ArrayList;
@@ -56,7 +57,7 @@ public class TryCatchBlockProcessor implements GraphProcessor {
         if (region_start instanceof TryCatchMarkerOpcodeBlock) {
             TryCatchMarkerOpcodeBlock marker = (TryCatchMarkerOpcodeBlock) region_start;
             checkState(marker.getType() == TryCatchMarkerType.START);
-            List<OpcodeBlock> body = new ArrayList<>();
+            List<OpcodeBlock> body = new OpcodeBlockList();
             List<TryCatchMarkerOpcodeBlock> all_ends = new ArrayList<>();
 
             for (int l = blocks.indexOf(marker.getEndMarker()); l < blocks.size(); l++) {
@@ -156,7 +157,7 @@ public class TryCatchBlockProcessor implements GraphProcessor {
                         k++;
                     }
                     Locals.LocalInstance local = label_index == -1 ? null : partial.getLocals().getLocal(local_num).getInstance(label_index);
-                    List<OpcodeBlock> catch_body = new ArrayList<>();
+                    List<OpcodeBlock> catch_body = new OpcodeBlockList();
                     catch_body.add(catch_start);
                     int stop_index = -1;
                     if (end_of_catch != null && last_block != -1) {
@@ -36,6 +36,7 @@ import org.spongepowered.despector.decompiler.method.graph.data.opcode.BreakMark
 import org.spongepowered.despector.decompiler.method.graph.data.opcode.ConditionalOpcodeBlock;
 import org.spongepowered.despector.decompiler.method.graph.data.opcode.GotoOpcodeBlock;
 import org.spongepowered.despector.decompiler.method.graph.data.opcode.OpcodeBlock;
+import org.spongepowered.despector.decompiler.method.graph.data.opcode.OpcodeBlockList;
 import org.spongepowered.despector.decompiler.method.graph.data.opcode.ProcessedOpcodeBlock;
 import org.spongepowered.despector.decompiler.method.graph.data.opcode.SwitchOpcodeBlock;
 import org.spongepowered.despector.decompiler.method.graph.data.opcode.TryCatchMarkerOpcodeBlock;
@@ -94,7 +95,7 @@ public class ChildRegionProcessor implements RegionProcessor {
                     }
                 }
                 // form subregion from switch bounds
-                List<OpcodeBlock> subregion = new ArrayList<>();
+                List<OpcodeBlock> subregion = new OpcodeBlockList();
                 for (int o = i; o <= last; o++) {
                     OpcodeBlock n = region.get(o);
                     subregion.add(n);
@@ -125,7 +126,7 @@ public class ChildRegionProcessor implements RegionProcessor {
                         if (end == -1 && after_target == ret) {
                             end = region.size();
                         }
-                        List<OpcodeBlock> subregion = new ArrayList<>();
+                        List<OpcodeBlock> subregion = new OpcodeBlockList();
                         for (int o = i; o < end; o++) {
                             OpcodeBlock n = region.get(o);
                             subregion.add(n);
@@ -285,7 +286,7 @@ public class ChildRegionProcessor implements RegionProcessor {
                     System.out.println("Child region found from " + next.getStart() + " to " + region.get(end - 1).getStart());
                 }
 
-                List<OpcodeBlock> subregion = new ArrayList<>();
+                List<OpcodeBlock> subregion = new OpcodeBlockList();
                 for (int o = i; o < end; o++) {
                     OpcodeBlock n = region.get(o);
                     subregion.add(n);
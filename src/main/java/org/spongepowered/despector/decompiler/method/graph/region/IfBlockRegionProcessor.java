@@ -35,6 +35,7 @@ import org.spongepowered.despector.decompiler.method.graph.data.block.WhileBlock
 import org.spongepowered.despector.decompiler.method.graph.data.opcode.ConditionalOpcodeBlock;
 import org.spongepowered.despector.decompiler.method.graph.data.opcode.GotoOpcodeBlock;
 import org.spongepowered.despector.decompiler.method.graph.data.opcode.OpcodeBlock;
+import org.spongepowered.despector.decompiler.method.graph.data.opcode.OpcodeBlockList;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -86,7 +87,7 @@ public class IfBlockRegionProcessor implements RegionProcessor {
         }
 
         // form the condition from the header
-        Condition cond = ConditionBuilder.makeCondition(condition_blocks, partial.getLocals(), body, cond_ret);
+        Condition cond = ConditionBuilder.makeCondition(partial, condition_blocks, body, cond_ret);
         int else_start = region.size();
         if (cond_ret != ret && region.contains(cond_ret)) {
             else_start = region.indexOf(cond_ret);
@@ -111,7 +112,7 @@ public class IfBlockRegionProcessor implements RegionProcessor {
         for (int i = body_start; i < else_start; i++) {
             next = region.get(i);
             if (next instanceof ConditionalOpcodeBlock) {
-                List<OpcodeBlock> subregion = new ArrayList<>();
+                List<OpcodeBlock> subregion = new OpcodeBlockList();
                 for (int o = i; o < else_start; o++) {
                     OpcodeBlock n = region.get(o);
                     subregion.add(n);
@@ -144,7 +145,7 @@ public class IfBlockRegionProcessor implements RegionProcessor {
                         break;
                     }
                 }
-                Condition elif_cond = ConditionBuilder.makeCondition(elif_condition, partial.getLocals(), elif_body, cond_ret);
+                Condition elif_cond = ConditionBuilder.makeCondition(partial, elif_condition, elif_body, cond_ret);
                 ElifBlockSection elif = section.new ElifBlockSection(elif_cond);
                 int elif_end = region.size();
                 if (cond_ret != ret) {
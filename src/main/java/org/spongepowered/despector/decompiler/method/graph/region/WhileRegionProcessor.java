@@ -70,7 +70,7 @@ public class WhileRegionProcessor implements RegionProcessor {
             }
 
             OpcodeBlock body = region.get(1);
-            Condition cond = ConditionBuilder.makeCondition(condition_blocks, partial.getLocals(), body, ret);
+            Condition cond = ConditionBuilder.makeCondition(partial, condition_blocks, body, ret);
 
             WhileBlockSection section = new WhileBlockSection(cond);
 
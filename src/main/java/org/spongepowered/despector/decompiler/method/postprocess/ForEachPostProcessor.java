@@ -30,25 +30,18 @@ import org.spongepowered.despector.ast.insn.Instruction;
 import org.spongepowered.despector.ast.stmt.Statement;
 import org.spongepowered.despector.ast.stmt.StatementBlock;
 import org.spongepowered.despector.ast.stmt.assign.LocalAssignment;
-import org.spongepowered.despector.ast.stmt.branch.DoWhile;
 import org.spongepowered.despector.ast.stmt.branch.For;
 import org.spongepowered.despector.ast.stmt.branch.ForEach;
-import org.spongepowered.despector.ast.stmt.branch.If;
-import org.spongepowered.despector.ast.stmt.branch.If.Elif;
-import org.spongepowered.despector.ast.stmt.branch.Switch;
-import org.spongepowered.despector.ast.stmt.branch.Switch.Case;
-import org.spongepowered.despector.ast.stmt.branch.TryCatch;
-import org.spongepowered.despector.ast.stmt.branch.TryCatch.CatchBlock;
-import org.spongepowered.despector.ast.stmt.branch.While;
 import org.spongepowered.despector.ast.stmt.invoke.InstanceMethodInvoke;
 import org.spongepowered.despector.transform.matcher.ConditionMatcher;
 import org.spongepowered.despector.transform.matcher.InstructionMatcher;
 import org.spongepowered.despector.transform.matcher.MatchContext;
 import org.spongepowered.despector.transform.matcher.StatementMatcher;
-import org.spongepowered.despector.util.AstUtil;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 
 /**
  * A post processor that converts for loops to for-each loops where it is
@@ -57,7 +50,7 @@ import java.util.List;
  * <p>This handles both iterator based for each loops and loops over simple
  * arrays.</p>
  */
-public class ForEachPostProcessor implements StatementPostProcessor {
+public class ForEachPostProcessor implements FusedPostProcessor<LocalUsageIndex> {
 
     private static final StatementMatcher<For> LIST_ITERATOR = StatementMatcher.forLoop()
             .init(MatchContext.storeLocal("list_iterator", StatementMatcher.localAssign()
@@ -116,53 +109,40 @@ public class ForEachPostProcessor implements StatementPostProcessor {
                     .build())
             .build();
 
+    private static final Set<Class<? extends Statement>> TYPES = Collections.singleton(For.class);
+
     @Override
-    public void postprocess(StatementBlock block) {
+    public Set<Class<? extends Statement>> getStatementTypes() {
+        return TYPES;
+    }
+
+    @Override
+    public LocalUsageIndex createState(LocalUsageIndex usage) {
+        return usage;
+    }
+
+    @Override
+    public int process(StatementBlock block, int index, LocalUsageIndex usage) {
+        For ffor = (For) block.getStatement(index);
+        if (checkIterator(block, ffor, usage)) {
+            return index;
+        }
         List<Statement> to_remove = new ArrayList<>();
-        for (Statement stmt : block.getStatements()) {
-            if (stmt instanceof If) {
-                If iif = (If) stmt;
-                postprocess(iif.getBody());
-                for (Elif elif : iif.getElifBlocks()) {
-                    postprocess(elif.getBody());
-                }
-                if (iif.getElseBlock() != null) {
-                    postprocess(iif.getElseBlock().getBody());
-                }
-            } else if (stmt instanceof While) {
-                While wwhile = (While) stmt;
-                postprocess(wwhile.getBody());
-            } else if (stmt instanceof DoWhile) {
-                DoWhile dowhile = (DoWhile) stmt;
-                postprocess(dowhile.getBody());
-            } else if (stmt instanceof For) {
-                if (!checkIterator(block, (For) stmt)) {
-                    checkArray(block, (For) stmt, to_remove);
-                }
-                postprocess(((For) stmt).getBody());
-            } else if (stmt instanceof Switch) {
-                Switch sswitch = (Switch) stmt;
-                for (Case cs : sswitch.getCases()) {
-                    postprocess(cs.getBody());
-                }
-            } else if (stmt instanceof TryCatch) {
-                TryCatch trycatch = (TryCatch) stmt;
-                postprocess(trycatch.getTryBlock());
-                for (CatchBlock ccatch : trycatch.getCatchBlocks()) {
-                    postprocess(ccatch.getBlock());
-                }
+        if (checkArray(block, ffor, to_remove, usage)) {
+            // the array and size locals preceding the loop were removed
+            for (Statement stmt : to_remove) {
+                block.getStatements().remove(stmt);
             }
+            return index - to_remove.size();
         }
-        for (Statement stmt : to_remove) {
-            block.getStatements().remove(stmt);
-        }
+        return index;
     }
 
     /**
      * Checks if the given for loop is a collection interator and replaces it
      * with a for-each loop.
      */
-    public boolean checkIterator(StatementBlock block, For ffor) {
+    public boolean checkIterator(StatementBlock block, For ffor, LocalUsageIndex usage) {
         if (!LIST_ITERATOR.matches(MatchContext.create(), ffor)) {
             return false;
         }
@@ -170,7 +150,7 @@ public class ForEachPostProcessor implements StatementPostProcessor {
 
         for (int o = 1; o < ffor.getBody().getStatementCount(); o++) {
             Statement stmt = ffor.getBody().getStatement(o);
-            if (AstUtil.references(stmt, local)) {
+            if (usage.references(stmt, local)) {
                 return false;
             }
         }
@@ -188,7 +168,7 @@ public class ForEachPostProcessor implements StatementPostProcessor {
      * Checks if the given for loop is an array interator and replaces it with a
      * for-each loop.
      */
-    public boolean checkArray(StatementBlock block, For ffor, List<Statement> to_remove) {
+    public boolean checkArray(StatementBlock block, For ffor, List<Statement> to_remove, LocalUsageIndex usage) {
         int i = block.getStatements().indexOf(ffor);
         if (i < 2) {
             return false;
@@ -216,8 +196,8 @@ public class ForEachPostProcessor implements StatementPostProcessor {
 
         for (int o = 1; o < ffor.getBody().getStatementCount(); o++) {
             Statement stmt = ffor.getBody().getStatement(o);
-            if (AstUtil.references(stmt, ((LocalAssignment) ffor.getInit()).getLocal())
-                    || AstUtil.references(stmt, ((LocalAssignment) block.getStatement(i - 1)).getLocal())) {
+            if (usage.references(stmt, ((LocalAssignment) ffor.getInit()).getLocal())
+                    || usage.references(stmt, ((LocalAssignment) block.getStatement(i - 1)).getLocal())) {
                 return false;
             }
         }
@@ -29,29 +29,21 @@ import org.spongepowered.despector.ast.stmt.Statement;
 import org.spongepowered.despector.ast.stmt.StatementBlock;
 import org.spongepowered.despector.ast.stmt.assign.LocalAssignment;
 import org.spongepowered.despector.ast.stmt.branch.Break;
-import org.spongepowered.despector.ast.stmt.branch.DoWhile;
 import org.spongepowered.despector.ast.stmt.branch.For;
-import org.spongepowered.despector.ast.stmt.branch.If;
-import org.spongepowered.despector.ast.stmt.branch.If.Elif;
-import org.spongepowered.despector.ast.stmt.branch.Switch;
-import org.spongepowered.despector.ast.stmt.branch.Switch.Case;
-import org.spongepowered.despector.ast.stmt.branch.TryCatch;
-import org.spongepowered.despector.ast.stmt.branch.TryCatch.CatchBlock;
 import org.spongepowered.despector.ast.stmt.branch.While;
 import org.spongepowered.despector.ast.stmt.misc.Increment;
 import org.spongepowered.despector.transform.matcher.ConditionMatcher;
 import org.spongepowered.despector.transform.matcher.MatchContext;
 import org.spongepowered.despector.transform.matcher.StatementMatcher;
-import org.spongepowered.despector.util.AstUtil;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Collections;
+import java.util.Set;
 
 /**
  * A post processor that converts while loops to for loops where it is
  * determined likely that the original structure was a for loop.
  */
-public class ForFromWhilePostProcessor implements StatementPostProcessor {
+public class ForFromWhilePostProcessor implements FusedPostProcessor<LocalUsageIndex> {
 
     private static final StatementMatcher<?> STORE = MatchContext.storeLocal("loop_val", StatementMatcher.localAssign()
             .build());
@@ -59,59 +51,39 @@ public class ForFromWhilePostProcessor implements StatementPostProcessor {
             .condition(ConditionMatcher.references("loop_val"))
             .build();
 
+    private static final Set<Class<? extends Statement>> TYPES = Collections.singleton(While.class);
+
     @Override
-    public void postprocess(StatementBlock block) {
-        List<Statement> to_remove = new ArrayList<>();
-        for (Statement stmt : block.getStatements()) {
-            if (stmt instanceof If) {
-                If iif = (If) stmt;
-                postprocess(iif.getBody());
-                for (Elif elif : iif.getElifBlocks()) {
-                    postprocess(elif.getBody());
-                }
-                if (iif.getElseBlock() != null) {
-                    postprocess(iif.getElseBlock().getBody());
-                }
-            } else if (stmt instanceof While) {
-                While wwhile = (While) stmt;
-                checkWhile(block, wwhile, to_remove);
-                postprocess(wwhile.getBody());
-            } else if (stmt instanceof DoWhile) {
-                DoWhile dowhile = (DoWhile) stmt;
-                postprocess(dowhile.getBody());
-            } else if (stmt instanceof For) {
-                For ffor = (For) stmt;
-                postprocess(ffor.getBody());
-            } else if (stmt instanceof Switch) {
-                Switch sswitch = (Switch) stmt;
-                for (Case cs : sswitch.getCases()) {
-                    postprocess(cs.getBody());
-                }
-            } else if (stmt instanceof TryCatch) {
-                TryCatch trycatch = (TryCatch) stmt;
-                postprocess(trycatch.getTryBlock());
-                for (CatchBlock ccatch : trycatch.getCatchBlocks()) {
-                    postprocess(ccatch.getBlock());
-                }
-            }
-        }
-        for (Statement stmt : to_remove) {
-            block.getStatements().remove(stmt);
+    public Set<Class<? extends Statement>> getStatementTypes() {
+        return TYPES;
+    }
+
+    @Override
+    public LocalUsageIndex createState(LocalUsageIndex usage) {
+        return usage;
+    }
+
+    @Override
+    public int process(StatementBlock block, int index, LocalUsageIndex usage) {
+        if (checkWhile(block, index, usage)) {
+            // the loop initializer was moved into the for loop
+            return index - 1;
         }
+        return index;
     }
 
-    private void checkWhile(StatementBlock block, While wwhile, List<Statement> to_remove) {
-        int i = block.getStatements().indexOf(wwhile);
+    private boolean checkWhile(StatementBlock block, int i, LocalUsageIndex usage) {
+        While wwhile = (While) block.getStatement(i);
         if (i == 0) {
-            return;
+            return false;
         }
         Statement last = block.getStatement(i - 1);
         MatchContext ctx = MatchContext.create();
         if (!STORE.matches(ctx, last)) {
-            return;
+            return false;
         }
         if (!LOOP.matches(ctx, wwhile)) {
-            return;
+            return false;
         }
         LocalInstance loop_val = ctx.getLocal("loop_val");
         for (int o = i + 1; o < block.getStatementCount(); o++) {
@@ -121,8 +93,8 @@ public class ForFromWhilePostProcessor implements StatementPostProcessor {
                     break;
                 }
             }
-            if (AstUtil.references(block.getStatement(o), loop_val)) {
-                return;
+            if (usage.references(n, loop_val)) {
+                return false;
             }
         }
         StatementBlock body = wwhile.getBody();
@@ -140,8 +112,9 @@ public class ForFromWhilePostProcessor implements StatementPostProcessor {
         for (Break bbreak : wwhile.getBreaks()) {
             bbreak.setLoop(ffor);
         }
-        to_remove.add(last);
         block.getStatements().set(i, ffor);
+        block.getStatements().remove(i - 1);
+        return true;
     }
 
 }
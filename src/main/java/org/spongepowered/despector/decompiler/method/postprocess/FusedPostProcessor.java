@@ -0,0 +1,79 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Despector <https://despector.voxelgenesis.com>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.despector.decompiler.method.postprocess;
+
+import org.spongepowered.despector.ast.stmt.Statement;
+import org.spongepowered.despector.ast.stmt.StatementBlock;
+
+import java.util.Collections;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+
+/**
+ * A post processor which is driven by a shared {@link PostProcessTraversal}
+ * rather than walking the statement tree itself. Consecutive fused post
+ * processors of a method decompiler are all run from a single traversal.
+ *
+ * @param <S> The type of the per traversal state of the processor
+ */
+public interface FusedPostProcessor<S> extends StatementPostProcessor {
+
+    /**
+     * Gets the statement types that this processor should be called for, it
+     * is also called for statements of any subclass of these types.
+     */
+    Set<Class<? extends Statement>> getStatementTypes();
+
+    /**
+     * Gets if this processor should be called for a statement before the
+     * statements nested within it have been processed, rather than after.
+     */
+    default boolean isPreOrder() {
+        return false;
+    }
+
+    /**
+     * Creates the state of this processor for a new traversal. The given
+     * index of local usage is shared by all processors of the traversal.
+     */
+    @Nullable
+    default S createState(LocalUsageIndex usage) {
+        return null;
+    }
+
+    /**
+     * Processes the statement at the given index in the block. Returns the
+     * index at which the statement, or the statement that replaced it, is
+     * found once processing is complete.
+     */
+    int process(StatementBlock block, int index, @Nullable S state);
+
+    @Override
+    default void postprocess(StatementBlock block) {
+        new PostProcessTraversal(Collections.singletonList(this)).postprocess(block);
+    }
+
+}
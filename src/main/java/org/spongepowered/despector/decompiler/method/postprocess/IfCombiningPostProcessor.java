@@ -27,73 +27,56 @@ package org.spongepowered.despector.decompiler.method.postprocess;
 import org.spongepowered.despector.ast.insn.condition.AndCondition;
 import org.spongepowered.despector.ast.stmt.Statement;
 import org.spongepowered.despector.ast.stmt.StatementBlock;
-import org.spongepowered.despector.ast.stmt.branch.DoWhile;
-import org.spongepowered.despector.ast.stmt.branch.For;
 import org.spongepowered.despector.ast.stmt.branch.If;
 import org.spongepowered.despector.ast.stmt.branch.If.Elif;
-import org.spongepowered.despector.ast.stmt.branch.Switch;
-import org.spongepowered.despector.ast.stmt.branch.Switch.Case;
-import org.spongepowered.despector.ast.stmt.branch.TryCatch;
-import org.spongepowered.despector.ast.stmt.branch.TryCatch.CatchBlock;
-import org.spongepowered.despector.ast.stmt.branch.While;
+
+import java.util.Collections;
+import java.util.Set;
 
 /**
  * A post processor which cleans up nested if statements that can be simplified.
  */
-public class IfCombiningPostProcessor implements StatementPostProcessor {
+public class IfCombiningPostProcessor implements FusedPostProcessor<Void> {
+
+    private static final Set<Class<? extends Statement>> TYPES = Collections.singleton(If.class);
 
     @Override
-    public void postprocess(StatementBlock block) {
-        for (Statement stmt : block.getStatements()) {
-            if (stmt instanceof If) {
-                check((If) stmt);
-            } else if (stmt instanceof While) {
-                While wwhile = (While) stmt;
-                postprocess(wwhile.getBody());
-            } else if (stmt instanceof DoWhile) {
-                DoWhile dowhile = (DoWhile) stmt;
-                postprocess(dowhile.getBody());
-            } else if (stmt instanceof For) {
-                For ffor = (For) stmt;
-                postprocess(ffor.getBody());
-            } else if (stmt instanceof Switch) {
-                Switch sswitch = (Switch) stmt;
-                for (Case cs : sswitch.getCases()) {
-                    postprocess(cs.getBody());
-                }
-            } else if (stmt instanceof TryCatch) {
-                TryCatch trycatch = (TryCatch) stmt;
-                postprocess(trycatch.getTryBlock());
-                for (CatchBlock ccatch : trycatch.getCatchBlocks()) {
-                    postprocess(ccatch.getBlock());
-                }
-            }
-        }
+    public Set<Class<? extends Statement>> getStatementTypes() {
+        return TYPES;
+    }
+
+    @Override
+    public boolean isPreOrder() {
+        return true;
+    }
+
+    @Override
+    public int process(StatementBlock block, int index, Void state) {
+        check((If) block.getStatement(index));
+        return index;
     }
 
     /**
-     * Checks if the given if statement can be simplified.
+     * Checks if the given if statement can be simplified. The blocks nested
+     * within the if statement are not processed.
      */
     public void check(If ifblock) {
-        if (ifblock.getElifBlocks().isEmpty() && ifblock.getElseBlock() == null) {
+        while (ifblock.getElifBlocks().isEmpty() && ifblock.getElseBlock() == null) {
             StatementBlock block = ifblock.getBody();
-            if (block.getStatementCount() == 1 && block.getStatement(0) instanceof If) {
-                If inner = (If) block.getStatement(0);
-                if (inner.getElifBlocks().isEmpty() && inner.getElseBlock() == null) {
-                    ifblock.setCondition(new AndCondition(ifblock.getCondition(), inner.getCondition()));
-                    block.getStatements().clear();
-                    for (Statement stmt : inner.getBody().getStatements()) {
-                        block.append(stmt);
-                    }
-                    check(ifblock);
-                }
+            if (block.getStatementCount() != 1 || !(block.getStatement(0) instanceof If)) {
+                break;
+            }
+            If inner = (If) block.getStatement(0);
+            if (!inner.getElifBlocks().isEmpty() || inner.getElseBlock() != null) {
+                break;
+            }
+            ifblock.setCondition(new AndCondition(ifblock.getCondition(), inner.getCondition()));
+            block.getStatements().clear();
+            for (Statement stmt : inner.getBody().getStatements()) {
+                block.append(stmt);
             }
         }
-        postprocess(ifblock.getBody());
         if (!ifblock.getElifBlocks().isEmpty()) {
-            for (int i = 0; i < ifblock.getElifBlocks().size() - 1; i++) {
-                postprocess(ifblock.getElifBlocks().get(i).getBody());
-            }
             Elif last_elif = ifblock.getElifBlocks().get(ifblock.getElifBlocks().size() - 1);
             StatementBlock block = last_elif.getBody();
             if (ifblock.getElseBlock() == null) {
@@ -108,17 +91,14 @@ public class IfCombiningPostProcessor implements StatementPostProcessor {
                     }
                 }
             }
-            postprocess(block);
         }
         if (ifblock.getElseBlock() != null) {
             StatementBlock block = ifblock.getElseBlock().getBody();
             if (block.getStatementCount() == 1 && block.getStatement(0) instanceof If) {
                 If inner = (If) block.getStatement(0);
                 ifblock.new Elif(inner.getCondition(), inner.getBody());
-                postprocess(inner.getBody());
                 for (int i = 0; i < inner.getElifBlocks().size(); i++) {
                     Elif elif = inner.getElifBlocks().get(i);
-                    postprocess(elif.getBody());
                     ifblock.new Elif(elif.getCondition(), elif.getBody());
                 }
                 block.getStatements().clear();
@@ -127,8 +107,6 @@ public class IfCombiningPostProcessor implements StatementPostProcessor {
                 } else {
                     ifblock.setElseBlock(null);
                 }
-            } else {
-                postprocess(block);
             }
         }
 
@@ -0,0 +1,78 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Despector <https://despector.voxelgenesis.com>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.despector.decompiler.method.postprocess;
+
+import org.spongepowered.despector.ast.Locals.LocalInstance;
+import org.spongepowered.despector.ast.stmt.Statement;
+import org.spongepowered.despector.util.AstUtil;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An index of the locals referenced by statements within a method, used in
+ * place of walking a statement each time a post processor asks if it
+ * references a local.
+ *
+ * <p>The locals of a statement are collected the first time it is queried
+ * and cached until the statement is invalidated. A
+ * {@link PostProcessTraversal} invalidates a statement and all statements
+ * enclosing it whenever a processor replaces it or changes the size of its
+ * block.</p>
+ */
+public class LocalUsageIndex {
+
+    private final Map<Statement, Set<LocalInstance>> locals = new IdentityHashMap<>();
+
+    /**
+     * Gets if the given statement references the given local.
+     */
+    public boolean references(Statement stmt, LocalInstance local) {
+        return getLocals(stmt).contains(local);
+    }
+
+    /**
+     * Gets all locals referenced by the given statement.
+     */
+    public Set<LocalInstance> getLocals(Statement stmt) {
+        Set<LocalInstance> result = this.locals.get(stmt);
+        if (result == null) {
+            result = Collections.newSetFromMap(new IdentityHashMap<>());
+            AstUtil.collectLocals(stmt, result);
+            this.locals.put(stmt, result);
+        }
+        return result;
+    }
+
+    /**
+     * Invalidates the cached locals of the given statement.
+     */
+    public void invalidate(Statement stmt) {
+        this.locals.remove(stmt);
+    }
+
+}
@@ -0,0 +1,232 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Despector <https://despector.voxelgenesis.com>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.despector.decompiler.method.postprocess;
+
+import org.spongepowered.despector.ast.stmt.Statement;
+import org.spongepowered.despector.ast.stmt.StatementBlock;
+import org.spongepowered.despector.ast.stmt.branch.DoWhile;
+import org.spongepowered.despector.ast.stmt.branch.For;
+import org.spongepowered.despector.ast.stmt.branch.ForEach;
+import org.spongepowered.despector.ast.stmt.branch.If;
+import org.spongepowered.despector.ast.stmt.branch.If.Elif;
+import org.spongepowered.despector.ast.stmt.branch.Switch;
+import org.spongepowered.despector.ast.stmt.branch.Switch.Case;
+import org.spongepowered.despector.ast.stmt.branch.TryCatch;
+import org.spongepowered.despector.ast.stmt.branch.TryCatch.CatchBlock;
+import org.spongepowered.despector.ast.stmt.branch.While;
+import org.spongepowered.despector.config.LibraryConfiguration;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Runs a set of {@link FusedPostProcessor}s from a single traversal of a
+ * statement tree.
+ *
+ * <p>Each statement is passed to the pre-order processors interested in its
+ * type, that is those with a {@link FusedPostProcessor#getStatementTypes()
+ * statement type} the statement is an instance of, then the blocks nested within it are traversed, then it is passed to
+ * the post-order processors. Processors are called in the order they were
+ * given. If a processor replaces the statement then the processors after it
+ * are called for the replacement instead, chosen by the type of the
+ * replacement. The processors for each concrete statement class are resolved
+ * once and cached.</p>
+ *
+ * <p>The traversal keeps a {@link LocalUsageIndex} for its processors, any
+ * rewrite which replaces a statement or changes the size of a block
+ * invalidates the rewritten statement and the statements enclosing it.</p>
+ */
+public class PostProcessTraversal implements StatementPostProcessor {
+
+    private static final int[] NONE = new int[0];
+
+    private final FusedPostProcessor<?>[] processors;
+    private final Class<?>[][] types;
+    private final Map<Class<?>, int[]> pre = new ConcurrentHashMap<>();
+    private final Map<Class<?>, int[]> post = new ConcurrentHashMap<>();
+
+    public PostProcessTraversal(List<? extends FusedPostProcessor<?>> processors) {
+        this.processors = processors.toArray(new FusedPostProcessor<?>[processors.size()]);
+        this.types = new Class<?>[this.processors.length][];
+        for (int i = 0; i < this.processors.length; i++) {
+            Set<Class<? extends Statement>> types = this.processors[i].getStatementTypes();
+            this.types[i] = types.toArray(new Class<?>[types.size()]);
+        }
+    }
+
+    /**
+     * Gets the processors run by this traversal.
+     */
+    public List<FusedPostProcessor<?>> getProcessors() {
+        return Arrays.asList(this.processors);
+    }
+
+    @Override
+    public void postprocess(StatementBlock block) {
+        Run run = new Run();
+        for (int i = 0; i < this.processors.length; i++) {
+            run.states[i] = this.processors[i].createState(run.usage);
+        }
+        visit(block, run);
+    }
+
+    private void visit(StatementBlock block, Run run) {
+        List<Statement> statements = block.getStatements();
+        for (int i = 0; i < statements.size(); i++) {
+            i = dispatch(this.pre, block, i, run);
+            if (i >= statements.size()) {
+                break;
+            }
+            Statement stmt = statements.get(i);
+            run.enclosing.push(stmt);
+            if (stmt instanceof If) {
+                If iif = (If) stmt;
+                visit(iif.getBody(), run);
+                for (Elif elif : iif.getElifBlocks()) {
+                    visit(elif.getBody(), run);
+                }
+                if (iif.getElseBlock() != null) {
+                    visit(iif.getElseBlock().getBody(), run);
+                }
+            } else if (stmt instanceof While) {
+                visit(((While) stmt).getBody(), run);
+            } else if (stmt instanceof DoWhile) {
+                visit(((DoWhile) stmt).getBody(), run);
+            } else if (stmt instanceof For) {
+                visit(((For) stmt).getBody(), run);
+            } else if (stmt instanceof ForEach) {
+                visit(((ForEach) stmt).getBody(), run);
+            } else if (stmt instanceof Switch) {
+                for (Case cs : ((Switch) stmt).getCases()) {
+                    visit(cs.getBody(), run);
+                }
+            } else if (stmt instanceof TryCatch) {
+                TryCatch trycatch = (TryCatch) stmt;
+                visit(trycatch.getTryBlock(), run);
+                for (CatchBlock ccatch : trycatch.getCatchBlocks()) {
+                    visit(ccatch.getBlock(), run);
+                }
+            }
+            run.enclosing.pop();
+            i = dispatch(this.post, block, i, run);
+            if (i >= statements.size()) {
+                break;
+            }
+        }
+    }
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private int dispatch(Map<Class<?>, int[]> phase, StatementBlock block, int index, Run run) {
+        Statement stmt = block.getStatement(index);
+        int[] procs = getProcessors(phase, stmt.getClass());
+        for (int p = 0; p < procs.length; p++) {
+            int n = procs[p];
+            if (run.failed[n]) {
+                continue;
+            }
+            FusedPostProcessor proc = this.processors[n];
+            int size = block.getStatementCount();
+            try {
+                index = proc.process(block, index, run.states[n]);
+            } catch (Exception e) {
+                run.failed[n] = true;
+                run.invalidate(stmt);
+                if (!LibraryConfiguration.quiet) {
+                    System.err.println("Failed to apply post processor: " + proc.getClass().getSimpleName());
+                    e.printStackTrace();
+                }
+                return Math.min(index, block.getStatementCount());
+            }
+            Statement next = block.getStatement(index);
+            if (next != stmt || size != block.getStatementCount()) {
+                run.invalidate(stmt);
+            }
+            if (next.getClass() != stmt.getClass()) {
+                // the statement was replaced by one of a different type, find
+                // the processors for the new type which come after this one
+                procs = getProcessors(phase, next.getClass());
+                p = -1;
+                while (p + 1 < procs.length && procs[p + 1] <= n) {
+                    p++;
+                }
+            }
+            stmt = next;
+        }
+        return index;
+    }
+
+    /**
+     * Gets the indices of the processors of the given phase which are called
+     * for statements of the given class, in the order the processors were
+     * given.
+     */
+    private int[] getProcessors(Map<Class<?>, int[]> phase, Class<?> type) {
+        int[] procs = phase.get(type);
+        if (procs != null) {
+            return procs;
+        }
+        boolean pre_order = phase == this.pre;
+        procs = NONE;
+        for (int i = 0; i < this.processors.length; i++) {
+            if (this.processors[i].isPreOrder() != pre_order) {
+                continue;
+            }
+            for (Class<?> target : this.types[i]) {
+                if (target.isAssignableFrom(type)) {
+                    procs = Arrays.copyOf(procs, procs.length + 1);
+                    procs[procs.length - 1] = i;
+                    break;
+                }
+            }
+        }
+        phase.put(type, procs);
+        return procs;
+    }
+
+    /**
+     * The state of a single run of the traversal.
+     */
+    private class Run {
+
+        private final Object[] states = new Object[PostProcessTraversal.this.processors.length];
+        private final boolean[] failed = new boolean[PostProcessTraversal.this.processors.length];
+        private final LocalUsageIndex usage = new LocalUsageIndex();
+        private final Deque<Statement> enclosing = new ArrayDeque<>();
+
+        void invalidate(Statement stmt) {
+            this.usage.invalidate(stmt);
+            for (Statement parent : this.enclosing) {
+                this.usage.invalidate(parent);
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,73 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Despector <https://despector.voxelgenesis.com>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.despector.decompiler.method.special;
+
+import org.spongepowered.despector.ast.insn.condition.Condition;
+import org.spongepowered.despector.decompiler.method.ConditionBuilder;
+import org.spongepowered.despector.decompiler.method.ConditionDiagram;
+import org.spongepowered.despector.decompiler.method.PartialMethod;
+import org.spongepowered.despector.decompiler.method.graph.data.opcode.ConditionalOpcodeBlock;
+import org.spongepowered.despector.decompiler.method.graph.data.opcode.OpcodeBlock;
+
+import java.util.List;
+
+/**
+ * A condition processor which forms conditions from a
+ * {@link ConditionDiagram} rather than by enumerating every path through the
+ * conditional jumps.
+ */
+public class DecisionDiagramConditionProcessor implements ConditionProcessor {
+
+    @Override
+    public Condition makeCondition(PartialMethod mth, List<ConditionalOpcodeBlock> blocks, OpcodeBlock body, OpcodeBlock ret) {
+        ConditionDiagram diagram = new ConditionDiagram(blocks.size());
+        for (int i = 0; i < blocks.size(); i++) {
+            ConditionalOpcodeBlock next = blocks.get(i);
+            Condition simple = ConditionBuilder.makeSimpleCondition(next, mth.getLocals());
+            diagram.setNode(i, simple, target(blocks, next.getTarget(), body, ret), target(blocks, next.getElseTarget(), body, ret));
+        }
+        Condition condition = diagram.toCondition(0);
+        if (condition == null) {
+            // the diagram could not be reduced to a condition, fall back to
+            // enumerating the paths
+            return ConditionBuilder.makeCondition(blocks, mth.getLocals(), body, ret);
+        }
+        return condition;
+    }
+
+    private static int target(List<ConditionalOpcodeBlock> blocks, OpcodeBlock target, OpcodeBlock body, OpcodeBlock ret) {
+        if (target == body) {
+            return ConditionDiagram.TRUE;
+        } else if (target == ret) {
+            return ConditionDiagram.FALSE;
+        }
+        int index = blocks.indexOf(target);
+        if (index == -1) {
+            throw new IllegalStateException("Condition target was unknown block " + target.getStart());
+        }
+        return index;
+    }
+
+}
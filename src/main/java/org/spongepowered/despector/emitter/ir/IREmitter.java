@@ -46,7 +46,7 @@ public class IREmitter implements Emitter<JavaEmitterContext> {
         setup(ctx);
         long emitting_start = System.nanoTime();
         ctx.emitOuterType(type);
-        Timing.time_emitting += System.nanoTime() - emitting_start;
+        Timing.addEmittingTime(System.nanoTime() - emitting_start);
     }
 
 }
@@ -136,7 +136,14 @@ public class ImportManager {
             check(field);
         }
         for (InnerClassInfo info : type.getInnerClasses()) {
-            TypeEntry inner = type.getSource().get(info.getName());
+            // only the inner classes emitted as part of this type need their
+            // method bodies, others are only referenced
+            TypeEntry inner;
+            if (type.getName().equals(info.getOuterName()) || (info.getOuterName() == null && info.getName().startsWith(type.getName() + "$"))) {
+                inner = type.getSource().getFull(info.getName());
+            } else {
+                inner = type.getSource().get(info.getName());
+            }
             if (inner != null && inner != type) {
                 calculateImports(inner);
             }
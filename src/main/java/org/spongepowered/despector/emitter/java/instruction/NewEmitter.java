@@ -52,7 +52,7 @@ public class NewEmitter implements InstructionEmitter<JavaEmitterContext, New> {
             int last_inner_class = last.lastIndexOf('$');
             last = last.substring(last_inner_class + 1);
             if (last.matches("[0-9]+")) {
-                TypeEntry anon_type = ctx.getType().getSource().get(arg.getType().getName());
+                TypeEntry anon_type = ctx.getType().getSource().getFull(arg.getType().getName());
                 if (anon_type != null) {
                     AnonymousClassEmitter emitter = ctx.getEmitterSet().getSpecialEmitter(AnonymousClassEmitter.class);
                     emitter.emit(ctx, (ClassEntry) anon_type, arg);
@@ -101,7 +101,7 @@ public class StaticMethodInvokeEmitter implements InstructionEmitter<JavaEmitter
     protected boolean replaceSyntheticAccessor(JavaEmitterContext ctx, StaticMethodInvoke arg, String owner) {
         // synthetic accessor
         // we resolve these to the field that they are accessing directly
-        TypeEntry owner_type = ctx.getType().getSource().get(owner);
+        TypeEntry owner_type = ctx.getType().getSource().getFull(owner);
         if (owner_type != null) {
             MethodEntry accessor = owner_type.getStaticMethod(arg.getMethodName());
             Statement stmt0 = accessor.getInstructions().getStatements().get(0);
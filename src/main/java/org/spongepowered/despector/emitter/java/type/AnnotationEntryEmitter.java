@@ -244,7 +244,7 @@ public class AnnotationEntryEmitter implements AstEmitter<JavaEmitterContext, An
             if (inner.getOuterName() == null || !inner.getOuterName().equals(type.getName())) {
                 continue;
             }
-            TypeEntry inner_type = type.getSource().get(inner.getName());
+            TypeEntry inner_type = type.getSource().getFull(inner.getName());
             ctx.newLine();
             ctx.emit(inner_type);
         }
@@ -143,7 +143,7 @@ public class ClassEntryEmitter implements AstEmitter<JavaEmitterContext, ClassEn
             if (inner.getOuterName() == null || !inner.getOuterName().equals(type.getName())) {
                 continue;
             }
-            TypeEntry inner_type = type.getSource().get(inner.getName());
+            TypeEntry inner_type = type.getSource().getFull(inner.getName());
             if (inner_type != null) {
                 ctx.newLine();
                 ctx.emit(inner_type);
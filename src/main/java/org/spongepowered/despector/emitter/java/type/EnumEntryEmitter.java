@@ -291,7 +291,7 @@ public class EnumEntryEmitter implements AstEmitter<JavaEmitterContext, EnumEntr
             if (inner.getOuterName() == null || !inner.getOuterName().equals(type.getName())) {
                 continue;
             }
-            TypeEntry inner_type = type.getSource().get(inner.getName());
+            TypeEntry inner_type = type.getSource().getFull(inner.getName());
             ctx.newLine();
             ctx.emit(inner_type);
         }
@@ -147,7 +147,7 @@ public class KotlinClassEntryEmitter implements AstEmitter<JavaEmitterContext, C
             if (inner.getOuterName() == null || !inner.getOuterName().equals(type.getName())) {
                 continue;
             }
-            TypeEntry inner_type = type.getSource().get(inner.getName());
+            TypeEntry inner_type = type.getSource().getFull(inner.getName());
             ctx.emit(inner_type);
             ctx.newLine();
         }
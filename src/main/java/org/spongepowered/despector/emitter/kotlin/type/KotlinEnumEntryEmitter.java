@@ -294,7 +294,7 @@ public class KotlinEnumEntryEmitter implements AstEmitter<JavaEmitterContext, En
             if (inner.getOuterName() == null || !inner.getOuterName().equals(type.getName())) {
                 continue;
             }
-            TypeEntry inner_type = type.getSource().get(inner.getName());
+            TypeEntry inner_type = type.getSource().getFull(inner.getName());
             ctx.newLine();
             ctx.emit(inner_type);
         }
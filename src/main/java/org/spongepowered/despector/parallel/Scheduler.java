@@ -24,16 +24,25 @@
  */
 package org.spongepowered.despector.parallel;
 
+import org.spongepowered.despector.config.LibraryConfiguration;
+
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.ReentrantLock;
 
+/**
+ * Runs a batch of tasks over a fixed number of worker threads. Each worker
+ * owns a deque of tasks and once it runs out of work it steals pending tasks
+ * from the tail of the other workers' deques so that a few expensive tasks do
+ * not leave the remaining workers idle.
+ */
 public class Scheduler<T extends Runnable> {
 
     private static final int PARALLEL_THRESHOLD = 100;
 
-    private final Worker<T>[] workers;
+    private final Worker[] workers;
     private final List<T> tasks = new ArrayList<>();
 
     private ReentrantLock lock = new ReentrantLock();
@@ -45,7 +54,7 @@ public class Scheduler<T extends Runnable> {
         if (workers <= 0) {
             workers = 1;
         }
-        this.workers = new Worker[workers];
+        this.workers = new Scheduler.Worker[workers];
     }
 
     public void add(T task) {
@@ -56,6 +65,10 @@ public class Scheduler<T extends Runnable> {
         return this.tasks;
     }
 
+    public int getWorkerCount() {
+        return this.workers.length;
+    }
+
     public void execute() {
         if (this.tasks.size() < PARALLEL_THRESHOLD) {
             for (T task : this.tasks) {
@@ -64,26 +77,48 @@ public class Scheduler<T extends Runnable> {
             return;
         }
         for (int i = 0; i < this.workers.length; i++) {
-            this.workers[i] = new Worker<>();
+            this.workers[i] = new Worker(i);
         }
-        int i = 0;
-        for (T task : this.tasks) {
-            this.workers[i % this.workers.length].add(task);
-            i++;
+        if (LibraryConfiguration.work_stealing) {
+            // deal out contiguous runs of tasks so that thieves taking from the
+            // tail of a deque do not contend with its owner taking from the
+            // head
+            int per_worker = (this.tasks.size() + this.workers.length - 1) / this.workers.length;
+            int i = 0;
+            for (T task : this.tasks) {
+                this.workers[i / per_worker].add(task);
+                i++;
+            }
+        } else {
+            // without stealing the tasks are dealt round robin as in the fixed
+            // partitioning
+            int i = 0;
+            for (T task : this.tasks) {
+                this.workers[i % this.workers.length].add(task);
+                i++;
+            }
         }
         this.finished_count = 0;
-        for (Worker<T> worker : this.workers) {
+        long start = System.nanoTime();
+        for (Worker worker : this.workers) {
             worker.start();
         }
         try {
             this.lock.lock();
-            this.finished.await();
+            while (this.finished_count < this.workers.length) {
+                this.finished.await();
+            }
         } catch (InterruptedException e) {
             e.printStackTrace();
         } finally {
             this.lock.unlock();
         }
+        long wall_time = System.nanoTime() - start;
+        Timing.time_parallel_available += wall_time * this.workers.length;
         for (int j = 0; j < this.workers.length; j++) {
+            Worker worker = this.workers[j];
+            Timing.time_parallel_busy += worker.busy_time;
+            Timing.parallel_tasks_stolen += worker.stolen;
             this.workers[j] = null;
         }
     }
@@ -104,11 +139,31 @@ public class Scheduler<T extends Runnable> {
         }
     }
 
-    private class Worker<R> extends Thread {
+    T steal(int thief) {
+        if (!LibraryConfiguration.work_stealing) {
+            return null;
+        }
+        for (int i = 1; i < this.workers.length; i++) {
+            Worker victim = this.workers[(thief + i) % this.workers.length];
+            T task = victim.tasks.pollLast();
+            if (task != null) {
+                return task;
+            }
+        }
+        return null;
+    }
 
-        private final List<T> tasks = new ArrayList<>();
+    private class Worker extends Thread {
 
-        Worker() {
+        private final int index;
+        private final ConcurrentLinkedDeque<T> tasks = new ConcurrentLinkedDeque<>();
+
+        long busy_time;
+        int stolen;
+
+        Worker(int index) {
+            this.index = index;
+            setName("despector-worker-" + index);
         }
 
         public void add(T task) {
@@ -117,10 +172,22 @@ public class Scheduler<T extends Runnable> {
 
         @Override
         public void run() {
-            for (T task : this.tasks) {
-                task.run();
+            long start = System.nanoTime();
+            try {
+                T task;
+                while ((task = this.tasks.pollFirst()) != null) {
+                    task.run();
+                }
+                // no new tasks are added once execution has started so once
+                // every other deque is empty this worker is done
+                while ((task = Scheduler.this.steal(this.index)) != null) {
+                    this.stolen++;
+                    task.run();
+                }
+            } finally {
+                this.busy_time = System.nanoTime() - start;
+                Scheduler.this.markWorkerDone();
             }
-            Scheduler.this.markWorkerDone();
         }
 
     }
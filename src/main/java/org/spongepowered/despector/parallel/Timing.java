@@ -31,4 +31,16 @@ public class Timing {
     public static long time_loading_classes = 0;
     public static long time_emitting = 0;
 
+    public static long time_parallel_available = 0;
+    public static long time_parallel_busy = 0;
+    public static int parallel_tasks_stolen = 0;
+
+    /**
+     * Adds the given time to the total emitting time. Types may be emitted
+     * from several worker threads at once.
+     */
+    public static synchronized void addEmittingTime(long time) {
+        time_emitting += time;
+    }
+
 }
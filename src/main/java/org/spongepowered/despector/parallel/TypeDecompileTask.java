@@ -0,0 +1,223 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Despector <https://despector.voxelgenesis.com>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.despector.parallel;
+
+import org.spongepowered.despector.Language;
+import org.spongepowered.despector.ast.Annotation;
+import org.spongepowered.despector.ast.Locals.Local;
+import org.spongepowered.despector.ast.generic.MethodSignature;
+import org.spongepowered.despector.ast.insn.Instruction;
+import org.spongepowered.despector.ast.insn.cst.StringConstant;
+import org.spongepowered.despector.ast.stmt.Statement;
+import org.spongepowered.despector.ast.stmt.StatementBlock;
+import org.spongepowered.despector.ast.stmt.assign.StaticFieldAssignment;
+import org.spongepowered.despector.ast.stmt.invoke.New;
+import org.spongepowered.despector.ast.stmt.misc.Comment;
+import org.spongepowered.despector.ast.type.EnumEntry;
+import org.spongepowered.despector.ast.type.MethodEntry;
+import org.spongepowered.despector.ast.type.TypeEntry;
+import org.spongepowered.despector.config.ConfigManager;
+import org.spongepowered.despector.config.LibraryConfiguration;
+import org.spongepowered.despector.decompiler.BaseDecompiler;
+import org.spongepowered.despector.decompiler.BaseDecompiler.BootstrapMethod;
+import org.spongepowered.despector.decompiler.BaseDecompiler.UnfinishedMethod;
+import org.spongepowered.despector.decompiler.Decompilers;
+import org.spongepowered.despector.decompiler.ir.Insn;
+import org.spongepowered.despector.decompiler.ir.InsnBlock;
+import org.spongepowered.despector.decompiler.loader.BytecodeTranslator;
+import org.spongepowered.despector.decompiler.loader.ClassConstantPool;
+import org.spongepowered.despector.decompiler.method.MethodDecompiler;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A task which decompiles all method bodies of a type and then adds the
+ * finished type to its source set. When run in parallel the individual method
+ * bodies are split off into {@link MethodDecompileTask}s and the last one to
+ * finish completes the type.
+ */
+public class TypeDecompileTask implements Runnable {
+
+    private final TypeEntry entry;
+    private final ClassConstantPool pool;
+    private final List<UnfinishedMethod> unfinished_methods;
+    private final BytecodeTranslator bytecode;
+    private final List<BootstrapMethod> bootstrap_methods;
+
+    private final AtomicInteger remaining = new AtomicInteger();
+    private StatementBlock static_initializer;
+
+    public TypeDecompileTask(TypeEntry entry, ClassConstantPool pool, List<UnfinishedMethod> unfinished_methods, BytecodeTranslator bytecode,
+            List<BootstrapMethod> bootstrap_methods) {
+        this.entry = entry;
+        this.pool = pool;
+        this.unfinished_methods = unfinished_methods;
+        this.bytecode = bytecode;
+        this.bootstrap_methods = bootstrap_methods;
+    }
+
+    public TypeEntry getEntry() {
+        return this.entry;
+    }
+
+    /**
+     * Creates a task for each method body of this type. Once all of the
+     * returned tasks have been run the type is finished and added to its
+     * source set. If the type has no method bodies then it is finished
+     * immediately and the returned list is empty.
+     */
+    public List<MethodDecompileTask> split() {
+        List<MethodDecompileTask> tasks = new ArrayList<>();
+        for (UnfinishedMethod unfinished : this.unfinished_methods) {
+            if (unfinished.code != null) {
+                tasks.add(new MethodDecompileTask(this, unfinished));
+            }
+        }
+        this.remaining.set(tasks.size());
+        if (tasks.isEmpty()) {
+            finish();
+        }
+        return tasks;
+    }
+
+    @Override
+    public void run() {
+        for (UnfinishedMethod unfinished : this.unfinished_methods) {
+            if (unfinished.code == null) {
+                continue;
+            }
+            decompileMethod(unfinished);
+        }
+        finish();
+    }
+
+    void methodFinished() {
+        if (this.remaining.decrementAndGet() == 0) {
+            finish();
+        }
+    }
+
+    void decompileMethod(UnfinishedMethod unfinished) {
+        LibraryConfiguration.total_method_count++;
+        MethodEntry mth = unfinished.mth;
+        try {
+            mth.setIR(this.bytecode.createIR(mth.getMethodSignature(), unfinished.code, mth.getLocals(), unfinished.catch_regions, this.pool,
+                    this.bootstrap_methods));
+
+            if (unfinished.parameter_annotations != null) {
+                for (Map.Entry<Integer, List<Annotation>> e : unfinished.parameter_annotations.entrySet()) {
+                    Local loc = mth.getLocals().getLocal(e.getKey());
+                    loc.getInstance(0).getAnnotations().addAll(e.getValue());
+                }
+            }
+
+            if (BaseDecompiler.DUMP_IR_ON_LOAD) {
+                System.out.println("Instructions of " + mth.getName() + " " + mth.getDescription());
+                System.out.println(mth.getIR());
+            }
+            MethodDecompiler mth_decomp = Decompilers.JAVA_METHOD;
+            if (this.entry.getLanguage() == Language.KOTLIN) {
+                mth_decomp = Decompilers.KOTLIN_METHOD;
+            }
+            StatementBlock block = mth_decomp.decompile(mth);
+            mth.setInstructions(block);
+
+            if (mth.getName().equals("<clinit>")) {
+                this.static_initializer = block;
+            }
+        } catch (Exception ex) {
+            if (!LibraryConfiguration.quiet) {
+                System.err.println("Error decompiling method body for " + this.entry.getName() + " " + mth.toString());
+                ex.printStackTrace();
+            }
+            LibraryConfiguration.failed_method_count++;
+            StatementBlock insns = new StatementBlock(StatementBlock.Type.METHOD);
+            if (ConfigManager.getConfig().print_opcodes_on_error) {
+                List<String> text = new ArrayList<>();
+                text.add("Error decompiling block");
+                if (mth.getIR() != null) {
+                    for (Insn next : mth.getIR()) {
+                        text.add(next.toString());
+                    }
+                } else {
+                    mth.getLocals().bakeInstances(new MethodSignature(), new InsnBlock());
+                }
+                insns.append(new Comment(text));
+            } else {
+                insns.append(new Comment("Error decompiling block"));
+            }
+            mth.setInstructions(insns);
+        }
+    }
+
+    private void finish() {
+        try {
+            if (this.entry instanceof EnumEntry && this.static_initializer != null) {
+                findEnumConstants((EnumEntry) this.entry, this.static_initializer);
+            }
+        } catch (Exception ex) {
+            if (!LibraryConfiguration.quiet) {
+                System.err.println("Error finding enum constants for " + this.entry.getName());
+                ex.printStackTrace();
+            }
+        } finally {
+            this.entry.getSource().add(this.entry);
+        }
+    }
+
+    private void findEnumConstants(EnumEntry e, StatementBlock block) {
+        Set<String> names = new HashSet<>(e.getEnumConstants());
+        e.getEnumConstants().clear();
+        for (Statement stmt : block) {
+            if (names.isEmpty() || !(stmt instanceof StaticFieldAssignment)) {
+                break;
+            }
+            StaticFieldAssignment assign = (StaticFieldAssignment) stmt;
+            if (!names.contains(assign.getFieldName())) {
+                break;
+            }
+            Instruction val = assign.getValue();
+            if (!(val instanceof New) || ((New) val).getParameters().length == 0
+                    || !(((New) val).getParameters()[0] instanceof StringConstant)) {
+                // the field name is the constant name unless the enum has
+                // been obfuscated, it is reported as unresolved below
+                e.addEnumConstant(assign.getFieldName());
+                continue;
+            }
+            names.remove(assign.getFieldName());
+            StringConstant cst = (StringConstant) ((New) val).getParameters()[0];
+            e.addEnumConstant(cst.getConstant());
+        }
+        if (!names.isEmpty() && !LibraryConfiguration.quiet) {
+            System.err.println("Warning: Failed to find names for enum constants " + names + " in " + e.getName());
+        }
+    }
+
+}
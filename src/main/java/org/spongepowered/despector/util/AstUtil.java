@@ -58,6 +58,7 @@ import org.spongepowered.despector.decompiler.ir.InvokeInsn;
 import org.spongepowered.despector.decompiler.ir.TypeIntInsn;
 
 import java.util.List;
+import java.util.Set;
 
 /**
  * Various utilities for working with AST elements.
@@ -304,15 +305,31 @@ public final class AstUtil {
     }
 
     /**
-     * A visitor that looks for references to a given local.
+     * Adds every local referenced by the given statement to the given set.
+     */
+    public static void collectLocals(Statement stmt, Set<LocalInstance> locals) {
+        LocalFinder visitor = new LocalFinder(locals);
+        stmt.accept(visitor);
+    }
+
+    /**
+     * A visitor that looks for references to a given local, or collects all
+     * referenced locals.
      */
     private static class LocalFinder implements InstructionVisitor {
 
         private final LocalInstance local;
+        private final Set<LocalInstance> collected;
         private boolean found = false;
 
         public LocalFinder(LocalInstance l) {
             this.local = l;
+            this.collected = null;
+        }
+
+        public LocalFinder(Set<LocalInstance> collected) {
+            this.local = null;
+            this.collected = collected;
         }
 
         public boolean isFound() {
@@ -321,6 +338,10 @@ public final class AstUtil {
 
         @Override
         public void visitLocalInstance(LocalInstance local) {
+            if (this.collected != null) {
+                this.collected.add(local);
+                return;
+            }
             if (this.local == local || (this.local == null && local.getIndex() > 0)) {
                 this.found = true;
             }
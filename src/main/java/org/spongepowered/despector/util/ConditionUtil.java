@@ -30,9 +30,11 @@ import org.spongepowered.despector.ast.insn.condition.CompareCondition;
 import org.spongepowered.despector.ast.insn.condition.Condition;
 import org.spongepowered.despector.ast.insn.condition.InverseCondition;
 import org.spongepowered.despector.ast.insn.condition.OrCondition;
+import org.spongepowered.despector.config.LibraryConfiguration;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -277,22 +279,25 @@ public final class ConditionUtil {
         return null;
     }
 
-    private static Condition reverse(Map<Condition, Integer> mapping, int val) {
+    /**
+     * Creates the reverse of the given mapping. Where several conditions share
+     * a value the first in the iteration order of the mapping is used.
+     */
+    private static Map<Integer, Condition> reverse(Map<Condition, Integer> mapping) {
+        Map<Integer, Condition> reverse = new HashMap<>();
         for (Map.Entry<Condition, Integer> e : mapping.entrySet()) {
-            if (e.getValue() == val) {
-                return e.getKey();
-            }
+            reverse.putIfAbsent(e.getValue(), e.getKey());
         }
-        return null;
+        return reverse;
     }
 
-    private static Condition decode(int[] next, Map<Condition, Integer> mapping) {
+    private static Condition decode(int[] next, Map<Integer, Condition> mapping) {
         List<Condition> partial = new ArrayList<>();
         for (int o = 0; o < next.length; o++) {
             int val = next[o];
-            Condition p = reverse(mapping, val);
+            Condition p = mapping.get(val);
             if (p == null) {
-                p = inverse(reverse(mapping, -val));
+                p = inverse(mapping.get(-val));
                 if (p == null) {
                     throw new IllegalStateException();
                 }
@@ -305,7 +310,7 @@ public final class ConditionUtil {
         return new AndCondition(partial);
     }
 
-    private static List<Condition> decode(List<int[]> encodings, Map<Condition, Integer> mapping) {
+    private static List<Condition> decode(List<int[]> encodings, Map<Integer, Condition> mapping) {
         List<Condition> reverse = new ArrayList<>();
         for (int i = 0; i < encodings.size(); i++) {
             int[] next = encodings.get(i);
@@ -465,7 +470,7 @@ public final class ConditionUtil {
         return new BisectionResult(min_a, b, group1, remaining2);
     }
 
-    private static Condition postsimplify(List<int[]> encodings, Map<Condition, Integer> mapping) {
+    private static Condition postsimplify(List<int[]> encodings, Map<Integer, Condition> mapping) {
         BisectionResult bisection = findBiscection(encodings);
         if (bisection != null) {
             if (bisection.second == null) {
@@ -538,15 +543,177 @@ public final class ConditionUtil {
         return null;
     }
 
+    private static boolean isSubset(BitSet a, BitSet b, BitSet scratch) {
+        scratch.clear();
+        scratch.or(a);
+        scratch.andNot(b);
+        return scratch.isEmpty();
+    }
+
+    private static int[] without(int[] cube, int value) {
+        int[] result = new int[cube.length - 1];
+        int d = 0;
+        for (int i = 0; i < cube.length; i++) {
+            if (cube[i] != value) {
+                result[d++] = cube[i];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * A bounded heuristic reduction of a sum of products, used where the full
+     * simplification is too expensive.
+     *
+     * <p>Every cube is encoded as bit sets of its positive and negated
+     * literals. Pairs of cubes are then repeatedly compared and a cube is
+     * removed if it is subsumed by another (ab + abc = ab), or the negated
+     * literal is dropped from a cube if it differs from another only by that
+     * literal (ab + a!bc = ab + ac, which also merges adjacent cubes). Each
+     * reduction leaves an equivalent expression so the cubes are returned as
+     * they are when the step budget runs out.</p>
+     */
+    private static List<int[]> coverCubes(List<int[]> encodings, int steps) {
+        List<int[]> cubes = new ArrayList<>(encodings);
+        List<BitSet> pos = new ArrayList<>(cubes.size());
+        List<BitSet> neg = new ArrayList<>(cubes.size());
+        for (int[] cube : cubes) {
+            BitSet p = new BitSet();
+            BitSet n = new BitSet();
+            for (int value : cube) {
+                if (value > 0) {
+                    p.set(value);
+                } else {
+                    n.set(-value);
+                }
+            }
+            pos.add(p);
+            neg.add(n);
+        }
+        BitSet scratch = new BitSet();
+        BitSet conflict_pos = new BitSet();
+        BitSet conflict_neg = new BitSet();
+        boolean changed = true;
+        search: while (changed) {
+            changed = false;
+            for (int i = 0; i < cubes.size(); i++) {
+                for (int j = 0; j < cubes.size(); j++) {
+                    if (i == j) {
+                        continue;
+                    }
+                    if (--steps < 0) {
+                        break search;
+                    }
+                    BitSet ap = pos.get(i);
+                    BitSet an = neg.get(i);
+                    BitSet bp = pos.get(j);
+                    BitSet bn = neg.get(j);
+                    if (isSubset(ap, bp, scratch) && isSubset(an, bn, scratch)) {
+                        // any time the second cube is true the first is as well
+                        cubes.remove(j);
+                        pos.remove(j);
+                        neg.remove(j);
+                        if (j < i) {
+                            i--;
+                        }
+                        j--;
+                        changed = true;
+                        continue;
+                    }
+                    int[] b = cubes.get(j);
+                    if (b.length == 1) {
+                        continue;
+                    }
+                    conflict_pos.clear();
+                    conflict_pos.or(ap);
+                    conflict_pos.and(bn);
+                    conflict_neg.clear();
+                    conflict_neg.or(an);
+                    conflict_neg.and(bp);
+                    if (conflict_pos.cardinality() + conflict_neg.cardinality() != 1) {
+                        continue;
+                    }
+                    boolean positive = !conflict_pos.isEmpty();
+                    int x = positive ? conflict_pos.nextSetBit(0) : conflict_neg.nextSetBit(0);
+                    BitSet a_side = positive ? ap : an;
+                    a_side.clear(x);
+                    boolean covered = isSubset(ap, bp, scratch) && isSubset(an, bn, scratch);
+                    a_side.set(x);
+                    if (covered) {
+                        // xC + !xD = xC + D when C is contained in D
+                        if (positive) {
+                            bn.clear(x);
+                            cubes.set(j, without(b, -x));
+                        } else {
+                            bp.clear(x);
+                            cubes.set(j, without(b, x));
+                        }
+                        changed = true;
+                    }
+                }
+            }
+        }
+        return cubes;
+    }
+
+    /**
+     * Reduces the given sum of products with only {@link #coverCubes}, bounded
+     * by {@link LibraryConfiguration#condition_step_budget}. The condition is
+     * returned unchanged if nothing could be removed.
+     */
+    private static Condition coverCondition(OrCondition or) {
+        int steps = LibraryConfiguration.condition_step_budget;
+        Map<Condition, Integer> mapping = new HashMap<>();
+        List<int[]> encodings = new ArrayList<>(or.getOperands().size());
+        int literals = 0;
+        for (Condition c : or.getOperands()) {
+            // every new condition is compared against the whole mapping
+            steps -= mapping.size();
+            if (steps < 0) {
+                return or;
+            }
+            int[] encoding;
+            if (c instanceof AndCondition) {
+                encoding = encode((AndCondition) c, mapping);
+            } else {
+                encoding = new int[] {getMapping(mapping, c)};
+            }
+            literals += encoding.length;
+            encodings.add(encoding);
+        }
+        List<int[]> cubes = coverCubes(encodings, steps);
+        int remaining = 0;
+        for (int[] cube : cubes) {
+            remaining += cube.length;
+        }
+        if (remaining == literals) {
+            return or;
+        }
+        List<Condition> reverse = decode(cubes, reverse(mapping));
+        if (reverse.size() == 1) {
+            return reverse.get(0);
+        }
+        return new OrCondition(reverse);
+    }
+
     private static final boolean DEBUG_SIMPLIFICATION = Boolean.getBoolean("despect.debug.simplification");
 
     /**
      * Attempts to simplify the given condition.
+     *
+     * <p>The simplification is bounded by
+     * {@link LibraryConfiguration#condition_max_terms} and
+     * {@link LibraryConfiguration#condition_step_budget}, if either is exceeded
+     * the condition is only reduced by a cheaper cube covering pass.</p>
      */
     public static Condition simplifyCondition(Condition condition) {
         // A brute force simplification of sum-of-products expressions
         if (condition instanceof OrCondition) {
             OrCondition or = (OrCondition) condition;
+            if (or.getOperands().size() > LibraryConfiguration.condition_max_terms) {
+                return coverCondition(or);
+            }
+            int steps = LibraryConfiguration.condition_step_budget;
             List<int[]> encodings = new ArrayList<>(or.getOperands().size());
             Map<Condition, Integer> mapping = new HashMap<>();
             // Each of the conditions is encoded into an integer array, every
@@ -617,6 +784,11 @@ public final class ConditionUtil {
                         if (l == k) {
                             continue;
                         }
+                        if (--steps < 0) {
+                            // the simplification is taking too long, better to
+                            // fall back to the bounded pass than to stall
+                            return coverCondition(or);
+                        }
                         int[] m = encodings.get(l);
                         // if m contains the inverse of n then those parts
                         // corresponding to n can be removed from m
@@ -684,11 +856,12 @@ public final class ConditionUtil {
                 }
             }
             // postsimplify looks for common patterns and breaks them out
-            Condition ps = postsimplify(encodings, mapping);
+            Map<Integer, Condition> reverse_mapping = reverse(mapping);
+            Condition ps = postsimplify(encodings, reverse_mapping);
             if (ps != null) {
                 return ps;
             }
-            List<Condition> reverse = decode(encodings, mapping);
+            List<Condition> reverse = decode(encodings, reverse_mapping);
             if (encodings.size() == 1) {
                 return reverse.get(0);
             }
@@ -39,6 +39,8 @@ import org.spongepowered.despector.ast.generic.WildcardType;
 
 import java.util.List;
 
+import javax.annotation.Nullable;
+
 /**
  * A parser for various generic signatures.
  */
@@ -50,7 +52,15 @@ public final class SignatureParser {
      * Parses the given class signature.
      */
     public static ClassSignature parse(String signature) {
-        Parser parser = new Parser(signature);
+        return parse(signature, null);
+    }
+
+    /**
+     * Parses the given class signature, interning the type names into the
+     * given symbol table.
+     */
+    public static ClassSignature parse(String signature, @Nullable SymbolTable symbols) {
+        Parser parser = new Parser(signature, symbols);
         ClassSignature struct = new ClassSignature();
         if (signature.startsWith("<")) {
             parser.skip(1);
@@ -69,7 +79,15 @@ public final class SignatureParser {
      * Parses the given method signature.
      */
     public static MethodSignature parseMethod(String signature) {
-        Parser parser = new Parser(signature);
+        return parseMethod(signature, null);
+    }
+
+    /**
+     * Parses the given method signature, interning the type names into the
+     * given symbol table.
+     */
+    public static MethodSignature parseMethod(String signature, @Nullable SymbolTable symbols) {
+        Parser parser = new Parser(signature, symbols);
         MethodSignature sig = new MethodSignature();
         if (parser.check('<')) {
             parseFormalTypeParameters(parser, sig.getTypeParameters());
@@ -89,7 +107,7 @@ public final class SignatureParser {
 
     private static void parseFormalTypeParameters(Parser parser, List<TypeParameter> type_params) {
         while (parser.peek() != '>') {
-            String identifier = parser.nextIdentifier();
+            String identifier = parser.intern(parser.nextIdentifier());
             parser.expect(':');
             TypeSignature class_bound = null;
             if (parser.peek() != ':') {
@@ -106,7 +124,15 @@ public final class SignatureParser {
     }
 
     public static TypeSignature parseFieldTypeSignature(String sig) {
-        Parser parser = new Parser(sig);
+        return parseFieldTypeSignature(sig, null);
+    }
+
+    /**
+     * Parses the given field type signature, interning the type names into
+     * the given symbol table.
+     */
+    public static TypeSignature parseFieldTypeSignature(String sig, @Nullable SymbolTable symbols) {
+        Parser parser = new Parser(sig, symbols);
         return parseFieldTypeSignature(parser);
     }
 
@@ -129,7 +155,7 @@ public final class SignatureParser {
             if (VALID_PRIM.indexOf(next) != -1) {
                 ident.append(next);
                 parser.skip(1);
-                return ClassTypeSignature.of(ident.toString());
+                return ClassTypeSignature.of(parser.intern(ident.toString()));
             }
         }
         if (next == 'T') {
@@ -137,7 +163,7 @@ public final class SignatureParser {
             ident.append('T');
             ident.append(parser.nextIdentifier());
             ident.append(';');
-            TypeVariableSignature sig = new TypeVariableSignature(ident.toString());
+            TypeVariableSignature sig = new TypeVariableSignature(parser.intern(ident.toString()));
             parser.expect(';');
             return sig;
         }
@@ -146,7 +172,7 @@ public final class SignatureParser {
     }
 
     public static GenericClassTypeSignature parseClassTypeSignature(String sig) {
-        Parser parser = new Parser(sig);
+        Parser parser = new Parser(sig, null);
         return parseClassTypeSignature(parser, "");
     }
 
@@ -160,7 +186,7 @@ public final class SignatureParser {
             ident.append(parser.nextIdentifier());
         }
         ident.append(";");
-        GenericClassTypeSignature sig = new GenericClassTypeSignature(ident.toString());
+        GenericClassTypeSignature sig = new GenericClassTypeSignature(parser.intern(ident.toString()));
         if (parser.check('<')) {
             while (!parser.check('>')) {
                 char wild = parser.peek();
@@ -191,7 +217,7 @@ public final class SignatureParser {
                 child.append(parser.nextIdentifier());
             }
             child.append(";");
-            sig = new GenericClassTypeSignature(sig, child.toString());
+            sig = new GenericClassTypeSignature(sig, parser.intern(child.toString()));
             if (parser.check('<')) {
                 while (!parser.check('>')) {
                     char wild = parser.peek();
@@ -225,10 +251,19 @@ public final class SignatureParser {
 
         private int index;
         private String buffer;
+        private final SymbolTable symbols;
 
-        public Parser(String data) {
+        public Parser(String data, @Nullable SymbolTable symbols) {
             this.buffer = data;
             this.index = 0;
+            this.symbols = symbols;
+        }
+
+        public String intern(String symbol) {
+            if (this.symbols == null) {
+                return symbol;
+            }
+            return this.symbols.intern(symbol);
         }
 
         public boolean hasNext() {
@@ -0,0 +1,103 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Despector <https://despector.voxelgenesis.com>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.despector.util;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A concurrent table of canonical instances for symbols such as type names,
+ * descriptors and member names.
+ *
+ * <p>The same names are produced again for every class which references
+ * them, interning them through a shared table means only a single copy of
+ * each is retained by the ast.</p>
+ */
+public class SymbolTable {
+
+    private final ConcurrentMap<String, String> symbols = new ConcurrentHashMap<>();
+
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder deduplicated = new LongAdder();
+    private final LongAdder deduplicated_chars = new LongAdder();
+
+    public SymbolTable() {
+    }
+
+    /**
+     * Gets the canonical instance of the given symbol. The symbol is added to
+     * the table if it is not yet present.
+     */
+    public String intern(String symbol) {
+        if (symbol == null) {
+            return null;
+        }
+        this.lookups.increment();
+        String existing = this.symbols.get(symbol);
+        if (existing == null) {
+            existing = this.symbols.putIfAbsent(symbol, symbol);
+            if (existing == null) {
+                return symbol;
+            }
+        }
+        if (existing != symbol) {
+            this.deduplicated.increment();
+            this.deduplicated_chars.add(symbol.length());
+        }
+        return existing;
+    }
+
+    /**
+     * Gets the number of unique symbols in this table.
+     */
+    public int size() {
+        return this.symbols.size();
+    }
+
+    /**
+     * Gets the total number of symbols passed to {@link #intern(String)}.
+     */
+    public long getLookupCount() {
+        return this.lookups.sum();
+    }
+
+    /**
+     * Gets the number of interned symbols which were replaced by an existing
+     * instance.
+     */
+    public long getDeduplicatedCount() {
+        return this.deduplicated.sum();
+    }
+
+    /**
+     * Gets the total length of all symbols which were replaced by an existing
+     * instance.
+     */
+    public long getDeduplicatedChars() {
+        return this.deduplicated_chars.sum();
+    }
+
+}
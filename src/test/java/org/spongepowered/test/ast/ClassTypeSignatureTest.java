@@ -0,0 +1,137 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Despector <https://despector.voxelgenesis.com>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.test.ast;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.objectweb.asm.Opcodes.*;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.objectweb.asm.ClassWriter;
+import org.spongepowered.despector.ast.SourceSet;
+import org.spongepowered.despector.ast.generic.ClassTypeSignature;
+import org.spongepowered.despector.ast.type.TypeEntry;
+import org.spongepowered.despector.config.LibraryConfiguration;
+import org.spongepowered.despector.decompiler.Decompilers;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class ClassTypeSignatureTest {
+
+    @BeforeClass
+    public static void setup() {
+        LibraryConfiguration.quiet = true;
+        LibraryConfiguration.parallel = false;
+    }
+
+    @Test
+    public void testSpecial() {
+        assertSame(ClassTypeSignature.INT, ClassTypeSignature.of("I"));
+        assertSame(ClassTypeSignature.STRING, ClassTypeSignature.of("Ljava/lang/String;"));
+        assertSame(ClassTypeSignature.INTEGER_OBJECT, ClassTypeSignature.of("Ljava/lang/Integer;"));
+    }
+
+    @Test
+    public void testShared() {
+        ClassTypeSignature sig = ClassTypeSignature.of("Ltest/cache/Shared;");
+        assertTrue(sig.isShared());
+        assertSame(sig, ClassTypeSignature.of("Ltest/cache/Shared;"));
+        // a descriptor built at runtime is a different string instance
+        assertSame(sig, ClassTypeSignature.of(new StringBuilder("Ltest/cache/").append("Shared;").toString()));
+        assertSame(ClassTypeSignature.of("[[Ltest/cache/Shared;"), ClassTypeSignature.of("[[Ltest/cache/Shared;"));
+        assertNotSame(sig, ClassTypeSignature.of("[Ltest/cache/Shared;"));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testSharedImmutable() {
+        ClassTypeSignature.of("Ltest/cache/Immutable;").setType("Ltest/cache/Other;");
+    }
+
+    @Test
+    public void testPrivateCopy() {
+        ClassTypeSignature shared = ClassTypeSignature.of("Ltest/cache/Copy;");
+        ClassTypeSignature copy = ClassTypeSignature.of("Ltest/cache/Copy;", true);
+        assertFalse(copy.isShared());
+        assertNotSame(shared, copy);
+        assertNotSame(copy, ClassTypeSignature.of("Ltest/cache/Copy;", true));
+        assertEquals(shared, copy);
+        copy.setType("Ltest/cache/Changed;");
+        assertEquals("Ltest/cache/Changed;", copy.getType());
+        assertEquals("Ltest/cache/Copy;", shared.getType());
+        assertSame(shared, ClassTypeSignature.of("Ltest/cache/Copy;"));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testInvalidDescriptor() {
+        ClassTypeSignature.of("test/cache/NotADescriptor");
+    }
+
+    @Test
+    public void testConcurrent() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<ClassTypeSignature>> results = new ArrayList<>();
+            for (int i = 0; i < 64; i++) {
+                results.add(executor.submit(() -> ClassTypeSignature.of("Ltest/cache/Concurrent;")));
+            }
+            ClassTypeSignature expected = ClassTypeSignature.of("Ltest/cache/Concurrent;");
+            for (Future<ClassTypeSignature> result : results) {
+                assertSame(expected, result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static TypeEntry decompile(String name, SourceSet set) throws IOException {
+        ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        cw.visit(V1_8, ACC_PUBLIC | ACC_SUPER, name, null, "java/lang/Object", null);
+        cw.visitField(ACC_PUBLIC, "value", "Ltest/cache/Field;", null, null).visitEnd();
+        cw.visitEnd();
+        TypeEntry type = Decompilers.WILD.decompile(new ByteArrayInputStream(cw.toByteArray()), set);
+        Decompilers.WILD.flushTasks();
+        return type;
+    }
+
+    @Test
+    public void testDecompiledTypesShare() throws IOException {
+        SourceSet set = new SourceSet();
+        TypeEntry a = decompile("test/cache/A", set);
+        TypeEntry b = decompile("test/cache/B", set);
+        assertSame(a.getField("value").getType(), b.getField("value").getType());
+        assertSame(ClassTypeSignature.of("Ltest/cache/Field;"), a.getField("value").getType());
+    }
+
+}
@@ -25,6 +25,7 @@
 package org.spongepowered.test.ast;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 
 import org.junit.Test;
 import org.spongepowered.despector.ast.AstVisitor;
@@ -35,6 +36,7 @@ import org.spongepowered.despector.ast.insn.condition.AndCondition;
 import org.spongepowered.despector.ast.insn.condition.BooleanCondition;
 import org.spongepowered.despector.ast.insn.condition.Condition;
 import org.spongepowered.despector.ast.insn.condition.OrCondition;
+import org.spongepowered.despector.config.LibraryConfiguration;
 import org.spongepowered.despector.util.ConditionUtil;
 import org.spongepowered.despector.util.serialization.MessagePacker;
 
@@ -154,6 +156,46 @@ public class ConditionSimplificationTest {
         assertEquals(simple, simplified);
     }
 
+    @Test
+    public void testTermLimit() {
+        Condition[] terms = new Condition[LibraryConfiguration.condition_max_terms + 1];
+        for (int i = 0; i < terms.length; i++) {
+            BooleanCondition x = new BooleanCondition(new MockInsn((char) ('A' + (i % 26))), false);
+            terms[i] = and(x, (i % 2 == 0) ? c : d);
+        }
+        Condition complex = or(terms);
+        Condition simplified = ConditionUtil.simplifyCondition(complex);
+        assertSame(complex, simplified);
+    }
+
+    @Test
+    public void testTermLimitMerge() {
+        int count = LibraryConfiguration.condition_max_terms;
+        Condition[] terms = new Condition[count * 2];
+        Condition[] simple = new Condition[count];
+        for (int i = 0; i < count; i++) {
+            BooleanCondition x = new BooleanCondition(new MockInsn((char) ('A' + i)), false);
+            terms[i * 2] = and(x, a);
+            terms[i * 2 + 1] = and(x, anot);
+            simple[i] = x;
+        }
+        Condition simplified = ConditionUtil.simplifyCondition(or(terms));
+        assertEquals(or(simple), simplified);
+    }
+
+    @Test
+    public void testStepBudget() {
+        int budget = LibraryConfiguration.condition_step_budget;
+        LibraryConfiguration.condition_step_budget = 0;
+        try {
+            Condition complex = or(and(a, b), and(a, c), and(anot, e));
+            Condition simplified = ConditionUtil.simplifyCondition(complex);
+            assertSame(complex, simplified);
+        } finally {
+            LibraryConfiguration.condition_step_budget = budget;
+        }
+    }
+
     private static class MockInsn implements Instruction {
 
         private char c;
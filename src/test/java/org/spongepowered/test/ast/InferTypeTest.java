@@ -0,0 +1,144 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Despector <https://despector.voxelgenesis.com>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.test.ast;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+import org.spongepowered.despector.ast.Locals;
+import org.spongepowered.despector.ast.Locals.LocalInstance;
+import org.spongepowered.despector.ast.SourceSet;
+import org.spongepowered.despector.ast.generic.ClassTypeSignature;
+import org.spongepowered.despector.ast.generic.MethodSignature;
+import org.spongepowered.despector.ast.generic.PrimitiveKind;
+import org.spongepowered.despector.ast.insn.Instruction;
+import org.spongepowered.despector.ast.insn.cst.DoubleConstant;
+import org.spongepowered.despector.ast.insn.cst.IntConstant;
+import org.spongepowered.despector.ast.insn.cst.LongConstant;
+import org.spongepowered.despector.ast.insn.cst.StringConstant;
+import org.spongepowered.despector.ast.insn.op.Operator;
+import org.spongepowered.despector.ast.insn.op.OperatorType;
+import org.spongepowered.despector.ast.insn.var.LocalAccess;
+import org.spongepowered.despector.ast.stmt.invoke.InstanceMethodInvoke;
+import org.spongepowered.despector.ast.type.MethodEntry;
+
+public class InferTypeTest {
+
+    private static final int CHAIN_LENGTH = 5000;
+
+    @Test
+    public void testPrimitiveKind() {
+        assertSame(PrimitiveKind.INT, PrimitiveKind.of(ClassTypeSignature.INT));
+        assertSame(PrimitiveKind.LONG, PrimitiveKind.widest(PrimitiveKind.CHAR, PrimitiveKind.LONG));
+        assertSame(PrimitiveKind.SHORT, PrimitiveKind.widest(PrimitiveKind.SHORT, PrimitiveKind.CHAR));
+        assertSame(PrimitiveKind.BYTE, PrimitiveKind.widest(null, PrimitiveKind.BYTE));
+        assertEquals(null, PrimitiveKind.of(ClassTypeSignature.STRING));
+    }
+
+    @Test
+    public void testArithmeticChain() {
+        Operator op = new Operator(OperatorType.ADD, new LongConstant(1), new IntConstant(1));
+        for (int i = 0; i < CHAIN_LENGTH; i++) {
+            op = new Operator(i % 2 == 0 ? OperatorType.ADD : OperatorType.MULTIPLY, op, new IntConstant(i));
+            assertSame(ClassTypeSignature.LONG, op.inferType());
+        }
+    }
+
+    @Test
+    public void testOperandReplaced() {
+        Operator inner = new Operator(OperatorType.ADD, new IntConstant(1), new IntConstant(2));
+        Operator outer = new Operator(OperatorType.SUBTRACT, inner, new IntConstant(3));
+        assertSame(ClassTypeSignature.INT, outer.inferType());
+        outer.setRightOperand(new DoubleConstant(3));
+        assertSame(ClassTypeSignature.DOUBLE, outer.inferType());
+        outer.setRightOperand(new IntConstant(3));
+        assertSame(ClassTypeSignature.INT, outer.inferType());
+        outer.setLeftOperand(new LongConstant(1));
+        assertSame(ClassTypeSignature.LONG, outer.inferType());
+    }
+
+    @Test
+    public void testLocalTypeChanged() {
+        MethodEntry method = new MethodEntry(new SourceSet());
+        method.setStatic(true);
+        method.setMethodSignature(new MethodSignature());
+        Locals.Local local = new Locals(method).getLocal(0);
+        LocalInstance instance = new LocalInstance(local, "x", ClassTypeSignature.INT, 0, 10);
+        Operator op = new Operator(OperatorType.ADD, new LocalAccess(instance), new IntConstant(1));
+        // every operator has to be inferred again once the type has changed
+        for (int i = 0; i < 500; i++) {
+            op = new Operator(OperatorType.ADD, op, new IntConstant(i));
+            assertSame(ClassTypeSignature.INT, op.inferType());
+        }
+        instance.setType(ClassTypeSignature.LONG);
+        assertSame(ClassTypeSignature.LONG, op.inferType());
+    }
+
+    @Test
+    public void testLocalTypeVersion() {
+        MethodEntry method = new MethodEntry(new SourceSet());
+        method.setStatic(true);
+        method.setMethodSignature(new MethodSignature());
+        Locals first = new Locals(method);
+        Locals second = new Locals(method);
+        LocalInstance a = new LocalInstance(first.getLocal(0), "a", ClassTypeSignature.INT, 0, 10);
+        LocalInstance b = new LocalInstance(second.getLocal(0), "b", ClassTypeSignature.INT, 0, 10);
+        Operator op = new Operator(OperatorType.ADD, new LocalAccess(a), new IntConstant(1));
+        assertSame(ClassTypeSignature.INT, op.inferType());
+
+        // only the locals of the same method are versioned together
+        long version = first.getTypeVersion();
+        b.setType(ClassTypeSignature.LONG);
+        assertEquals(version, first.getTypeVersion());
+        a.setType(ClassTypeSignature.INT);
+        assertEquals(version, first.getTypeVersion());
+        a.setType(ClassTypeSignature.FLOAT);
+        assertEquals(version + 1, first.getTypeVersion());
+        assertSame(ClassTypeSignature.FLOAT, op.inferType());
+
+        // operators over locals of different methods are still inferred
+        Operator mixed = new Operator(OperatorType.ADD, op, new LocalAccess(b));
+        assertSame(ClassTypeSignature.FLOAT, mixed.inferType());
+        b.setType(ClassTypeSignature.DOUBLE);
+        assertSame(ClassTypeSignature.DOUBLE, mixed.inferType());
+    }
+
+    @Test
+    public void testStringConcatChain() {
+        Instruction insn = new StringConstant("");
+        for (int i = 0; i < CHAIN_LENGTH; i++) {
+            insn = new InstanceMethodInvoke(InstanceMethodInvoke.Type.VIRTUAL, "append", "(I)Ljava/lang/StringBuilder;", "Ljava/lang/StringBuilder;",
+                    new Instruction[] {new IntConstant(i)}, insn);
+            assertEquals("Ljava/lang/StringBuilder;", insn.inferType().getDescriptor());
+        }
+        InstanceMethodInvoke str = new InstanceMethodInvoke(InstanceMethodInvoke.Type.VIRTUAL, "toString", "()Ljava/lang/String;",
+                "Ljava/lang/StringBuilder;", new Instruction[0], insn);
+        assertSame(str.inferType(), str.inferType());
+        str.setMethodDescription("()Ljava/lang/Object;");
+        assertEquals("Ljava/lang/Object;", str.inferType().getDescriptor());
+    }
+
+}
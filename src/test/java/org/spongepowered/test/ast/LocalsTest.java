@@ -0,0 +1,109 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Despector <https://despector.voxelgenesis.com>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.test.ast;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+import org.spongepowered.despector.ast.Locals;
+import org.spongepowered.despector.ast.Locals.Local;
+import org.spongepowered.despector.ast.Locals.LocalInstance;
+import org.spongepowered.despector.ast.SourceSet;
+import org.spongepowered.despector.ast.generic.ClassTypeSignature;
+import org.spongepowered.despector.ast.generic.MethodSignature;
+import org.spongepowered.despector.ast.type.MethodEntry;
+
+import java.util.Random;
+
+public class LocalsTest {
+
+    private static Locals createLocals() {
+        MethodEntry method = new MethodEntry(new SourceSet());
+        method.setStatic(true);
+        method.setMethodSignature(new MethodSignature());
+        return new Locals(method);
+    }
+
+    private static LocalInstance scan(Local local, int index) {
+        for (LocalInstance insn : local.getInstances()) {
+            if (index >= insn.getStart() - 1 && index <= insn.getEnd()) {
+                return insn;
+            }
+        }
+        return null;
+    }
+
+    @Test
+    public void testInstanceLookup() {
+        Random rand = new Random(5);
+        Locals locals = createLocals();
+        Local local = locals.getLocal(2);
+        for (int i = 0; i < 200; i++) {
+            int start = rand.nextInt(1000);
+            int end = start + rand.nextInt(i % 10 == 0 ? 100 : 10) - 2;
+            local.addInstance(new LocalInstance(local, "l" + i, ClassTypeSignature.INT, start, end));
+            if (i % 50 == 0) {
+                // only check covered indices as a miss creates a new instance
+                for (int index = 0; index < 1100; index++) {
+                    LocalInstance expected = scan(local, index);
+                    if (expected != null) {
+                        assertSame(expected, local.getInstance(index));
+                    }
+                }
+            }
+        }
+        local.addInstance(new LocalInstance(local, "all", ClassTypeSignature.INT, 0, Integer.MAX_VALUE));
+        for (int index = 0; index < 1100; index++) {
+            assertSame(scan(local, index), local.getInstance(index));
+        }
+    }
+
+    @Test
+    public void testFind() {
+        Locals locals = createLocals();
+        Local local = locals.getLocal(1);
+        LocalInstance a = new LocalInstance(local, "a", ClassTypeSignature.INT, 5, 10);
+        LocalInstance b = new LocalInstance(local, "b", ClassTypeSignature.of("Ljava/lang/String;"), 5, 10);
+        local.addInstance(a);
+        local.addInstance(b);
+        assertSame(a, locals.findLocal(5, "I"));
+        assertSame(b, locals.findLocal(5, "Ljava/lang/String;"));
+        assertNull(locals.findLocal(6, "I"));
+    }
+
+    @Test
+    public void testNonConflictingName() {
+        Locals locals = createLocals();
+        Local first = locals.getLocal(0);
+        Local second = locals.getLocal(1);
+        first.addInstance(new LocalInstance(first, "x", ClassTypeSignature.INT, 0, 20));
+        second.addInstance(new LocalInstance(second, "x1", ClassTypeSignature.INT, 0, 20));
+        assertEquals("y", locals.getNonConflictingName("y", 5));
+        assertEquals("x12", locals.getNonConflictingName("x", 5));
+    }
+
+}
@@ -0,0 +1,229 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Despector <https://despector.voxelgenesis.com>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.test.ast;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.spongepowered.despector.ast.SourceSet;
+import org.spongepowered.despector.ast.type.TypeEntry;
+import org.spongepowered.despector.config.LibraryConfiguration;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SourceSetTest {
+
+    private static final String THIS_TYPE = SourceSetTest.class.getName().replace('.', '/');
+
+    @BeforeClass
+    public static void setup() {
+        LibraryConfiguration.quiet = true;
+        LibraryConfiguration.parallel = false;
+    }
+
+    @Test
+    public void testConcurrentLoad() throws Exception {
+        AtomicInteger finds = new AtomicInteger();
+        SourceSet set = new SourceSet();
+        set.setLoader((name) -> {
+            if (!THIS_TYPE.equals(name)) {
+                return null;
+            }
+            finds.incrementAndGet();
+            try {
+                // hold the load open so the other callers pile up on it
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return SourceSetTest.class.getResourceAsStream("SourceSetTest.class");
+        });
+
+        int thread_count = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        TypeEntry[] results = new TypeEntry[thread_count];
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < thread_count; i++) {
+            int index = i;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                results[index] = set.get(THIS_TYPE);
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(1, finds.get());
+        assertNotNull(results[0]);
+        for (TypeEntry result : results) {
+            assertSame(results[0], result);
+        }
+        assertSame(results[0], set.get(THIS_TYPE));
+    }
+
+    @Test
+    public void testFailedLoadIsCached() {
+        AtomicInteger finds = new AtomicInteger();
+        SourceSet set = new SourceSet();
+        set.setLoader((name) -> {
+            finds.incrementAndGet();
+            return null;
+        });
+        assertNull(set.get("does/not/Exist"));
+        assertNull(set.get("does/not/Exist"));
+        assertEquals(1, finds.get());
+    }
+
+    private static SourceSet.Loader countingLoader(AtomicInteger finds, long delay) {
+        return (name) -> {
+            if (!THIS_TYPE.equals(name)) {
+                return null;
+            }
+            finds.incrementAndGet();
+            if (delay > 0) {
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return SourceSetTest.class.getResourceAsStream("SourceSetTest.class");
+        };
+    }
+
+    @Test
+    public void testHeaderUpgradedToFull() {
+        boolean header_only = LibraryConfiguration.header_only_loading;
+        LibraryConfiguration.header_only_loading = true;
+        try {
+            AtomicInteger finds = new AtomicInteger();
+            SourceSet set = new SourceSet();
+            set.setLoader(countingLoader(finds, 0));
+
+            TypeEntry header = set.get(THIS_TYPE);
+            assertNotNull(header);
+            assertTrue(header.isHeaderOnly());
+            assertEquals(1, finds.get());
+
+            TypeEntry full = set.getFull(THIS_TYPE);
+            assertNotNull(full);
+            assertFalse(full.isHeaderOnly());
+            assertNotSame(header, full);
+            assertEquals(2, finds.get());
+
+            // the full type replaces the header and is not loaded again
+            assertSame(full, set.get(THIS_TYPE));
+            assertSame(full, set.getFull(THIS_TYPE));
+            assertEquals(2, finds.get());
+
+            // a header added afterwards does not replace the full type
+            set.add(header);
+            assertSame(full, set.get(THIS_TYPE));
+        } finally {
+            LibraryConfiguration.header_only_loading = header_only;
+        }
+    }
+
+    @Test
+    public void testGetFullLoadsOnce() {
+        AtomicInteger finds = new AtomicInteger();
+        SourceSet set = new SourceSet();
+        set.setLoader(countingLoader(finds, 0));
+
+        TypeEntry full = set.getFull(THIS_TYPE);
+        assertNotNull(full);
+        assertFalse(full.isHeaderOnly());
+        assertSame(full, set.get(THIS_TYPE));
+        assertSame(full, set.getFull(THIS_TYPE));
+        assertEquals(1, finds.get());
+    }
+
+    @Test
+    public void testConcurrentGetAndGetFull() throws Exception {
+        AtomicInteger finds = new AtomicInteger();
+        SourceSet set = new SourceSet();
+        set.setLoader(countingLoader(finds, 100));
+
+        int thread_count = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        TypeEntry[] results = new TypeEntry[thread_count];
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < thread_count; i++) {
+            int index = i;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if (index % 2 == 0) {
+                    results[index] = set.getFull(THIS_TYPE);
+                } else {
+                    results[index] = set.get(THIS_TYPE);
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // at most one header and one full load
+        assertTrue(finds.get() <= 2);
+        TypeEntry full = results[0];
+        assertNotNull(full);
+        assertFalse(full.isHeaderOnly());
+        for (int i = 0; i < thread_count; i++) {
+            assertNotNull(results[i]);
+            if (i % 2 == 0) {
+                assertSame(full, results[i]);
+            }
+        }
+        assertSame(full, set.get(THIS_TYPE));
+        assertSame(full, set.getFull(THIS_TYPE));
+        assertTrue(finds.get() <= 2);
+    }
+
+}
@@ -0,0 +1,113 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Despector <https://despector.voxelgenesis.com>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.test.ast;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+import org.spongepowered.despector.Language;
+import org.spongepowered.despector.ast.SourceSet;
+import org.spongepowered.despector.ast.type.ClassEntry;
+import org.spongepowered.despector.ast.type.MethodEntry;
+
+public class TypeEntryTest {
+
+    private static MethodEntry createMethod(SourceSet set, String name, String desc, boolean is_static) {
+        MethodEntry mth = new MethodEntry(set);
+        mth.setName(name);
+        mth.setDescription(desc);
+        mth.setOwner("test/Type");
+        mth.setStatic(is_static);
+        return mth;
+    }
+
+    private static String desc(int i) {
+        StringBuilder desc = new StringBuilder("(");
+        for (int j = 0; j < i % 8; j++) {
+            desc.append('I');
+        }
+        desc.append(")Ltest/Ret").append(i).append(';');
+        return desc.toString();
+    }
+
+    @Test
+    public void testOverloadLookup() {
+        SourceSet set = new SourceSet();
+        ClassEntry type = new ClassEntry(set, Language.JAVA, "test/Type");
+        // obfuscated types frequently have thousands of overloads of the
+        // same name
+        int count = 5000;
+        MethodEntry[] methods = new MethodEntry[count];
+        for (int i = 0; i < count; i++) {
+            methods[i] = createMethod(set, "a", desc(i), i % 2 == 0);
+            type.addMethod(methods[i]);
+        }
+        assertEquals(count / 2, type.getStaticMethodCount());
+        assertEquals(count / 2, type.getMethodCount());
+        for (int i = 0; i < count; i++) {
+            if (i % 2 == 0) {
+                assertSame(methods[i], type.getStaticMethod("a", desc(i)));
+                assertNull(type.getMethod("a", desc(i)));
+            } else {
+                assertSame(methods[i], type.getMethod("a", desc(i)));
+                assertNull(type.getStaticMethod("a", desc(i)));
+            }
+        }
+        assertNull(type.getMethod("b", desc(1)));
+        assertNull(type.getMethod("a", "()V"));
+    }
+
+    @Test
+    public void testSingleNameLookup() {
+        SourceSet set = new SourceSet();
+        ClassEntry type = new ClassEntry(set, Language.JAVA, "test/Type");
+        MethodEntry a = createMethod(set, "a", "()V", false);
+        type.addMethod(a);
+        type.addMethod(createMethod(set, "b", "()V", false));
+        type.addMethod(createMethod(set, "b", "(I)V", false));
+        assertSame(a, type.getMethod("a"));
+        assertNull(type.getMethod("c"));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testAmbiguousLookup() {
+        SourceSet set = new SourceSet();
+        ClassEntry type = new ClassEntry(set, Language.JAVA, "test/Type");
+        type.addMethod(createMethod(set, "b", "()V", false));
+        type.addMethod(createMethod(set, "b", "(I)V", false));
+        type.getMethod("b");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDuplicateMethod() {
+        SourceSet set = new SourceSet();
+        ClassEntry type = new ClassEntry(set, Language.JAVA, "test/Type");
+        type.addMethod(createMethod(set, "a", "()V", false));
+        type.addMethod(createMethod(set, "a", "()V", false));
+    }
+
+}
@@ -0,0 +1,166 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Despector <https://despector.voxelgenesis.com>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.test.decompile;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+import org.spongepowered.despector.ast.AstVisitor;
+import org.spongepowered.despector.ast.generic.ClassTypeSignature;
+import org.spongepowered.despector.ast.generic.TypeSignature;
+import org.spongepowered.despector.ast.insn.Instruction;
+import org.spongepowered.despector.ast.insn.condition.AndCondition;
+import org.spongepowered.despector.ast.insn.condition.BooleanCondition;
+import org.spongepowered.despector.ast.insn.condition.Condition;
+import org.spongepowered.despector.ast.insn.condition.OrCondition;
+import org.spongepowered.despector.decompiler.method.ConditionDiagram;
+import org.spongepowered.despector.util.serialization.MessagePacker;
+
+import java.io.IOException;
+
+public class ConditionDiagramTest {
+
+    private static BooleanCondition var(String name) {
+        return new BooleanCondition(new MockInsn(name), false);
+    }
+
+    private static BooleanCondition not(BooleanCondition c) {
+        return new BooleanCondition(c.getConditionValue(), true);
+    }
+
+    @Test
+    public void testAndChain() {
+        int size = 40;
+        ConditionDiagram diagram = new ConditionDiagram(size);
+        Condition[] vars = new Condition[size];
+        for (int i = 0; i < size; i++) {
+            vars[i] = var("a" + i);
+            diagram.setNode(i, vars[i], i == size - 1 ? ConditionDiagram.TRUE : i + 1, ConditionDiagram.FALSE);
+        }
+        assertEquals(new AndCondition(vars), diagram.toCondition(0));
+    }
+
+    @Test
+    public void testOrChain() {
+        int size = 40;
+        ConditionDiagram diagram = new ConditionDiagram(size);
+        Condition[] vars = new Condition[size];
+        for (int i = 0; i < size; i++) {
+            vars[i] = var("a" + i);
+            diagram.setNode(i, vars[i], ConditionDiagram.TRUE, i == size - 1 ? ConditionDiagram.FALSE : i + 1);
+        }
+        assertEquals(new OrCondition(vars), diagram.toCondition(0));
+    }
+
+    @Test
+    public void testProductOfSums() {
+        // (x0 || y0) && (x1 || y1) && ... has 2^n paths to the true terminal
+        int groups = 24;
+        ConditionDiagram diagram = new ConditionDiagram(groups * 2);
+        Condition[] sums = new Condition[groups];
+        for (int i = 0; i < groups; i++) {
+            BooleanCondition x = var("x" + i);
+            BooleanCondition y = var("y" + i);
+            int next = i == groups - 1 ? ConditionDiagram.TRUE : (i + 1) * 2;
+            diagram.setNode(i * 2, x, next, i * 2 + 1);
+            diagram.setNode(i * 2 + 1, y, next, ConditionDiagram.FALSE);
+            sums[i] = new OrCondition(x, y);
+        }
+        assertEquals(new AndCondition(sums), diagram.toCondition(0));
+    }
+
+    @Test
+    public void testInverted() {
+        // !a && b, where the jump on a leaves the condition
+        BooleanCondition a = var("a");
+        BooleanCondition b = var("b");
+        ConditionDiagram diagram = new ConditionDiagram(2);
+        diagram.setNode(0, a, ConditionDiagram.FALSE, 1);
+        diagram.setNode(1, b, ConditionDiagram.TRUE, ConditionDiagram.FALSE);
+        assertEquals(new AndCondition(not(a), b), diagram.toCondition(0));
+    }
+
+    @Test
+    public void testTernary() {
+        // a ? b : c
+        BooleanCondition a = var("a");
+        BooleanCondition b = var("b");
+        BooleanCondition c = var("c");
+        ConditionDiagram diagram = new ConditionDiagram(3);
+        diagram.setNode(0, a, 1, 2);
+        diagram.setNode(1, b, ConditionDiagram.TRUE, ConditionDiagram.FALSE);
+        diagram.setNode(2, c, ConditionDiagram.TRUE, ConditionDiagram.FALSE);
+        assertEquals(new OrCondition(new AndCondition(a, b), new AndCondition(not(a), c)), diagram.toCondition(0));
+    }
+
+    @Test
+    public void testRedundant() {
+        // a is tested but both targets are the same
+        BooleanCondition a = var("a");
+        BooleanCondition b = var("b");
+        ConditionDiagram diagram = new ConditionDiagram(2);
+        diagram.setNode(0, a, 1, 1);
+        diagram.setNode(1, b, ConditionDiagram.TRUE, ConditionDiagram.FALSE);
+        assertEquals(b, diagram.toCondition(0));
+    }
+
+    @Test
+    public void testCycle() {
+        ConditionDiagram diagram = new ConditionDiagram(2);
+        diagram.setNode(0, var("a"), 1, ConditionDiagram.FALSE);
+        diagram.setNode(1, var("b"), 0, ConditionDiagram.TRUE);
+        assertNull(diagram.toCondition(0));
+    }
+
+    private static class MockInsn implements Instruction {
+
+        private final String name;
+
+        public MockInsn(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public TypeSignature inferType() {
+            return ClassTypeSignature.BOOLEAN;
+        }
+
+        @Override
+        public void accept(AstVisitor visitor) {
+        }
+
+        @Override
+        public String toString() {
+            return this.name;
+        }
+
+        @Override
+        public void writeTo(MessagePacker pack) throws IOException {
+        }
+
+    }
+
+}
@@ -0,0 +1,162 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Despector <https://despector.voxelgenesis.com>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.test.decompile;
+
+import static org.objectweb.asm.Opcodes.*;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.spongepowered.despector.ast.SourceSet;
+import org.spongepowered.despector.ast.stmt.StatementBlock;
+import org.spongepowered.despector.ast.type.MethodEntry;
+import org.spongepowered.despector.ast.type.TypeEntry;
+import org.spongepowered.despector.config.LibraryConfiguration;
+import org.spongepowered.despector.decompiler.Decompilers;
+import org.spongepowered.despector.decompiler.method.MethodDecompiler;
+import org.spongepowered.despector.decompiler.method.PartialMethod;
+import org.spongepowered.despector.decompiler.method.graph.GraphProducerStep;
+import org.spongepowered.despector.decompiler.method.graph.LegacyGraphProducerStep;
+import org.spongepowered.despector.decompiler.method.graph.create.JumpGraphProducerStep;
+import org.spongepowered.despector.decompiler.method.graph.data.opcode.OpcodeBlock;
+import org.spongepowered.despector.decompiler.method.graph.process.InternalBlockProcessor;
+import org.spongepowered.despector.decompiler.method.graph.process.SubRegionBlockProcessor;
+import org.spongepowered.test.util.TestMethodBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+
+public class GraphProducerStepTest {
+
+    @BeforeClass
+    public static void setup() {
+        LibraryConfiguration.quiet = false;
+        LibraryConfiguration.parallel = false;
+    }
+
+    private static MethodEntry createMethod() throws IOException {
+        TestMethodBuilder builder = new TestMethodBuilder("test_mth", "()V");
+        MethodVisitor mv = builder.getGenerator();
+        mv.visitFieldInsn(GETSTATIC, "java/lang/System", "out", "Ljava/io/PrintStream;");
+        mv.visitLdcInsn("Hello World!");
+        mv.visitMethodInsn(INVOKEVIRTUAL, "java/io/PrintStream", "println", "(Ljava/lang/String;)V", false);
+        mv.visitInsn(RETURN);
+        TypeEntry type = Decompilers.WILD.decompile(new ByteArrayInputStream(builder.finish()), new SourceSet());
+        Decompilers.WILD.flushTasks();
+        return type.getStaticMethod("test_mth");
+    }
+
+    private static MethodDecompiler createDecompiler(GraphProducerStep step) {
+        MethodDecompiler decompiler = new MethodDecompiler();
+        decompiler.addGraphProducer(new JumpGraphProducerStep());
+        decompiler.addGraphProducer(step);
+        decompiler.addProcessor(new InternalBlockProcessor());
+        decompiler.addProcessor(new SubRegionBlockProcessor());
+        return decompiler;
+    }
+
+    @Test
+    public void testLegacyStep() throws IOException {
+        MethodEntry method = createMethod();
+        int[] edges = new int[1];
+        MethodDecompiler decompiler = createDecompiler(new LegacyGraphProducerStep() {
+
+            @Override
+            public void collectBreakpoints(PartialMethod partial, Set<Integer> break_points) {
+                break_points.add(1);
+            }
+
+            @Override
+            public void formEdges(PartialMethod partial, List<Integer> sorted_break_points, List<OpcodeBlock> block_list) {
+                Assert.assertEquals(1, sorted_break_points.size());
+                Assert.assertEquals(2, block_list.size());
+                edges[0]++;
+            }
+        });
+        StatementBlock block = decompiler.decompile(method);
+        Assert.assertEquals(1, edges[0]);
+        Assert.assertEquals(0, decompiler.getStraightLineMethodCount());
+        Assert.assertEquals(method.getInstructions().getStatementCount(), block.getStatementCount());
+    }
+
+    @Test
+    public void testPrecompiledLegacyStep() throws Exception {
+        // a step compiled against the boxed methods only, as it would be by
+        // a library built before the BitSet methods were added
+        String name = "org/spongepowered/test/decompile/PrecompiledLegacyStep";
+        ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        cw.visit(V1_8, ACC_PUBLIC | ACC_SUPER, name, null, "java/lang/Object",
+                new String[] {"org/spongepowered/despector/decompiler/method/graph/GraphProducerStep"});
+        MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "<init>", "()V", null, null);
+        mv.visitCode();
+        mv.visitVarInsn(ALOAD, 0);
+        mv.visitMethodInsn(INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
+        mv.visitInsn(RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+        mv = cw.visitMethod(ACC_PUBLIC, "collectBreakpoints", "(Lorg/spongepowered/despector/decompiler/method/PartialMethod;Ljava/util/Set;)V",
+                null, null);
+        mv.visitCode();
+        mv.visitVarInsn(ALOAD, 2);
+        mv.visitInsn(ICONST_1);
+        mv.visitMethodInsn(INVOKESTATIC, "java/lang/Integer", "valueOf", "(I)Ljava/lang/Integer;", false);
+        mv.visitMethodInsn(INVOKEINTERFACE, "java/util/Set", "add", "(Ljava/lang/Object;)Z", true);
+        mv.visitInsn(POP);
+        mv.visitInsn(RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+        mv = cw.visitMethod(ACC_PUBLIC, "formEdges",
+                "(Lorg/spongepowered/despector/decompiler/method/PartialMethod;Ljava/util/List;Ljava/util/List;)V", null, null);
+        mv.visitCode();
+        mv.visitInsn(RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+        cw.visitEnd();
+        byte[] data = cw.toByteArray();
+
+        ClassLoader loader = new ClassLoader(GraphProducerStepTest.class.getClassLoader()) {
+
+            @Override
+            protected Class<?> findClass(String cls) throws ClassNotFoundException {
+                if (cls.equals(name.replace('/', '.'))) {
+                    return defineClass(cls, data, 0, data.length);
+                }
+                return super.findClass(cls);
+            }
+        };
+        GraphProducerStep step = (GraphProducerStep) loader.loadClass(name.replace('/', '.')).newInstance();
+
+        MethodEntry method = createMethod();
+        MethodDecompiler decompiler = createDecompiler(step);
+        StatementBlock block = decompiler.decompile(method);
+        Assert.assertEquals(0, decompiler.getStraightLineMethodCount());
+        Assert.assertEquals(method.getInstructions().getStatementCount(), block.getStatementCount());
+    }
+
+}
@@ -0,0 +1,58 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Despector <https://despector.voxelgenesis.com>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.test.decompile;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+import org.spongepowered.despector.decompiler.ir.Insn;
+import org.spongepowered.despector.decompiler.ir.InsnBlock;
+import org.spongepowered.despector.decompiler.ir.IntInsn;
+import org.spongepowered.despector.decompiler.ir.JumpInsn;
+
+public class InsnBlockTest {
+
+    @Test
+    public void testAppendAfterGet() {
+        InsnBlock block = new InsnBlock(true);
+        block.appendInt(Insn.ICONST, 0);
+        Insn first = block.get(0);
+        // grow well past the initial capacity after the first access
+        for (int i = 1; i < 100; i++) {
+            block.appendInt(Insn.ICONST, i);
+        }
+        block.appendJump(Insn.GOTO, 0);
+        assertSame(first, block.get(0));
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, ((IntInsn) block.get(i)).getValue());
+        }
+        JumpInsn jump = (JumpInsn) block.get(100);
+        block.setJumpTarget(100, 50);
+        assertEquals(50, jump.getTarget());
+        assertEquals(50, block.getJumpTarget(100));
+    }
+
+}
@@ -0,0 +1,211 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Despector <https://despector.voxelgenesis.com>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.test.decompile;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.spongepowered.despector.ast.Locals;
+import org.spongepowered.despector.ast.Locals.LocalInstance;
+import org.spongepowered.despector.ast.SourceSet;
+import org.spongepowered.despector.ast.generic.ClassTypeSignature;
+import org.spongepowered.despector.ast.generic.MethodSignature;
+import org.spongepowered.despector.ast.insn.condition.BooleanCondition;
+import org.spongepowered.despector.ast.insn.cst.IntConstant;
+import org.spongepowered.despector.ast.insn.var.LocalAccess;
+import org.spongepowered.despector.ast.stmt.Statement;
+import org.spongepowered.despector.ast.stmt.StatementBlock;
+import org.spongepowered.despector.ast.stmt.assign.LocalAssignment;
+import org.spongepowered.despector.ast.stmt.branch.If;
+import org.spongepowered.despector.ast.type.MethodEntry;
+import org.spongepowered.despector.decompiler.method.postprocess.FusedPostProcessor;
+import org.spongepowered.despector.decompiler.method.postprocess.LocalUsageIndex;
+import org.spongepowered.despector.decompiler.method.postprocess.PostProcessTraversal;
+import org.spongepowered.despector.util.AstUtil;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+public class LocalUsageIndexTest {
+
+    private final LocalInstance[] locals = new LocalInstance[5];
+    private final StatementBlock method = new StatementBlock(StatementBlock.Type.METHOD);
+    private final StatementBlock nested = new StatementBlock(StatementBlock.Type.IF);
+    private If outer;
+
+    // if (a) {
+    //     b = 1;
+    //     if (c) {
+    //         d = 2;
+    //     }
+    // }
+    public LocalUsageIndexTest() {
+        MethodEntry entry = new MethodEntry(new SourceSet());
+        entry.setStatic(true);
+        entry.setMethodSignature(new MethodSignature());
+        Locals locals = new Locals(entry);
+        for (int i = 0; i < this.locals.length; i++) {
+            this.locals[i] = new LocalInstance(locals.getLocal(i), String.valueOf((char) ('a' + i)), ClassTypeSignature.INT, 0, 100);
+        }
+        this.nested.append(new LocalAssignment(local(3), new IntConstant(2)));
+        StatementBlock body = new StatementBlock(StatementBlock.Type.IF);
+        body.append(new LocalAssignment(local(1), new IntConstant(1)));
+        body.append(new If(new BooleanCondition(new LocalAccess(local(2)), false), this.nested));
+        this.outer = new If(new BooleanCondition(new LocalAccess(local(0)), false), body);
+        this.method.append(this.outer);
+    }
+
+    private LocalInstance local(int index) {
+        return this.locals[index];
+    }
+
+    private Set<LocalInstance> locals(int... indices) {
+        Set<LocalInstance> result = new HashSet<>();
+        for (int index : indices) {
+            result.add(local(index));
+        }
+        return result;
+    }
+
+    private static Set<LocalInstance> collect(Statement stmt) {
+        Set<LocalInstance> result = new HashSet<>();
+        AstUtil.collectLocals(stmt, result);
+        return result;
+    }
+
+    @Test
+    public void testCollectLocals() {
+        assertEquals(locals(0, 1, 2, 3), collect(this.outer));
+        this.nested.append(new LocalAssignment(local(4), new IntConstant(3)));
+        assertEquals(locals(0, 1, 2, 3, 4), collect(this.outer));
+        this.nested.getStatements().clear();
+        assertEquals(locals(0, 1, 2), collect(this.outer));
+    }
+
+    @Test
+    public void testInvalidate() {
+        LocalUsageIndex usage = new LocalUsageIndex();
+        assertFalse(usage.references(this.outer, local(4)));
+        this.nested.append(new LocalAssignment(local(4), new IntConstant(3)));
+        // the cached locals are kept until the statement is invalidated
+        assertFalse(usage.references(this.outer, local(4)));
+        usage.invalidate(this.outer);
+        assertTrue(usage.references(this.outer, local(4)));
+        assertEquals(locals(0, 1, 2, 3, 4), new HashSet<>(usage.getLocals(this.outer)));
+    }
+
+    private Set<LocalInstance> traverse(Rewrite rewrite) {
+        Set<LocalInstance> before = new HashSet<>();
+        Set<LocalInstance> after = new HashSet<>();
+        // caches the locals of the outer if before its body is traversed
+        TestProcessor pre = new TestProcessor(If.class, true) {
+
+            @Override
+            public int process(StatementBlock block, int index, LocalUsageIndex usage) {
+                if (block.getStatement(index) == LocalUsageIndexTest.this.outer) {
+                    before.addAll(usage.getLocals(LocalUsageIndexTest.this.outer));
+                }
+                return index;
+            }
+        };
+        TestProcessor rewriter = new TestProcessor(LocalAssignment.class, false) {
+
+            @Override
+            public int process(StatementBlock block, int index, LocalUsageIndex usage) {
+                if (block == LocalUsageIndexTest.this.nested && ((LocalAssignment) block.getStatement(index)).getLocal() == local(3)) {
+                    rewrite.apply(block, index);
+                }
+                return index;
+            }
+        };
+        TestProcessor post = new TestProcessor(If.class, false) {
+
+            @Override
+            public int process(StatementBlock block, int index, LocalUsageIndex usage) {
+                if (block.getStatement(index) == LocalUsageIndexTest.this.outer) {
+                    after.addAll(usage.getLocals(LocalUsageIndexTest.this.outer));
+                }
+                return index;
+            }
+        };
+        new PostProcessTraversal(Arrays.asList(pre, rewriter, post)).postprocess(this.method);
+        assertEquals(locals(0, 1, 2, 3), before);
+        return after;
+    }
+
+    @Test
+    public void testNestedInsertInvalidates() {
+        Set<LocalInstance> after = traverse((block, index) -> block.getStatements().add(index + 1,
+                new LocalAssignment(local(4), new IntConstant(3))));
+        assertEquals(locals(0, 1, 2, 3, 4), after);
+        assertEquals(collect(this.outer), after);
+    }
+
+    @Test
+    public void testNestedReplaceInvalidates() {
+        Set<LocalInstance> after = traverse((block, index) -> block.getStatements().set(index,
+                new LocalAssignment(local(4), new IntConstant(3))));
+        assertEquals(locals(0, 1, 2, 4), after);
+        assertEquals(collect(this.outer), after);
+    }
+
+    private static interface Rewrite {
+
+        void apply(StatementBlock block, int index);
+
+    }
+
+    private abstract static class TestProcessor implements FusedPostProcessor<LocalUsageIndex> {
+
+        private final Class<? extends Statement> type;
+        private final boolean pre_order;
+
+        TestProcessor(Class<? extends Statement> type, boolean pre_order) {
+            this.type = type;
+            this.pre_order = pre_order;
+        }
+
+        @Override
+        public Set<Class<? extends Statement>> getStatementTypes() {
+            return Collections.singleton(this.type);
+        }
+
+        @Override
+        public boolean isPreOrder() {
+            return this.pre_order;
+        }
+
+        @Override
+        public LocalUsageIndex createState(LocalUsageIndex usage) {
+            return usage;
+        }
+
+    }
+
+}
@@ -0,0 +1,211 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Despector <https://despector.voxelgenesis.com>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.test.decompile;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.spongepowered.despector.decompiler.MappedJarFile;
+import org.spongepowered.despector.decompiler.error.SourceFormatException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+public class MappedJarFileTest {
+
+    private static final byte[] CONTENT = "Hello World! Hello World! Hello World!".getBytes(StandardCharsets.UTF_8);
+
+    private Path file;
+
+    @Before
+    public void setup() throws IOException {
+        this.file = Files.createTempFile("despector", ".jar");
+    }
+
+    @After
+    public void cleanup() throws IOException {
+        Files.deleteIfExists(this.file);
+    }
+
+    private static byte[] read(MappedJarFile jar, MappedJarFile.Entry entry) throws IOException {
+        ByteBuffer data = jar.read(entry);
+        byte[] result = new byte[data.remaining()];
+        data.get(result);
+        return result;
+    }
+
+    private void writeJar(String comment) throws IOException {
+        try (OutputStream out = Files.newOutputStream(this.file); ZipOutputStream zip = new ZipOutputStream(out)) {
+            ZipEntry dir = new ZipEntry("a/");
+            zip.putNextEntry(dir);
+            zip.closeEntry();
+
+            CRC32 crc = new CRC32();
+            crc.update(CONTENT);
+            ZipEntry stored = new ZipEntry("a/Stored.class");
+            stored.setMethod(ZipEntry.STORED);
+            stored.setSize(CONTENT.length);
+            stored.setCompressedSize(CONTENT.length);
+            stored.setCrc(crc.getValue());
+            zip.putNextEntry(stored);
+            zip.write(CONTENT);
+            zip.closeEntry();
+
+            ZipEntry deflated = new ZipEntry("a/Deflated.class");
+            deflated.setMethod(ZipEntry.DEFLATED);
+            zip.putNextEntry(deflated);
+            zip.write(CONTENT);
+            zip.closeEntry();
+
+            if (comment != null) {
+                zip.setComment(comment);
+            }
+        }
+    }
+
+    @Test
+    public void testStoredAndDeflated() throws IOException {
+        writeJar(null);
+        try (MappedJarFile jar = new MappedJarFile(this.file)) {
+            List<MappedJarFile.Entry> entries = jar.getEntries();
+            assertEquals(3, entries.size());
+            assertEquals("a/", entries.get(0).getName());
+            assertTrue(entries.get(0).isDirectory());
+
+            MappedJarFile.Entry stored = entries.get(1);
+            assertEquals("a/Stored.class", stored.getName());
+            assertFalse(stored.isDirectory());
+            assertEquals(CONTENT.length, stored.getSize());
+            assertArrayEquals(CONTENT, read(jar, stored));
+            assertEquals(ByteOrder.BIG_ENDIAN, jar.read(stored).order());
+
+            MappedJarFile.Entry deflated = entries.get(2);
+            assertEquals("a/Deflated.class", deflated.getName());
+            assertEquals(CONTENT.length, deflated.getSize());
+            assertArrayEquals(CONTENT, read(jar, deflated));
+        }
+    }
+
+    @Test
+    public void testArchiveComment() throws IOException {
+        StringBuilder comment = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            comment.append("comment ");
+        }
+        writeJar(comment.toString());
+        try (MappedJarFile jar = new MappedJarFile(this.file)) {
+            List<MappedJarFile.Entry> entries = jar.getEntries();
+            assertEquals(3, entries.size());
+            assertArrayEquals(CONTENT, read(jar, entries.get(1)));
+            assertArrayEquals(CONTENT, read(jar, entries.get(2)));
+        }
+    }
+
+    @Test
+    public void testZip64() throws IOException {
+        Files.write(this.file, createZip64("a/Zip64.class", 24));
+        try (MappedJarFile jar = new MappedJarFile(this.file)) {
+            List<MappedJarFile.Entry> entries = jar.getEntries();
+            assertEquals(1, entries.size());
+            assertEquals("a/Zip64.class", entries.get(0).getName());
+            assertEquals(CONTENT.length, entries.get(0).getSize());
+            assertArrayEquals(CONTENT, read(jar, entries.get(0)));
+        }
+    }
+
+    @Test(expected = SourceFormatException.class)
+    public void testMalformedExtraLength() throws IOException {
+        // the zip64 field claims to be longer than the extra data of the entry
+        Files.write(this.file, createZip64("a/Zip64.class", 40));
+        new MappedJarFile(this.file).close();
+    }
+
+    @Test(expected = SourceFormatException.class)
+    public void testTruncatedZip64Field() throws IOException {
+        // the zip64 field is too short for the values it replaces
+        Files.write(this.file, createZip64("a/Zip64.class", 16));
+        new MappedJarFile(this.file).close();
+    }
+
+    /**
+     * Creates an archive with a single stored entry whose sizes and offset
+     * are all moved to a zip64 extra field of the given declared length,
+     * followed by zip64 end records.
+     */
+    private static byte[] createZip64(String entry_name, int zip64_length) {
+        byte[] name = entry_name.getBytes(StandardCharsets.UTF_8);
+        CRC32 crc = new CRC32();
+        crc.update(CONTENT);
+        ByteBuffer buf = ByteBuffer.allocate(1024).order(ByteOrder.LITTLE_ENDIAN);
+
+        // local header
+        buf.putInt(0x04034b50).putShort((short) 45).putShort((short) 0).putShort((short) 0);
+        buf.putShort((short) 0).putShort((short) 0).putInt((int) crc.getValue());
+        buf.putInt(0xFFFFFFFF).putInt(0xFFFFFFFF);
+        buf.putShort((short) name.length).putShort((short) 20);
+        buf.put(name);
+        buf.putShort((short) 0x0001).putShort((short) 16).putLong(CONTENT.length).putLong(CONTENT.length);
+        buf.put(CONTENT);
+
+        // central directory
+        int directory = buf.position();
+        buf.putInt(0x02014b50).putShort((short) 45).putShort((short) 45).putShort((short) 0).putShort((short) 0);
+        buf.putShort((short) 0).putShort((short) 0).putInt((int) crc.getValue());
+        buf.putInt(0xFFFFFFFF).putInt(0xFFFFFFFF);
+        buf.putShort((short) name.length).putShort((short) 28).putShort((short) 0);
+        buf.putShort((short) 0).putShort((short) 0).putInt(0).putInt(0xFFFFFFFF);
+        buf.put(name);
+        buf.putShort((short) 0x0001).putShort((short) zip64_length).putLong(CONTENT.length).putLong(CONTENT.length).putLong(0);
+        int directory_size = buf.position() - directory;
+
+        // zip64 end of central directory and its locator
+        int zip64_end = buf.position();
+        buf.putInt(0x06064b50).putLong(44).putShort((short) 45).putShort((short) 45).putInt(0).putInt(0);
+        buf.putLong(1).putLong(1).putLong(directory_size).putLong(directory);
+        buf.putInt(0x07064b50).putInt(0).putLong(zip64_end).putInt(1);
+
+        // end of central directory
+        buf.putInt(0x06054b50).putShort((short) 0).putShort((short) 0).putShort((short) 0xFFFF).putShort((short) 0xFFFF);
+        buf.putInt(0xFFFFFFFF).putInt(0xFFFFFFFF).putShort((short) 0);
+
+        return Arrays.copyOf(buf.array(), buf.position());
+    }
+
+}
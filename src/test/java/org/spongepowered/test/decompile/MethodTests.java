@@ -31,10 +31,29 @@ import org.junit.BeforeClass;
 import org.junit.Test;
 import org.objectweb.asm.Label;
 import org.objectweb.asm.MethodVisitor;
+import org.spongepowered.despector.ast.SourceSet;
+import org.spongepowered.despector.ast.stmt.StatementBlock;
+import org.spongepowered.despector.ast.type.MethodEntry;
+import org.spongepowered.despector.ast.type.TypeEntry;
 import org.spongepowered.despector.config.LibraryConfiguration;
+import org.spongepowered.despector.decompiler.Decompilers;
+import org.spongepowered.despector.decompiler.method.MethodDecompiler;
+import org.spongepowered.despector.decompiler.method.PartialMethod;
+import org.spongepowered.despector.decompiler.method.graph.GraphProducerStep;
+import org.spongepowered.despector.decompiler.method.graph.create.JumpGraphProducerStep;
+import org.spongepowered.despector.decompiler.method.graph.data.opcode.BodyOpcodeBlock;
+import org.spongepowered.despector.decompiler.method.graph.data.opcode.OpcodeBlock;
+import org.spongepowered.despector.decompiler.method.graph.data.opcode.OpcodeBlockList;
+import org.spongepowered.despector.decompiler.method.graph.process.InternalBlockProcessor;
+import org.spongepowered.despector.decompiler.method.graph.process.SubRegionBlockProcessor;
 import org.spongepowered.test.util.TestHelper;
 import org.spongepowered.test.util.TestMethodBuilder;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.BitSet;
+import java.util.List;
+
 public class MethodTests {
 
     @BeforeClass
@@ -144,4 +163,112 @@ public class MethodTests {
         String good = "int[][] a = new int[5][6];";
         Assert.assertEquals(good, insn);
     }
+
+    @Test
+    public void testStraightLineFastPath() {
+        TestMethodBuilder builder = new TestMethodBuilder("test_mth", "()V");
+        MethodVisitor mv = builder.getGenerator();
+        Label start = new Label();
+        Label l1 = new Label();
+        Label end = new Label();
+        mv.visitLabel(start);
+        mv.visitInsn(ICONST_5);
+        mv.visitIntInsn(BIPUSH, 6);
+        mv.visitInsn(IMUL);
+        mv.visitVarInsn(ISTORE, 0);
+        mv.visitLabel(l1);
+        mv.visitFieldInsn(GETSTATIC, "java/lang/System", "out", "Ljava/io/PrintStream;");
+        mv.visitVarInsn(ILOAD, 0);
+        mv.visitMethodInsn(INVOKEVIRTUAL, "java/io/PrintStream", "println", "(I)V", false);
+        mv.visitInsn(RETURN);
+        mv.visitLabel(end);
+        mv.visitLocalVariable("a", "I", null, l1, end, 0);
+        byte[] data = builder.finish();
+
+        long straight_line = Decompilers.JAVA_METHOD.getStraightLineMethodCount();
+        String insn = TestHelper.getAsString(data, "test_mth");
+        Assert.assertTrue(Decompilers.JAVA_METHOD.getStraightLineMethodCount() > straight_line);
+
+        straight_line = Decompilers.JAVA_METHOD.getStraightLineMethodCount();
+        LibraryConfiguration.straight_line_fast_path = false;
+        try {
+            Assert.assertEquals(TestHelper.getAsString(data, "test_mth"), insn);
+        } finally {
+            LibraryConfiguration.straight_line_fast_path = true;
+        }
+        Assert.assertEquals(straight_line, Decompilers.JAVA_METHOD.getStraightLineMethodCount());
+        Assert.assertEquals("int a = 5 * 6;\nSystem.out.println(a);", insn);
+    }
+
+    @Test
+    public void testStraightLineRespectsProducers() throws IOException {
+        TestMethodBuilder builder = new TestMethodBuilder("test_mth", "()V");
+        MethodVisitor mv = builder.getGenerator();
+        mv.visitFieldInsn(GETSTATIC, "java/lang/System", "out", "Ljava/io/PrintStream;");
+        mv.visitLdcInsn("Hello World!");
+        mv.visitMethodInsn(INVOKEVIRTUAL, "java/io/PrintStream", "println", "(Ljava/lang/String;)V", false);
+        mv.visitInsn(RETURN);
+        TypeEntry type = Decompilers.WILD.decompile(new ByteArrayInputStream(builder.finish()), new SourceSet());
+        Decompilers.WILD.flushTasks();
+        MethodEntry method = type.getStaticMethod("test_mth");
+
+        MethodDecompiler decompiler = new MethodDecompiler();
+        decompiler.addGraphProducer(new JumpGraphProducerStep());
+        decompiler.addProcessor(new InternalBlockProcessor());
+        decompiler.addProcessor(new SubRegionBlockProcessor());
+        StatementBlock straight_line = decompiler.decompile(method);
+        Assert.assertEquals(1, decompiler.getStraightLineMethodCount());
+
+        // a producer breaking up the instructions sends the method through the
+        // graph processors
+        decompiler.addGraphProducer(new GraphProducerStep() {
+
+            @Override
+            public void collectBreakpoints(PartialMethod partial, BitSet break_points) {
+                break_points.set(1);
+            }
+
+            @Override
+            public void formEdges(PartialMethod partial, int[] breakpoints, List<OpcodeBlock> block_list) {
+            }
+        });
+        StatementBlock block = decompiler.decompile(method);
+        Assert.assertEquals(1, decompiler.getStraightLineMethodCount());
+        Assert.assertEquals(2, decompiler.getDecompiledMethodCount());
+        Assert.assertEquals(straight_line.getStatementCount(), block.getStatementCount());
+    }
+
+    @Test
+    public void testStraightLineGraphReplaced() throws IOException {
+        TestMethodBuilder builder = new TestMethodBuilder("test_mth", "()V");
+        MethodVisitor mv = builder.getGenerator();
+        mv.visitFieldInsn(GETSTATIC, "java/lang/System", "out", "Ljava/io/PrintStream;");
+        mv.visitLdcInsn("Hello World!");
+        mv.visitMethodInsn(INVOKEVIRTUAL, "java/io/PrintStream", "println", "(Ljava/lang/String;)V", false);
+        mv.visitInsn(RETURN);
+        TypeEntry type = Decompilers.WILD.decompile(new ByteArrayInputStream(builder.finish()), new SourceSet());
+        Decompilers.WILD.flushTasks();
+        MethodEntry method = type.getStaticMethod("test_mth");
+
+        MethodDecompiler decompiler = new MethodDecompiler();
+        decompiler.addGraphProducer(new JumpGraphProducerStep());
+        decompiler.addProcessor(new InternalBlockProcessor());
+        decompiler.addProcessor(new SubRegionBlockProcessor());
+        StatementBlock straight_line = decompiler.decompile(method);
+        Assert.assertEquals(1, decompiler.getStraightLineMethodCount());
+
+        // a cleanup operation replacing the graph sends the method through
+        // the graph processors even if the new graph has a single block
+        decompiler.addCleanupOperation((partial) -> {
+            OpcodeBlock copy = new BodyOpcodeBlock(0, partial.getGraph().get(0).getEnd());
+            copy.setOpcodes(partial.getGraph().get(0));
+            List<OpcodeBlock> graph = new OpcodeBlockList();
+            graph.add(copy);
+            partial.setGraph(graph);
+        });
+        StatementBlock block = decompiler.decompile(method);
+        Assert.assertEquals(1, decompiler.getStraightLineMethodCount());
+        Assert.assertEquals(2, decompiler.getDecompiledMethodCount());
+        Assert.assertEquals(straight_line.getStatementCount(), block.getStatementCount());
+    }
 }
@@ -0,0 +1,92 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Despector <https://despector.voxelgenesis.com>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.test.decompile;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+import org.spongepowered.despector.decompiler.method.graph.data.TryCatchMarkerType;
+import org.spongepowered.despector.decompiler.method.graph.data.opcode.BodyOpcodeBlock;
+import org.spongepowered.despector.decompiler.method.graph.data.opcode.GotoOpcodeBlock;
+import org.spongepowered.despector.decompiler.method.graph.data.opcode.OpcodeBlock;
+import org.spongepowered.despector.decompiler.method.graph.data.opcode.OpcodeBlockList;
+import org.spongepowered.despector.decompiler.method.graph.data.opcode.TryCatchMarkerOpcodeBlock;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class OpcodeBlockListTest {
+
+    private static void assertSameIndices(List<OpcodeBlock> expected, List<OpcodeBlock> actual, List<OpcodeBlock> queries) {
+        assertEquals(expected, actual);
+        for (OpcodeBlock query : queries) {
+            assertEquals(expected.indexOf(query), actual.indexOf(query));
+        }
+    }
+
+    @Test
+    public void testMatchesArrayList() {
+        Random rand = new Random(0);
+        List<OpcodeBlock> expected = new ArrayList<>();
+        List<OpcodeBlock> actual = new OpcodeBlockList();
+        List<OpcodeBlock> queries = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            int op = rand.nextInt(5);
+            if (op == 0 || expected.isEmpty()) {
+                OpcodeBlock block;
+                if (rand.nextInt(8) == 0) {
+                    block = new TryCatchMarkerOpcodeBlock(TryCatchMarkerType.START, null);
+                } else {
+                    int start = rand.nextInt(50);
+                    block = new BodyOpcodeBlock(start, start + rand.nextInt(3));
+                }
+                queries.add(block);
+                int index = rand.nextInt(expected.size() + 1);
+                expected.add(index, block);
+                actual.add(index, block);
+            } else if (op == 1) {
+                int index = rand.nextInt(expected.size());
+                expected.remove(index);
+                actual.remove(index);
+            } else if (op == 2) {
+                // replace a block with a specialized block of the same bounds
+                int index = rand.nextInt(expected.size());
+                OpcodeBlock old = expected.get(index);
+                OpcodeBlock replacement = new GotoOpcodeBlock(old.getStart(), old.getEnd());
+                queries.add(replacement);
+                expected.set(index, replacement);
+                actual.set(index, replacement);
+            } else {
+                OpcodeBlock block = new BodyOpcodeBlock(rand.nextInt(50), 0);
+                queries.add(block);
+                expected.add(block);
+                actual.add(block);
+            }
+            assertSameIndices(expected, actual, queries);
+        }
+    }
+
+}
@@ -0,0 +1,98 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Despector <https://despector.voxelgenesis.com>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.test.decompile;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.spongepowered.despector.decompiler.ir.Insn;
+import org.spongepowered.despector.decompiler.ir.InsnBlock;
+import org.spongepowered.despector.decompiler.ir.IntInsn;
+import org.spongepowered.despector.decompiler.method.graph.data.opcode.BodyOpcodeBlock;
+import org.spongepowered.despector.decompiler.method.graph.data.opcode.OpcodeBlock;
+
+public class OpcodeBlockTest {
+
+    private static InsnBlock createInsns(int count) {
+        InsnBlock block = new InsnBlock(true);
+        for (int i = 0; i < count; i++) {
+            block.appendInt(Insn.ICONST, i);
+        }
+        return block;
+    }
+
+    private static void assertValues(OpcodeBlock block, int... values) {
+        assertEquals(values.length, block.getOpcodes().size());
+        for (int i = 0; i < values.length; i++) {
+            assertEquals(values[i], ((IntInsn) block.getOpcodes().get(i)).getValue());
+        }
+    }
+
+    @Test
+    public void testEmptyBlock() {
+        OpcodeBlock block = new BodyOpcodeBlock(0, 0);
+        assertFalse(block.isView());
+        assertTrue(block.getOpcodes().isEmpty());
+        assertEquals(0, block.cursor().size());
+        block.getOpcodes().add(new IntInsn(Insn.ICONST, 5));
+        assertValues(block, 5);
+    }
+
+    @Test
+    public void testWriteCopiesView() {
+        InsnBlock insns = createInsns(4);
+        Insn first = insns.get(0);
+        OpcodeBlock a = new BodyOpcodeBlock(0, 2);
+        a.setOpcodes(insns, 0, 2);
+        OpcodeBlock b = new BodyOpcodeBlock(2, 4);
+        b.setOpcodes(insns, 2, 4);
+        OpcodeBlock c = new BodyOpcodeBlock(0, 2);
+        c.setOpcodes(a);
+        assertTrue(a.isView());
+        assertTrue(c.isView());
+
+        a.getOpcodes().set(0, new IntInsn(Insn.ICONST, 10));
+        a.getOpcodes().add(new IntInsn(Insn.ICONST, 11));
+
+        assertFalse(a.isView());
+        assertValues(a, 10, 1, 11);
+        // the shared instructions and the sibling views are unchanged
+        assertSame(first, insns.get(0));
+        assertEquals(4, insns.size());
+        assertTrue(b.isView());
+        assertValues(b, 2, 3);
+        assertTrue(c.isView());
+        assertValues(c, 0, 1);
+
+        b.getOpcodes().remove(0);
+        assertValues(b, 3);
+        assertValues(c, 0, 1);
+        assertSame(first, c.getOpcodes().get(0));
+    }
+
+}
@@ -0,0 +1,168 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Despector <https://despector.voxelgenesis.com>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.test.decompile;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.spongepowered.despector.ast.stmt.Statement;
+import org.spongepowered.despector.ast.stmt.StatementBlock;
+import org.spongepowered.despector.ast.stmt.branch.For;
+import org.spongepowered.despector.ast.stmt.branch.ForEach;
+import org.spongepowered.despector.ast.type.MethodEntry;
+import org.spongepowered.despector.config.LibraryConfiguration;
+import org.spongepowered.despector.decompiler.method.MethodDecompiler;
+import org.spongepowered.despector.decompiler.method.graph.create.JumpGraphProducerStep;
+import org.spongepowered.despector.decompiler.method.graph.create.SwitchGraphProducerStep;
+import org.spongepowered.despector.decompiler.method.graph.create.TryCatchGraphProducerStep;
+import org.spongepowered.despector.decompiler.method.graph.operate.BlockTargetOperation;
+import org.spongepowered.despector.decompiler.method.graph.operate.BreakPrePassOperation;
+import org.spongepowered.despector.decompiler.method.graph.operate.JumpSeparateOperation;
+import org.spongepowered.despector.decompiler.method.graph.operate.TernaryPrePassOperation;
+import org.spongepowered.despector.decompiler.method.graph.process.InternalBlockProcessor;
+import org.spongepowered.despector.decompiler.method.graph.process.SubRegionBlockProcessor;
+import org.spongepowered.despector.decompiler.method.graph.process.SwitchBlockProcessor;
+import org.spongepowered.despector.decompiler.method.graph.process.TryCatchBlockProcessor;
+import org.spongepowered.despector.decompiler.method.graph.region.ChildRegionProcessor;
+import org.spongepowered.despector.decompiler.method.graph.region.DoWhileRegionProcessor;
+import org.spongepowered.despector.decompiler.method.graph.region.IfBlockRegionProcessor;
+import org.spongepowered.despector.decompiler.method.graph.region.WhileRegionProcessor;
+import org.spongepowered.despector.decompiler.method.postprocess.FusedPostProcessor;
+import org.spongepowered.despector.decompiler.method.postprocess.ForEachPostProcessor;
+import org.spongepowered.despector.decompiler.method.postprocess.ForFromWhilePostProcessor;
+import org.spongepowered.despector.decompiler.method.postprocess.IfCombiningPostProcessor;
+import org.spongepowered.despector.decompiler.method.postprocess.PostProcessTraversal;
+import org.spongepowered.despector.decompiler.method.postprocess.StatementPostProcessor;
+import org.spongepowered.test.util.TestHelper;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+public class PostProcessTraversalTest {
+
+    @BeforeClass
+    public static void setup() {
+        LibraryConfiguration.quiet = false;
+        LibraryConfiguration.parallel = false;
+    }
+
+    public static int loops(int[] values, List<String> names) {
+        int total = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] > 0 && values[i] < 10) {
+                total += values[i];
+            }
+        }
+        for (String name : names) {
+            if (name != null || total > 5) {
+                total++;
+            }
+        }
+        for (int value : values) {
+            total -= value;
+        }
+        return total;
+    }
+
+    private static MethodDecompiler createDecompiler(boolean fused) {
+        MethodDecompiler decompiler = new MethodDecompiler();
+        decompiler.addGraphProducer(new JumpGraphProducerStep());
+        decompiler.addGraphProducer(new SwitchGraphProducerStep());
+        decompiler.addGraphProducer(new TryCatchGraphProducerStep());
+        decompiler.addCleanupOperation(new JumpSeparateOperation());
+        decompiler.addCleanupOperation(new BlockTargetOperation());
+        decompiler.addCleanupOperation(new TernaryPrePassOperation());
+        decompiler.addCleanupOperation(new BreakPrePassOperation());
+        decompiler.addProcessor(new TryCatchBlockProcessor());
+        decompiler.addProcessor(new InternalBlockProcessor());
+        decompiler.addProcessor(new SwitchBlockProcessor());
+        decompiler.addProcessor(new SubRegionBlockProcessor());
+        decompiler.addRegionProcessor(new ChildRegionProcessor());
+        decompiler.addRegionProcessor(new DoWhileRegionProcessor());
+        decompiler.addRegionProcessor(new WhileRegionProcessor());
+        decompiler.addRegionProcessor(new IfBlockRegionProcessor());
+        List<StatementPostProcessor> post = Arrays.asList(new IfCombiningPostProcessor(), new ForFromWhilePostProcessor(),
+                new ForEachPostProcessor());
+        for (StatementPostProcessor proc : post) {
+            if (fused) {
+                decompiler.addPostProcessor(proc);
+            } else {
+                // hides that the processor is fused so that each runs its own
+                // traversal of the method
+                decompiler.addPostProcessor((block) -> proc.postprocess(block));
+            }
+        }
+        return decompiler;
+    }
+
+    private static int count(StatementBlock block, Class<?> type) {
+        int count = 0;
+        for (Statement stmt : block.getStatements()) {
+            if (type.isInstance(stmt)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Test
+    public void testFusedMatchesUnfused() {
+        MethodEntry method = TestHelper.get(PostProcessTraversalTest.class).getStaticMethod("loops");
+        StatementBlock fused = createDecompiler(true).decompile(method);
+        StatementBlock unfused = createDecompiler(false).decompile(method);
+        assertEquals(unfused, fused);
+        // the loop over the array is only recognized as a for each when the
+        // class has a local variable table
+        assertEquals(3, count(fused, For.class) + count(fused, ForEach.class));
+        assertTrue(count(fused, ForEach.class) >= 1);
+    }
+
+    @Test
+    public void testSubclassDispatch() {
+        int[] calls = new int[1];
+        FusedPostProcessor<Void> proc = new FusedPostProcessor<Void>() {
+
+            @Override
+            public Set<Class<? extends Statement>> getStatementTypes() {
+                return Collections.singleton(Statement.class);
+            }
+
+            @Override
+            public int process(StatementBlock block, int index, Void state) {
+                calls[0]++;
+                return index;
+            }
+        };
+        MethodEntry method = TestHelper.get(PostProcessTraversalTest.class).getStaticMethod("loops");
+        StatementBlock block = createDecompiler(true).decompile(method);
+        new PostProcessTraversal(Collections.singletonList(proc)).postprocess(block);
+        assertTrue(calls[0] > block.getStatementCount());
+    }
+
+}
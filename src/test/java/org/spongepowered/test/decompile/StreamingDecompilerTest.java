@@ -0,0 +1,155 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Despector <https://despector.voxelgenesis.com>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.test.decompile;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.objectweb.asm.Opcodes.*;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.spongepowered.despector.Despector;
+import org.spongepowered.despector.ast.SourceSet;
+import org.spongepowered.despector.ast.type.TypeEntry;
+import org.spongepowered.despector.config.LibraryConfiguration;
+import org.spongepowered.despector.decompiler.Decompilers;
+import org.spongepowered.despector.decompiler.JarWalker;
+import org.spongepowered.despector.decompiler.StreamingDecompiler;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+public class StreamingDecompilerTest {
+
+    private Path jar;
+
+    @BeforeClass
+    public static void setupClass() {
+        LibraryConfiguration.quiet = true;
+        LibraryConfiguration.parallel = false;
+    }
+
+    @Before
+    public void setup() throws IOException {
+        this.jar = Files.createTempFile("despector", ".jar");
+        // the caller is written first so that with one type per batch the
+        // varargs callee is not yet decompiled when the caller is emitted
+        try (OutputStream out = Files.newOutputStream(this.jar); ZipOutputStream zip = new ZipOutputStream(out)) {
+            zip.putNextEntry(new ZipEntry("test/Caller.class"));
+            zip.write(createCaller());
+            zip.closeEntry();
+            zip.putNextEntry(new ZipEntry("test/Callee.class"));
+            zip.write(createCallee());
+            zip.closeEntry();
+        }
+    }
+
+    @After
+    public void cleanup() throws IOException {
+        Files.deleteIfExists(this.jar);
+    }
+
+    private static byte[] createCaller() {
+        ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        cw.visit(V1_8, ACC_PUBLIC | ACC_SUPER, "test/Caller", null, "java/lang/Object", null);
+        MethodVisitor mv = cw.visitMethod(ACC_PUBLIC | ACC_STATIC, "run", "()V", null, null);
+        mv.visitCode();
+        Label start = new Label();
+        Label end = new Label();
+        mv.visitLabel(start);
+        mv.visitInsn(ICONST_2);
+        mv.visitTypeInsn(ANEWARRAY, "java/lang/String");
+        mv.visitInsn(DUP);
+        mv.visitInsn(ICONST_0);
+        mv.visitLdcInsn("a");
+        mv.visitInsn(AASTORE);
+        mv.visitInsn(DUP);
+        mv.visitInsn(ICONST_1);
+        mv.visitLdcInsn("b");
+        mv.visitInsn(AASTORE);
+        mv.visitMethodInsn(INVOKESTATIC, "test/Callee", "log", "([Ljava/lang/String;)V", false);
+        mv.visitInsn(RETURN);
+        mv.visitLabel(end);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+        cw.visitEnd();
+        return cw.toByteArray();
+    }
+
+    private static byte[] createCallee() {
+        ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        cw.visit(V1_8, ACC_PUBLIC | ACC_SUPER, "test/Callee", null, "java/lang/Object", null);
+        MethodVisitor mv = cw.visitMethod(ACC_PUBLIC | ACC_STATIC | ACC_VARARGS, "log", "([Ljava/lang/String;)V", null, null);
+        mv.visitCode();
+        Label start = new Label();
+        Label end = new Label();
+        mv.visitLabel(start);
+        mv.visitInsn(RETURN);
+        mv.visitLabel(end);
+        mv.visitLocalVariable("args", "[Ljava/lang/String;", null, start, end, 0);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+        cw.visitEnd();
+        return cw.toByteArray();
+    }
+
+    private static void emit(Collection<TypeEntry> types, Map<String, String> output) {
+        for (TypeEntry type : types) {
+            output.put(type.getName(), Despector.emitToString(type));
+        }
+    }
+
+    @Test
+    public void testStreamingMatchesBatch() throws IOException {
+        Map<String, String> batch = new TreeMap<>();
+        SourceSet batch_set = new SourceSet();
+        new JarWalker(this.jar).walk(batch_set, Decompilers.WILD);
+        Decompilers.WILD.flushTasks();
+        emit(batch_set.getAllClasses(), batch);
+
+        Map<String, String> streamed = new TreeMap<>();
+        SourceSet stream_set = new SourceSet();
+        StreamingDecompiler streaming = new StreamingDecompiler(Decompilers.WILD, 1);
+        int count = streaming.run(Collections.singletonList(this.jar), stream_set, (types) -> emit(types, streamed));
+
+        assertEquals(2, count);
+        assertEquals(batch, streamed);
+        assertTrue(streamed.get("test/Caller"), streamed.get("test/Caller").contains("Callee.log(\"a\", \"b\")"));
+    }
+
+}